@@ -7,12 +7,49 @@ public class AppConstants {
     public static final Integer POST_PER_PAGE = 20;
     public static final Integer CONTENT_PER_PAGE = 20;
     public static final Integer MAX_POST_TAGS = 5;
+    public static final Integer TIMELINE_MATERIALIZE_SIZE = 500;
+    public static final Integer TIMELINE_FOLLOW_BACKFILL_SIZE = 50;
+    public static final Integer TIMELINE_FAN_OUT_CHUNK_SIZE = 1000;
+    public static final String FEED_MODE_HYBRID = "hybrid";
+    public static final Integer FEED_DEFAULT_FOLLOWER_THRESHOLD = 10000;
     public static final Long JWT_EXPIRATION_2Wk = 14 * 86400000L; // 2 Weeks
     public static final Long JWT_EXPIRATION_1d = 86400000L; // 1 Day
+    public static final Long VERIFIED_TOKEN_CACHE_SIZE = 10000L;
+    public static final Long VERIFIED_TOKEN_CACHE_TTL_MINUTES = 10L;
+    public static final Integer USER_SEARCH_REBUILD_BATCH_SIZE = 10000;
+    public static final Integer POST_SEARCH_REINDEX_BATCH_SIZE = 1000;
+    public static final Integer POST_SEARCH_MAX_SEGMENTS = 10;
+    public static final Long POST_SEARCH_CATCH_UP_MARGIN_MS = 60000L;
+    public static final Integer TRENDING_TAG_COUNT = 10;
+    public static final Integer TRENDING_TAG_SKETCH_CAPACITY = 1000;
+    public static final Long TRENDING_TAG_DEFAULT_HALF_LIFE_MINUTES = 360L;
+    public static final Integer TAG_SUGGESTION_COUNT = 10;
+    public static final Integer TAG_SUGGEST_REBUILD_BATCH_SIZE = 10000;
+    public static final Long NOTIFICATION_COUNT_CACHE_SIZE = 100000L;
+    public static final Long NOTIFICATION_COUNT_TTL_MINUTES = 60L;
+    public static final Integer NOTIFICATION_COUNT_RECONCILE_BATCH_SIZE = 1000;
+    public static final Integer NOTIFICATION_STREAM_THREADS = 4;
+    public static final Integer NOTIFICATION_STREAM_DISPATCH_QUEUE_SIZE = 50000;
+    public static final Integer NOTIFICATION_STREAM_QUEUE_SIZE = 32;
+    public static final Integer NOTIFICATION_STREAM_MAX_PER_USER = 5;
+    public static final Long NOTIFICATION_STREAM_DEFAULT_TIMEOUT_MS = 30 * 60000L;
+    public static final Integer NOTIFICATION_RECENT_ACTOR_COUNT = 5;
+    public static final Integer NOTIFICATION_OUTBOX_BATCH_SIZE = 500;
+    public static final Integer NOTIFICATION_OUTBOX_MAX_BATCHES_PER_RUN = 20;
+    public static final Integer NOTIFICATION_RETENTION_BATCH_SIZE = 1000;
+    public static final Integer NOTIFICATION_RETENTION_MAX_BATCHES_PER_RUN = 100;
+    public static final Long NOTIFICATION_RETENTION_DEFAULT_READ_MAX_AGE_DAYS = 90L;
+    public static final Integer NOTIFICATION_RETENTION_DEFAULT_MAX_PER_RECEIVER = 1000;
+    public static final Long FOLLOW_GRAPH_MAX_IDS = 5_000_000L;
+    public static final Long FOLLOW_GRAPH_TTL_MINUTES = 30L;
+    public static final Long AUTH_USER_CACHE_SIZE = 10000L;
+    public static final Long AUTH_USER_CACHE_TTL_SECONDS = 30L;
+    public static final String AUTH_USER_REQUEST_ATTRIBUTE = "com.kpjunaid.authUser";
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String TOKEN_HEADER = "Jwt-Token";
     public static final String OPTIONS_HTTP_METHOD = "options";
     public static final String AUTHORITIES = "authorities";
+    public static final String USER_ID_CLAIM = "uid";
     public static final String TOKEN_UNVERIFIABLE = "Token cannot be verified.";
     public static final String INVALID_TOKEN = "Token is not valid.";
     public static final String FORBIDDEN = "You need to be logged in to access this resource.";
@@ -51,6 +88,8 @@ public class AppConstants {
     public static final String SHARE_EXISTS = "You have already shared this post.";
     public static final String DUPLICATE_SHARE = "You have already shared this post.";
     public static final String NOTIFICATION_NOT_FOUND = "No notification found.";
+    public static final String PASSWORD_HASHING_BUSY = "Too many sign in requests right now. Please try again shortly.";
+    public static final String INVALID_CURSOR = "Pagination cursor is not valid.";
 
     public static final String EMAIL_PATTERN = "^[\\w!#$%&’*+/=?`{|}~^-]+(?:\\.[\\w!#$%&’*+/=?`{|}~^-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}$";
     public static final String PASSWORD_PATTERN = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#&()–[{}]:;',?/*~$^+=<>]).{6,32}$";
@@ -0,0 +1,18 @@
+package com.kpjunaid.common;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import javax.servlet.http.HttpServletRequest;
+
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class AuthenticatedUserDetails extends WebAuthenticationDetails {
+    private final Long userId;
+
+    public AuthenticatedUserDetails(HttpServletRequest request, Long userId) {
+        super(request);
+        this.userId = userId;
+    }
+}
@@ -196,4 +196,14 @@ public class CustomExceptionHandler {
     public ResponseEntity<ErrorResponse> handleNotificationNotFoundException(NotificationNotFoundException exception) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, AppConstants.NOTIFICATION_NOT_FOUND, null);
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException exception) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, AppConstants.INVALID_CURSOR, null);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusyException(PasswordHashingBusyException exception) {
+        return buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, AppConstants.PASSWORD_HASHING_BUSY, null);
+    }
 }
@@ -0,0 +1,29 @@
+package com.kpjunaid.common;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Converter
+public class IdListConverter implements AttributeConverter<List<Long>, String> {
+    @Override
+    public String convertToDatabaseColumn(List<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public List<Long> convertToEntityAttribute(String column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(column.split(",")).map(Long::valueOf).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.kpjunaid.common;
+
+import com.kpjunaid.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+public class PageCursor {
+    private static final String SEPARATOR = "\u001F";
+
+    private final List<String> keys;
+    private final Long id;
+
+    private PageCursor(List<String> keys, Long id) {
+        this.keys = keys;
+        this.id = id;
+    }
+
+    public static PageCursor of(Date date, Long id) {
+        return new PageCursor(List.of(String.valueOf(date == null ? 0L : date.getTime())), id);
+    }
+
+    public static PageCursor of(String firstKey, String secondKey, Long id) {
+        return new PageCursor(List.of(firstKey, secondKey), id);
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> parts = Arrays.asList(decoded.split(Pattern.quote(SEPARATOR), -1));
+            if (parts.size() < 2) {
+                throw new InvalidCursorException();
+            }
+            Long id = Long.valueOf(parts.get(parts.size() - 1));
+            return new PageCursor(List.copyOf(parts.subList(0, parts.size() - 1)), id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public static <T> String nextCursor(List<T> items, Integer size, Function<T, PageCursor> cursorOf) {
+        if (items.isEmpty() || items.size() < size) {
+            return null;
+        }
+        return cursorOf.apply(items.get(items.size() - 1)).encode();
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, keys) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getDate() {
+        try {
+            return new Date(Long.parseLong(keys.get(0)));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public String getKey(int index) {
+        if (index >= keys.size()) {
+            throw new InvalidCursorException();
+        }
+        return keys.get(index);
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kpjunaid.common;
+
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.Tag;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.service.CounterService;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostLoad;
+
+public class PendingCountsListener {
+    private final ObjectProvider<CounterService> counterServiceProvider;
+
+    public PendingCountsListener(ObjectProvider<CounterService> counterServiceProvider) {
+        this.counterServiceProvider = counterServiceProvider;
+    }
+
+    @PostLoad
+    public void applyPendingCounts(Object entity) {
+        CounterService counterService = counterServiceProvider.getIfAvailable();
+        if (counterService == null) {
+            return;
+        }
+
+        if (entity instanceof Post post) {
+            counterService.applyPendingCounts(post);
+        } else if (entity instanceof Comment comment) {
+            counterService.applyPendingCounts(comment);
+        } else if (entity instanceof User user) {
+            counterService.applyPendingCounts(user);
+        } else if (entity instanceof Tag tag) {
+            counterService.applyPendingCounts(tag);
+        }
+    }
+}
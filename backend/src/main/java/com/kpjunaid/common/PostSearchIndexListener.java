@@ -0,0 +1,34 @@
+package com.kpjunaid.common;
+
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.service.PostSearchService;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+public class PostSearchIndexListener {
+    private final ObjectProvider<PostSearchService> postSearchServiceProvider;
+
+    public PostSearchIndexListener(ObjectProvider<PostSearchService> postSearchServiceProvider) {
+        this.postSearchServiceProvider = postSearchServiceProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void indexPost(Post post) {
+        PostSearchService postSearchService = postSearchServiceProvider.getIfAvailable();
+        if (postSearchService != null) {
+            postSearchService.indexPost(post.getId(), post.getContent());
+        }
+    }
+
+    @PostRemove
+    public void removePost(Post post) {
+        PostSearchService postSearchService = postSearchServiceProvider.getIfAvailable();
+        if (postSearchService != null) {
+            postSearchService.removePost(post.getId());
+        }
+    }
+}
@@ -15,6 +15,10 @@ import java.util.List;
 public class UserPrincipal implements UserDetails {
     private final User user;
 
+    public Long getUserId() {
+        return user.getId();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.<GrantedAuthority>of(new SimpleGrantedAuthority(user.getRole()));
@@ -0,0 +1,34 @@
+package com.kpjunaid.common;
+
+import com.kpjunaid.entity.User;
+import com.kpjunaid.service.UserSearchService;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+public class UserSearchIndexListener {
+    private final ObjectProvider<UserSearchService> userSearchServiceProvider;
+
+    public UserSearchIndexListener(ObjectProvider<UserSearchService> userSearchServiceProvider) {
+        this.userSearchServiceProvider = userSearchServiceProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void indexUser(User user) {
+        UserSearchService userSearchService = userSearchServiceProvider.getIfAvailable();
+        if (userSearchService != null) {
+            userSearchService.indexUser(user.getId(), user.getFirstName(), user.getLastName());
+        }
+    }
+
+    @PostRemove
+    public void removeUser(User user) {
+        UserSearchService userSearchService = userSearchServiceProvider.getIfAvailable();
+        if (userSearchService != null) {
+            userSearchService.removeUser(user.getId());
+        }
+    }
+}
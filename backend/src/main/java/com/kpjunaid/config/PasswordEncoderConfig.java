@@ -0,0 +1,25 @@
+package com.kpjunaid.config;
+
+import com.kpjunaid.common.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+@RequiredArgsConstructor
+public class PasswordEncoderConfig {
+    private final Environment environment;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = environment.getProperty("password.bcrypt.strength", Integer.class, 10);
+        int threads = environment.getProperty("password.hashing.threads", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        int queueCapacity = environment.getProperty("password.hashing.queue-capacity", Integer.class, 64);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity, meterRegistry);
+    }
+}
@@ -1,11 +1,13 @@
 package com.kpjunaid.controller;
 
 import com.kpjunaid.service.NotificationService;
-import com.kpjunaid.entity.Notification;
+import com.kpjunaid.response.NotificationSummaryResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -16,23 +18,38 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     @GetMapping("/notifications")
-    public ResponseEntity<?> getNotifications(@RequestParam("page") Integer page,
+    public ResponseEntity<?> getNotifications(@RequestParam(value = "page", required = false) Integer page,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
                                               @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
-        List<Notification> notifications = notificationService.getNotificationsForAuthUserPaginate(page, size);
+        if (page == null) {
+            return new ResponseEntity<>(notificationService.getNotificationsForAuthUserByCursor(cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
+        List<NotificationSummaryResponse> notifications = notificationService.getNotificationsForAuthUserPaginate(page, size);
         return new ResponseEntity<>(notifications, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications() {
+        return notificationService.subscribeForAuthUser();
+    }
+
+    @GetMapping("/notifications/unread-count")
+    public ResponseEntity<?> getUnreadCount() {
+        long unreadCount = notificationService.getUnseenCountForAuthUser();
+        return new ResponseEntity<>(unreadCount, HttpStatus.OK);
+    }
+
     @PostMapping("/notifications/mark-seen")
     public ResponseEntity<?> markAllSeen() {
-        notificationService.markAllSeen();
-        return new ResponseEntity<>(HttpStatus.OK);
+        int markedCount = notificationService.markAllSeen();
+        return new ResponseEntity<>(markedCount, HttpStatus.OK);
     }
 
     @PostMapping("/notifications/mark-read")
     public ResponseEntity<?> markAllRead() {
-        notificationService.markAllRead();
-        return new ResponseEntity<>(HttpStatus.OK);
+        int markedCount = notificationService.markAllRead();
+        return new ResponseEntity<>(markedCount, HttpStatus.OK);
     }
 }
@@ -10,6 +10,7 @@ import com.kpjunaid.response.CommentResponse;
 import com.kpjunaid.dto.TagDto;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.exception.EmptyPostException;
+import com.kpjunaid.mapper.ReadModelMapper;
 import com.kpjunaid.response.PostResponse;
 import com.kpjunaid.service.CommentService;
 import com.kpjunaid.service.PostService;
@@ -32,6 +33,7 @@ public class PostController {
     private final CommentService commentService;
     private final UserService userService;
     private final TagService tagService;
+    private final ReadModelMapper readModelMapper;
 
     @PostMapping("/posts/create")
     public ResponseEntity<?> createNewPost(@RequestParam(value = "content", required = false) Optional<String> content,
@@ -128,11 +130,15 @@ public class PostController {
 
     @GetMapping("/posts/{postId}/comments")
     public ResponseEntity<?> getPostComments(@PathVariable("postId") Long postId,
-                                             @RequestParam("page") Integer page,
+                                             @RequestParam(value = "page", required = false) Integer page,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
                                              @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
         Post targetPost = postService.getPostById(postId);
+        if (page == null) {
+            return new ResponseEntity<>(commentService.getPostCommentsByCursor(targetPost, cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<CommentResponse> postCommentResponseList = commentService.getPostCommentsPaginate(targetPost, page, size);
         return new ResponseEntity<>(postCommentResponseList, HttpStatus.OK);
     }
@@ -142,7 +148,7 @@ public class PostController {
                                                @RequestParam(value = "content") String content) {
         Comment savedComment = postService.createPostComment(postId, content);
         CommentResponse commentResponse = CommentResponse.builder()
-                .comment(savedComment)
+                .comment(readModelMapper.commentToCommentSummary(savedComment))
                 .likedByAuthUser(false)
                 .build();
         return new ResponseEntity<>(commentResponse, HttpStatus.OK);
@@ -208,13 +214,27 @@ public class PostController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @GetMapping("/posts/search")
+    public ResponseEntity<?> searchPosts(@RequestParam("key") String key,
+                                         @RequestParam("page") Integer page,
+                                         @RequestParam("size") Integer size) {
+        page = page < 0 ? 0 : page-1;
+        size = size <= 0 ? 5 : size;
+        List<PostResponse> postSearchResult = postService.getPostSearchResult(key, page, size);
+        return new ResponseEntity<>(postSearchResult, HttpStatus.OK);
+    }
+
     @GetMapping("/posts/tags/{tagName}")
     public ResponseEntity<?> getPostsByTag(@PathVariable("tagName") String tagName,
-                                          @RequestParam("page") Integer page,
+                                          @RequestParam(value = "page", required = false) Integer page,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
                                           @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
         Tag targetTag = tagService.getTagByName(tagName);
+        if (page == null) {
+            return new ResponseEntity<>(postService.getPostByTagByCursor(targetTag, cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<PostResponse> taggedPosts = postService.getPostByTagPaginate(targetTag, page, size);
         return new ResponseEntity<>(taggedPosts, HttpStatus.OK);
     }
@@ -22,10 +22,14 @@ public class TimelineController {
     private final TagService tagService;
 
     @GetMapping( "/")
-    public ResponseEntity<?> getTimelinePosts(@RequestParam("page") Integer page,
+    public ResponseEntity<?> getTimelinePosts(@RequestParam(value = "page", required = false) Integer page,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
                                               @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
+        if (page == null) {
+            return new ResponseEntity<>(postService.getTimelinePostsByCursor(cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<PostResponse> timelinePosts = postService.getTimelinePostsPaginate(page, size);
         return new ResponseEntity<>(timelinePosts, HttpStatus.OK);
     }
@@ -35,4 +39,10 @@ public class TimelineController {
         List<Tag> timelineTags = tagService.getTimelineTags();
         return new ResponseEntity<>(timelineTags, HttpStatus.OK);
     }
+
+    @GetMapping("/tags/suggest")
+    public ResponseEntity<?> getTagSuggestions(@RequestParam("prefix") String prefix) {
+        List<String> tagSuggestions = tagService.getTagSuggestions(prefix);
+        return new ResponseEntity<>(tagSuggestions, HttpStatus.OK);
+    }
 }
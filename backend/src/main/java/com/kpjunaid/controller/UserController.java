@@ -105,42 +105,49 @@ public class UserController {
 
     @GetMapping("/users/{userId}/following")
     public ResponseEntity<?> getUserFollowingUsers(@PathVariable("userId") Long userId,
-                                                  @RequestParam("page") Integer page,
+                                                  @RequestParam(value = "page", required = false) Integer page,
+                                                  @RequestParam(value = "cursor", required = false) String cursor,
                                                   @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
+        if (page == null) {
+            return new ResponseEntity<>(userService.getFollowingUsersByCursor(userId, cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<UserResponse> followingList = userService.getFollowingUsersPaginate(userId, page, size);
         return new ResponseEntity<>(followingList, HttpStatus.OK);
     }
 
     @GetMapping("/users/{userId}/follower")
     public ResponseEntity<?> getUserFollowerUsers(@PathVariable("userId") Long userId,
-                                                 @RequestParam("page") Integer page,
+                                                 @RequestParam(value = "page", required = false) Integer page,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
                                                  @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
+        if (page == null) {
+            return new ResponseEntity<>(userService.getFollowerUsersByCursor(userId, cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<UserResponse> followingList = userService.getFollowerUsersPaginate(userId, page, size);
         return new ResponseEntity<>(followingList, HttpStatus.OK);
     }
 
     @GetMapping("/users/{userId}")
     public ResponseEntity<?> getUserById(@PathVariable("userId") Long userId) {
-        User authUser = userService.getAuthenticatedUser();
-        User targetUser = userService.getUserById(userId);
-        UserResponse userResponse = UserResponse.builder()
-                .user(targetUser)
-                .followedByAuthUser(targetUser.getFollowerUsers().contains(authUser))
-                .build();
+        UserResponse userResponse = userService.getUserResponseById(userId);
         return new ResponseEntity<>(userResponse, HttpStatus.OK);
     }
 
     @GetMapping("/users/{userId}/posts")
     public ResponseEntity<?> getUserPosts(@PathVariable("userId") Long userId,
-                                          @RequestParam("page") Integer page,
+                                          @RequestParam(value = "page", required = false) Integer page,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
                                           @RequestParam("size") Integer size) {
-        page = page < 0 ? 0 : page-1;
         size = size <= 0 ? 5 : size;
         User targetUser = userService.getUserById(userId);
+        if (page == null) {
+            return new ResponseEntity<>(postService.getPostsByUserByCursor(targetUser, cursor, size), HttpStatus.OK);
+        }
+        page = page < 0 ? 0 : page-1;
         List<PostResponse> userPosts = postService.getPostsByUserPaginate(targetUser, page, size);
         return new ResponseEntity<>(userPosts, HttpStatus.OK);
     }
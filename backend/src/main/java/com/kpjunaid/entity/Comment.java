@@ -2,6 +2,8 @@ package com.kpjunaid.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.kpjunaid.common.PendingCountsListener;
 import lombok.*;
 
 import javax.persistence.*;
@@ -12,11 +14,14 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = "Comment.withAuthor", attributeNodes = @NamedAttributeNode("author"))
+@EntityListeners(PendingCountsListener.class)
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Comment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +29,8 @@ public class Comment {
 
     @Column(length = 1024)
     private String content;
+
+    @Column(updatable = false)
     private Integer likeCount;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
@@ -32,12 +39,12 @@ public class Comment {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private Date dateLastModified;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     private Post post;
 
@@ -46,7 +53,8 @@ public class Comment {
     @JoinTable(
             name = "comment_likes",
             joinColumns = @JoinColumn(name = "comment_id"),
-            inverseJoinColumns = @JoinColumn(name = "liker_id")
+            inverseJoinColumns = @JoinColumn(name = "liker_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_comment_likes_comment_liker", columnNames = {"comment_id", "liker_id"})
     )
     private List<User> likeList = new ArrayList<>();
 
@@ -0,0 +1,46 @@
+package com.kpjunaid.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.Objects;
+
+@Entity
+@Table(name = "materialized_timelines")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterializedTimeline {
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "horizon_date")
+    private Date horizonDate;
+
+    @Column(name = "horizon_post_id")
+    private Long horizonPostId;
+
+    @Column(name = "date_materialized")
+    private Date dateMaterialized;
+
+    public boolean isTruncated() {
+        return horizonDate != null && horizonPostId != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MaterializedTimeline that = (MaterializedTimeline) o;
+        return Objects.equals(ownerId, that.ownerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ownerId);
+    }
+}
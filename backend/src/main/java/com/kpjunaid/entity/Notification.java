@@ -1,14 +1,26 @@
 package com.kpjunaid.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.IdListConverter;
 import lombok.*;
 
 import javax.persistence.*;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
-@Table(name = "notifications")
+@Table(
+        name = "notifications",
+        indexes = {
+                @Index(name = "idx_notification_receiver_updated", columnList = "receiver_id, date_updated"),
+                @Index(name = "idx_notification_read_updated", columnList = "is_read, date_updated")
+        }
+)
 @Getter
 @Setter
 @Builder
@@ -22,22 +34,39 @@ public class Notification {
     @Column(nullable = false)
     private String type;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id")
     private User receiver;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id")
     private User sender;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owning_post_id")
     private Post owningPost;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owning_comment_id")
     private Comment owningComment;
 
+    private Integer actorCount;
+
+    @Convert(converter = IdListConverter.class)
+    @Column(name = "recent_actor_ids")
+    private List<Long> recentActorIds;
+
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(
+            name = "notification_actors",
+            joinColumns = @JoinColumn(name = "notification_id"),
+            uniqueConstraints = @UniqueConstraint(
+                    name = "uk_notification_actors_notification_actor", columnNames = {"notification_id", "actor_id"})
+    )
+    @Column(name = "actor_id")
+    private Set<Long> actorIds;
+
     private Boolean isSeen;
     private Boolean isRead;
 
@@ -50,6 +79,35 @@ public class Notification {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private Date dateLastModified;
 
+    public void addActor(Long actorId, boolean isNewActor) {
+        List<Long> updatedActorIds = getActorIdsForUpdate();
+        updatedActorIds.remove(actorId);
+        updatedActorIds.add(0, actorId);
+        if (isNewActor) {
+            actorCount++;
+        }
+        recentActorIds = updatedActorIds.size() > AppConstants.NOTIFICATION_RECENT_ACTOR_COUNT
+                ? new ArrayList<>(updatedActorIds.subList(0, AppConstants.NOTIFICATION_RECENT_ACTOR_COUNT))
+                : updatedActorIds;
+    }
+
+    public void removeActor(Long actorId, boolean wasActor) {
+        List<Long> updatedActorIds = getActorIdsForUpdate();
+        updatedActorIds.remove(actorId);
+        if (wasActor) {
+            actorCount = Math.max(0, actorCount - 1);
+        }
+        recentActorIds = updatedActorIds;
+    }
+
+    private List<Long> getActorIdsForUpdate() {
+        if (actorCount == null) {
+            actorCount = sender == null ? 0 : 1;
+            recentActorIds = sender == null ? List.of() : List.of(sender.getId());
+        }
+        return recentActorIds == null ? new ArrayList<>() : new ArrayList<>(recentActorIds);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,58 @@
+package com.kpjunaid.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_notification_outbox_post", columnList = "owning_post_id"),
+                @Index(name = "idx_notification_outbox_comment", columnList = "owning_comment_id")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    @Column(name = "sender_id")
+    private Long senderId;
+
+    @Column(name = "owning_post_id", nullable = false)
+    private Long owningPostId;
+
+    @Column(name = "owning_comment_id")
+    private Long owningCommentId;
+
+    @Column(name = "date_created")
+    private Date dateCreated;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NotificationOutboxEvent that = (NotificationOutboxEvent) o;
+        return Objects.equals(id, that.id) && Objects.equals(type, that.type)
+                && Objects.equals(receiverId, that.receiverId) && Objects.equals(owningPostId, that.owningPostId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, receiverId, owningPostId);
+    }
+}
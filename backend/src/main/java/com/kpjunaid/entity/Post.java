@@ -2,6 +2,9 @@ package com.kpjunaid.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.kpjunaid.common.PendingCountsListener;
+import com.kpjunaid.common.PostSearchIndexListener;
 import lombok.*;
 
 import javax.persistence.*;
@@ -11,12 +14,22 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = @Index(name = "idx_posts_fanned_out_author", columnList = "is_fanned_out, author_id"))
+@NamedEntityGraph(
+        name = "Post.listing",
+        attributeNodes = {
+                @NamedAttributeNode("author"),
+                @NamedAttributeNode(value = "sharedPost", subgraph = "sharedPost")
+        },
+        subgraphs = @NamedSubgraph(name = "sharedPost", attributeNodes = @NamedAttributeNode("author"))
+)
+@EntityListeners({PendingCountsListener.class, PostSearchIndexListener.class})
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,20 +38,30 @@ public class Post {
     @Column(length = 4096)
     private String content;
     private String postPhoto;
+
+    @Column(updatable = false)
     private Integer likeCount;
+
+    @Column(updatable = false)
     private Integer commentCount;
+
+    @Column(updatable = false)
     private Integer shareCount;
 
     @Column(nullable = false)
     private Boolean isTypeShare;
 
+    @JsonIgnore
+    @Column(updatable = false)
+    private Boolean isFannedOut;
+
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private Date dateCreated;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private Date dateLastModified;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
 
@@ -51,11 +74,12 @@ public class Post {
     @JoinTable(
             name = "post_likes",
             joinColumns = @JoinColumn(name = "post_id"),
-            inverseJoinColumns = @JoinColumn(name = "liker_id")
+            inverseJoinColumns = @JoinColumn(name = "liker_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_post_likes_post_liker", columnNames = {"post_id", "liker_id"})
     )
     private List<User> likeList = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shared_post_id")
     private Post sharedPost;
 
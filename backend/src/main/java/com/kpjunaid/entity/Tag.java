@@ -2,6 +2,7 @@ package com.kpjunaid.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.kpjunaid.common.PendingCountsListener;
 import lombok.*;
 
 import javax.persistence.*;
@@ -12,6 +13,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "tags")
+@EntityListeners(PendingCountsListener.class)
 @Getter
 @Setter
 @Builder
@@ -25,7 +27,7 @@ public class Tag {
     @Column(length = 64, nullable = false, unique = true)
     private String name;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer tagUseCounter;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
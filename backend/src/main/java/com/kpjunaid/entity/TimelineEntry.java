@@ -0,0 +1,52 @@
+package com.kpjunaid.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "timeline_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_timeline_owner_post", columnNames = {"owner_id", "post_id"}),
+        indexes = {
+                @Index(name = "idx_timeline_owner_date", columnList = "owner_id, date_created"),
+                @Index(name = "idx_timeline_post", columnList = "post_id")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    @Column(name = "date_created")
+    private Date dateCreated;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimelineEntry that = (TimelineEntry) o;
+        return Objects.equals(id, that.id) && Objects.equals(ownerId, that.ownerId) && Objects.equals(postId, that.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, ownerId, postId);
+    }
+}
@@ -2,6 +2,9 @@ package com.kpjunaid.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.kpjunaid.common.PendingCountsListener;
+import com.kpjunaid.common.UserSearchIndexListener;
 import lombok.*;
 
 import javax.persistence.*;
@@ -12,11 +15,13 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "users")
+@EntityListeners({PendingCountsListener.class, UserSearchIndexListener.class})
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -62,8 +67,12 @@ public class User {
     @Column(length = 32, nullable = false)
     private String role;
 
+    @Column(updatable = false)
     private Integer followerCount;
+
+    @Column(updatable = false)
     private Integer followingCount;
+
     private Boolean enabled;
     private Boolean accountVerified;
     private Boolean emailVerified;
@@ -86,7 +95,9 @@ public class User {
     @JoinTable(
             name = "follow_users",
             joinColumns = @JoinColumn(name = "followed_id"),
-            inverseJoinColumns = @JoinColumn(name = "follower_id")
+            inverseJoinColumns = @JoinColumn(name = "follower_id"),
+            uniqueConstraints = @UniqueConstraint(
+                    name = "uk_follow_users_followed_follower", columnNames = {"followed_id", "follower_id"})
     )
     private List<User> followerUsers = new ArrayList<>();
 
@@ -109,13 +120,12 @@ public class User {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        User user = (User) o;
-        return Objects.equals(id, user.id) && Objects.equals(email, user.email);
+        if (!(o instanceof User user)) return false;
+        return getId() != null && getId().equals(user.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, email);
+        return Objects.hashCode(getId());
     }
 }
@@ -0,0 +1,19 @@
+package com.kpjunaid.enumeration;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CounterType {
+    POST_LIKE("posts", "like_count"),
+    POST_COMMENT("posts", "comment_count"),
+    POST_SHARE("posts", "share_count"),
+    COMMENT_LIKE("comments", "like_count"),
+    USER_FOLLOWER("users", "follower_count"),
+    USER_FOLLOWING("users", "following_count"),
+    TAG_USE("tags", "tag_use_counter");
+
+    private final String tableName;
+    private final String columnName;
+}
@@ -0,0 +1,10 @@
+package com.kpjunaid.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException() {
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
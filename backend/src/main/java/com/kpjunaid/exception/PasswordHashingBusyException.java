@@ -0,0 +1,10 @@
+package com.kpjunaid.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+    }
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.kpjunaid.filter;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.AuthenticatedUserDetails;
 import com.kpjunaid.service.JwtTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -8,7 +10,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -37,13 +38,14 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
                 return;
             }
             String token = authorizationHeader.substring(AppConstants.TOKEN_PREFIX.length());
-            String email = jwtTokenService.getSubjectFromToken(token);
-            if (jwtTokenService.isTokenValid(email, token) &&
+            DecodedJWT decodedToken = jwtTokenService.verifyToken(token);
+            String email = decodedToken.getSubject();
+            if (jwtTokenService.isTokenValid(email, decodedToken) &&
                     SecurityContextHolder.getContext().getAuthentication() == null) {
-                List<GrantedAuthority> authorities = jwtTokenService.getAuthoritiesFromToken(token);
+                List<GrantedAuthority> authorities = jwtTokenService.getAuthoritiesFromToken(decodedToken);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(email, null, authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authentication.setDetails(new AuthenticatedUserDetails(request, jwtTokenService.getUserIdFromToken(decodedToken)));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
                 SecurityContextHolder.clearContext();
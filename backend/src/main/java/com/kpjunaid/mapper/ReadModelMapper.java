@@ -0,0 +1,91 @@
+package com.kpjunaid.mapper;
+
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.projection.CommentSummaryProjection;
+import com.kpjunaid.projection.NotificationSummaryProjection;
+import com.kpjunaid.projection.PostSummaryProjection;
+import com.kpjunaid.projection.PostTagProjection;
+import com.kpjunaid.response.*;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ReadModelMapper {
+    PostSummaryResponse postToPostSummary(Post post);
+
+    CommentSummaryResponse commentToCommentSummary(Comment comment);
+
+    default TagSummaryResponse projectionToTagSummary(PostTagProjection projection) {
+        return TagSummaryResponse.builder()
+                .id(projection.getId())
+                .name(projection.getName())
+                .build();
+    }
+
+    default PostSummaryResponse projectionToPostSummary(PostSummaryProjection projection) {
+        return PostSummaryResponse.builder()
+                .id(projection.getId())
+                .content(projection.getContent())
+                .postPhoto(projection.getPostPhoto())
+                .likeCount(projection.getLikeCount())
+                .commentCount(projection.getCommentCount())
+                .shareCount(projection.getShareCount())
+                .isTypeShare(projection.getIsTypeShare())
+                .dateCreated(projection.getDateCreated())
+                .dateLastModified(projection.getDateLastModified())
+                .author(UserCardResponse.builder()
+                        .id(projection.getAuthorId())
+                        .firstName(projection.getAuthorFirstName())
+                        .lastName(projection.getAuthorLastName())
+                        .profilePhoto(projection.getAuthorProfilePhoto())
+                        .build())
+                .build();
+    }
+
+    default CommentSummaryResponse projectionToCommentSummary(CommentSummaryProjection projection) {
+        return CommentSummaryResponse.builder()
+                .id(projection.getId())
+                .content(projection.getContent())
+                .likeCount(projection.getLikeCount())
+                .dateCreated(projection.getDateCreated())
+                .dateLastModified(projection.getDateLastModified())
+                .author(UserCardResponse.builder()
+                        .id(projection.getAuthorId())
+                        .firstName(projection.getAuthorFirstName())
+                        .lastName(projection.getAuthorLastName())
+                        .profilePhoto(projection.getAuthorProfilePhoto())
+                        .build())
+                .build();
+    }
+
+    default NotificationSummaryResponse projectionToNotificationSummary(NotificationSummaryProjection projection) {
+        return NotificationSummaryResponse.builder()
+                .id(projection.getId())
+                .type(projection.getType())
+                .sender(projection.getSenderId() == null ? null : UserCardResponse.builder()
+                        .id(projection.getSenderId())
+                        .firstName(projection.getSenderFirstName())
+                        .lastName(projection.getSenderLastName())
+                        .profilePhoto(projection.getSenderProfilePhoto())
+                        .build())
+                .owningPost(PostSummaryResponse.builder()
+                        .id(projection.getOwningPostId())
+                        .content(projection.getOwningPostContent())
+                        .likeCount(projection.getOwningPostLikeCount())
+                        .commentCount(projection.getOwningPostCommentCount())
+                        .shareCount(projection.getOwningPostShareCount())
+                        .build())
+                .owningComment(projection.getOwningCommentId() == null ? null : CommentSummaryResponse.builder()
+                        .id(projection.getOwningCommentId())
+                        .content(projection.getOwningCommentContent())
+                        .likeCount(projection.getOwningCommentLikeCount())
+                        .build())
+                .actorCount(projection.getActorCount())
+                .recentActorIds(projection.getRecentActorIds())
+                .isSeen(projection.getIsSeen())
+                .isRead(projection.getIsRead())
+                .dateCreated(projection.getDateCreated())
+                .dateUpdated(projection.getDateUpdated())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.kpjunaid.projection;
+
+import java.util.Date;
+
+public interface CommentSummaryProjection {
+    Long getId();
+    String getContent();
+    Integer getLikeCount();
+    Date getDateCreated();
+    Date getDateLastModified();
+    Long getAuthorId();
+    String getAuthorFirstName();
+    String getAuthorLastName();
+    String getAuthorProfilePhoto();
+}
@@ -0,0 +1,9 @@
+package com.kpjunaid.projection;
+
+import java.util.Date;
+
+public interface NotificationRetentionProjection {
+    Long getId();
+    Boolean getIsSeen();
+    Date getDateUpdated();
+}
@@ -0,0 +1,27 @@
+package com.kpjunaid.projection;
+
+import java.util.Date;
+import java.util.List;
+
+public interface NotificationSummaryProjection {
+    Long getId();
+    String getType();
+    Integer getActorCount();
+    List<Long> getRecentActorIds();
+    Boolean getIsSeen();
+    Boolean getIsRead();
+    Date getDateCreated();
+    Date getDateUpdated();
+    Long getSenderId();
+    String getSenderFirstName();
+    String getSenderLastName();
+    String getSenderProfilePhoto();
+    Long getOwningPostId();
+    String getOwningPostContent();
+    Integer getOwningPostLikeCount();
+    Integer getOwningPostCommentCount();
+    Integer getOwningPostShareCount();
+    Long getOwningCommentId();
+    String getOwningCommentContent();
+    Integer getOwningCommentLikeCount();
+}
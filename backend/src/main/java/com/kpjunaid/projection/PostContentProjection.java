@@ -0,0 +1,6 @@
+package com.kpjunaid.projection;
+
+public interface PostContentProjection {
+    Long getId();
+    String getContent();
+}
@@ -0,0 +1,20 @@
+package com.kpjunaid.projection;
+
+import java.util.Date;
+
+public interface PostSummaryProjection {
+    Long getId();
+    String getContent();
+    String getPostPhoto();
+    Integer getLikeCount();
+    Integer getCommentCount();
+    Integer getShareCount();
+    Boolean getIsTypeShare();
+    Date getDateCreated();
+    Date getDateLastModified();
+    Long getSharedPostId();
+    Long getAuthorId();
+    String getAuthorFirstName();
+    String getAuthorLastName();
+    String getAuthorProfilePhoto();
+}
@@ -0,0 +1,7 @@
+package com.kpjunaid.projection;
+
+public interface PostTagProjection {
+    Long getPostId();
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,7 @@
+package com.kpjunaid.projection;
+
+public interface TagNameProjection {
+    Long getId();
+    String getName();
+    Integer getTagUseCounter();
+}
@@ -0,0 +1,6 @@
+package com.kpjunaid.projection;
+
+public interface UnseenCountProjection {
+    Long getReceiverId();
+    Long getUnseenCount();
+}
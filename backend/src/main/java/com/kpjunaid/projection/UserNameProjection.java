@@ -0,0 +1,7 @@
+package com.kpjunaid.projection;
+
+public interface UserNameProjection {
+    Long getId();
+    String getFirstName();
+    String getLastName();
+}
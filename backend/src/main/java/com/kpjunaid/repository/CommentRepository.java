@@ -2,11 +2,53 @@ package com.kpjunaid.repository;
 
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
+import com.kpjunaid.projection.CommentSummaryProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph("Comment.withAuthor")
     List<Comment> findByPost(Post post, Pageable pageable);
+
+    @EntityGraph("Comment.withAuthor")
+    @Query("select c from Comment c where c.post = :post " +
+            "and (c.dateCreated < :dateCreated or (c.dateCreated = :dateCreated and c.id < :id)) " +
+            "order by c.dateCreated desc, c.id desc")
+    List<Comment> findByPostBefore(Post post, Date dateCreated, Long id, Pageable pageable);
+
+    @Query("select c.id as id, c.content as content, c.likeCount as likeCount, c.dateCreated as dateCreated, " +
+            "c.dateLastModified as dateLastModified, a.id as authorId, a.firstName as authorFirstName, " +
+            "a.lastName as authorLastName, a.profilePhoto as authorProfilePhoto from Comment c join c.author a " +
+            "where c.post = :post order by c.dateCreated desc, c.id desc")
+    List<CommentSummaryProjection> findCommentSummariesByPost(Post post, Pageable pageable);
+
+    @Query("select c.id as id, c.content as content, c.likeCount as likeCount, c.dateCreated as dateCreated, " +
+            "c.dateLastModified as dateLastModified, a.id as authorId, a.firstName as authorFirstName, " +
+            "a.lastName as authorLastName, a.profilePhoto as authorProfilePhoto from Comment c join c.author a " +
+            "where c.post = :post " +
+            "and (c.dateCreated < :dateCreated or (c.dateCreated = :dateCreated and c.id < :id)) " +
+            "order by c.dateCreated desc, c.id desc")
+    List<CommentSummaryProjection> findCommentSummariesByPostBefore(Post post, Date dateCreated, Long id, Pageable pageable);
+
+    @Query("select c.id from Comment c join c.likeList l where c.id in :commentIds and l.id = :userId")
+    List<Long> findCommentIdsLikedByUser(Collection<Long> commentIds, Long userId);
+
+    @Query("select c.id from Comment c where c.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "insert ignore into comment_likes (comment_id, liker_id) values (:commentId, :likerId)",
+            nativeQuery = true)
+    int insertCommentLike(Long commentId, Long likerId);
+
+    @Modifying
+    @Query(value = "delete from comment_likes where comment_id = :commentId and liker_id = :likerId", nativeQuery = true)
+    int deleteCommentLike(Long commentId, Long likerId);
 }
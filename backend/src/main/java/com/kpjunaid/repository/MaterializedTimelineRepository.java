@@ -0,0 +1,18 @@
+package com.kpjunaid.repository;
+
+import com.kpjunaid.entity.MaterializedTimeline;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MaterializedTimelineRepository extends JpaRepository<MaterializedTimeline, Long> {
+    @Query("select m.ownerId from MaterializedTimeline m where m.ownerId in :ownerIds")
+    List<Long> findMaterializedOwnerIds(Collection<Long> ownerIds);
+
+    @Modifying
+    @Query("delete from MaterializedTimeline m where m.ownerId = :ownerId")
+    int deleteMaterializedTimelineByOwnerId(Long ownerId);
+}
@@ -0,0 +1,42 @@
+package com.kpjunaid.repository;
+
+import com.kpjunaid.entity.NotificationOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select e from NotificationOutboxEvent e order by e.id asc")
+    List<NotificationOutboxEvent> findNextBatch(Pageable pageable);
+
+    @Query("select min(e.dateCreated) from NotificationOutboxEvent e")
+    Date findOldestEventDate();
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.id in :ids")
+    int deleteEventsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.receiverId = :receiverId " +
+            "and e.owningPostId = :owningPostId and e.type = :type and e.senderId = :senderId")
+    int deletePendingEvents(Long receiverId, Long owningPostId, String type, Long senderId);
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.owningPostId = :owningPostId")
+    int deleteEventsByOwningPostId(Long owningPostId);
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.owningCommentId = :owningCommentId")
+    int deleteEventsByOwningCommentId(Long owningCommentId);
+}
@@ -4,17 +4,114 @@ import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.entity.Notification;
+import com.kpjunaid.projection.NotificationRetentionProjection;
+import com.kpjunaid.projection.NotificationSummaryProjection;
+import com.kpjunaid.projection.UnseenCountProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     Optional<Notification> findByReceiverAndOwningPostAndType(User receiver, Post owningPost, String type);
-    List<Notification> findNotificationsByReceiver(User receiver, Pageable pageable);
-    List<Notification> findNotificationsByReceiverAndIsSeenIsFalse(User receiver);
-    List<Notification> findNotificationsByReceiverAndIsReadIsFalse(User receiver);
+
+    @Query("select n.id as id, n.type as type, n.actorCount as actorCount, n.recentActorIds as recentActorIds, " +
+            "n.isSeen as isSeen, n.isRead as isRead, n.dateCreated as dateCreated, n.dateUpdated as dateUpdated, " +
+            "s.id as senderId, s.firstName as senderFirstName, s.lastName as senderLastName, " +
+            "s.profilePhoto as senderProfilePhoto, p.id as owningPostId, p.content as owningPostContent, " +
+            "p.likeCount as owningPostLikeCount, p.commentCount as owningPostCommentCount, " +
+            "p.shareCount as owningPostShareCount, c.id as owningCommentId, c.content as owningCommentContent, " +
+            "c.likeCount as owningCommentLikeCount from Notification n join n.owningPost p " +
+            "left join n.sender s left join n.owningComment c " +
+            "where n.receiver = :receiver order by n.dateUpdated desc, n.id desc")
+    List<NotificationSummaryProjection> findNotificationSummariesByReceiver(User receiver, Pageable pageable);
+
+    @Query("select n.id as id, n.type as type, n.actorCount as actorCount, n.recentActorIds as recentActorIds, " +
+            "n.isSeen as isSeen, n.isRead as isRead, n.dateCreated as dateCreated, n.dateUpdated as dateUpdated, " +
+            "s.id as senderId, s.firstName as senderFirstName, s.lastName as senderLastName, " +
+            "s.profilePhoto as senderProfilePhoto, p.id as owningPostId, p.content as owningPostContent, " +
+            "p.likeCount as owningPostLikeCount, p.commentCount as owningPostCommentCount, " +
+            "p.shareCount as owningPostShareCount, c.id as owningCommentId, c.content as owningCommentContent, " +
+            "c.likeCount as owningCommentLikeCount from Notification n join n.owningPost p " +
+            "left join n.sender s left join n.owningComment c " +
+            "where n.receiver = :receiver " +
+            "and (n.dateUpdated < :dateUpdated or (n.dateUpdated = :dateUpdated and n.id < :id)) " +
+            "order by n.dateUpdated desc, n.id desc")
+    List<NotificationSummaryProjection> findNotificationSummariesByReceiverBefore(User receiver,
+                                                                                 Date dateUpdated,
+                                                                                 Long id,
+                                                                                 Pageable pageable);
+
+    @Query("select n from Notification n where n.receiver.id in :receiverIds and n.owningPost.id in :owningPostIds")
+    List<Notification> findNotificationsByReceiverIdsAndOwningPostIds(Collection<Long> receiverIds,
+                                                                     Collection<Long> owningPostIds);
+
+    @Query("select count(n) from Notification n where n.receiver.id = :receiverId and n.isSeen = false")
+    long countUnseenByReceiverId(Long receiverId);
+
+    @Query("select n.receiver.id as receiverId, count(n) as unseenCount from Notification n " +
+            "where n.receiver.id in :receiverIds and n.isSeen = false group by n.receiver.id")
+    List<UnseenCountProjection> countUnseenByReceiverIds(Collection<Long> receiverIds);
+
+    @Query("select n.receiver.id from Notification n where n.owningPost = :owningPost and n.isSeen = false")
+    List<Long> findUnseenReceiverIdsByOwningPost(Post owningPost);
+
+    @Query("select n.receiver.id from Notification n where n.owningComment = :owningComment and n.isSeen = false")
+    List<Long> findUnseenReceiverIdsByOwningComment(Comment owningComment);
+
+    @Modifying
+    @Query("update Notification n set n.isSeen = true, n.dateLastModified = :dateLastModified " +
+            "where n.receiver = :receiver and n.isSeen = false")
+    int markAllSeenByReceiver(User receiver, Date dateLastModified);
+
+    @Modifying
+    @Query("update Notification n set n.isSeen = true, n.isRead = true, n.dateLastModified = :dateLastModified " +
+            "where n.receiver = :receiver and n.isRead = false")
+    int markAllReadByReceiver(User receiver, Date dateLastModified);
+
+    @Query("select n.id from Notification n where n.isSeen = true and n.isRead = true " +
+            "and n.dateUpdated < :cutoff order by n.id asc")
+    List<Long> findReadNotificationIdsBefore(Date cutoff, Pageable pageable);
+
+    @Query("select n.receiver.id from Notification n group by n.receiver.id having count(n) > :maxCount")
+    List<Long> findReceiverIdsWithMoreNotificationsThan(Long maxCount, Pageable pageable);
+
+    @Query("select n.id as id, n.isSeen as isSeen, n.dateUpdated as dateUpdated from Notification n " +
+            "where n.receiver.id = :receiverId order by n.dateUpdated desc, n.id desc")
+    List<NotificationRetentionProjection> findRetentionCandidatesByReceiverId(Long receiverId, Pageable pageable);
+
+    @Query("select n.id as id, n.isSeen as isSeen, n.dateUpdated as dateUpdated from Notification n " +
+            "where n.receiver.id = :receiverId " +
+            "and (n.dateUpdated < :dateUpdated or (n.dateUpdated = :dateUpdated and n.id <= :id)) " +
+            "order by n.dateUpdated desc, n.id desc")
+    List<NotificationRetentionProjection> findRetentionCandidatesByReceiverIdFrom(Long receiverId,
+                                                                                 Date dateUpdated,
+                                                                                 Long id,
+                                                                                 Pageable pageable);
+
+    @Modifying
+    @Query(value = "insert ignore into notification_actors (notification_id, actor_id) values (:notificationId, :actorId)",
+            nativeQuery = true)
+    int insertNotificationActor(Long notificationId, Long actorId);
+
+    @Modifying
+    @Query(value = "delete from notification_actors where notification_id = :notificationId and actor_id = :actorId",
+            nativeQuery = true)
+    int deleteNotificationActor(Long notificationId, Long actorId);
+
+    @Modifying
+    @Query(value = "delete from notification_actors where notification_id in :notificationIds", nativeQuery = true)
+    int deleteNotificationActorsByNotificationIdIn(Collection<Long> notificationIds);
+
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids")
+    int deleteNotificationsByIdIn(Collection<Long> ids);
+
     void deleteNotificationByOwningPost(Post owningPost);
     void deleteNotificationByOwningComment(Comment owningComment);
 }
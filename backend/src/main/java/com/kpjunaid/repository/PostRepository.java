@@ -2,15 +2,84 @@ package com.kpjunaid.repository;
 
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
-import com.kpjunaid.entity.User;
+import com.kpjunaid.projection.PostContentProjection;
+import com.kpjunaid.projection.PostSummaryProjection;
+import com.kpjunaid.projection.PostTagProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findPostsByAuthor(User author, Pageable pageable);
     List<Post> findPostsByAuthorIdIn(List<Long> followingUserIds, Pageable pageable);
+
+    @Query("select distinct p.author.id from Post p where p.isFannedOut = false")
+    List<Long> findPulledAuthorIds();
+
+    @EntityGraph("Post.listing")
     List<Post> findPostsBySharedPost(Post post, Pageable pageable);
+
+    @EntityGraph("Post.listing")
     List<Post> findPostsByPostTags(Tag tag, Pageable pageable);
+
+    @EntityGraph("Post.listing")
+    @Query("select p from Post p join p.postTags t where t = :tag " +
+            "and (p.dateCreated < :dateCreated or (p.dateCreated = :dateCreated and p.id < :id)) " +
+            "order by p.dateCreated desc, p.id desc")
+    List<Post> findPostsByPostTagsBefore(Tag tag, Date dateCreated, Long id, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content from Post p where p.id > :id order by p.id asc")
+    List<PostContentProjection> findPostContentsAfter(Long id, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content from Post p where p.id > :id " +
+            "and (p.dateCreated >= :since or p.dateLastModified >= :since) order by p.id asc")
+    List<PostContentProjection> findPostContentsModifiedSince(Date since, Long id, Pageable pageable);
+
+    @Query("select p.id from Post p join p.likeList l where p.id in :postIds and l.id = :userId")
+    List<Long> findPostIdsLikedByUser(Collection<Long> postIds, Long userId);
+
+    @Query("select p.id from Post p where p.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("select p.id as id, p.content as content, p.postPhoto as postPhoto, p.likeCount as likeCount, " +
+            "p.commentCount as commentCount, p.shareCount as shareCount, p.isTypeShare as isTypeShare, " +
+            "p.dateCreated as dateCreated, p.dateLastModified as dateLastModified, s.id as sharedPostId, " +
+            "a.id as authorId, a.firstName as authorFirstName, a.lastName as authorLastName, " +
+            "a.profilePhoto as authorProfilePhoto from Post p join p.author a left join p.sharedPost s " +
+            "where p.id in :ids")
+    List<PostSummaryProjection> findPostSummariesByIdIn(Collection<Long> ids);
+
+    @Query("select p.id as id, p.content as content, p.postPhoto as postPhoto, p.likeCount as likeCount, " +
+            "p.commentCount as commentCount, p.shareCount as shareCount, p.isTypeShare as isTypeShare, " +
+            "p.dateCreated as dateCreated, p.dateLastModified as dateLastModified, s.id as sharedPostId, " +
+            "a.id as authorId, a.firstName as authorFirstName, a.lastName as authorLastName, " +
+            "a.profilePhoto as authorProfilePhoto from Post p join p.author a left join p.sharedPost s " +
+            "where a.id = :authorId order by p.dateCreated desc, p.id desc")
+    List<PostSummaryProjection> findPostSummariesByAuthorId(Long authorId, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content, p.postPhoto as postPhoto, p.likeCount as likeCount, " +
+            "p.commentCount as commentCount, p.shareCount as shareCount, p.isTypeShare as isTypeShare, " +
+            "p.dateCreated as dateCreated, p.dateLastModified as dateLastModified, s.id as sharedPostId, " +
+            "a.id as authorId, a.firstName as authorFirstName, a.lastName as authorLastName, " +
+            "a.profilePhoto as authorProfilePhoto from Post p join p.author a left join p.sharedPost s " +
+            "where a.id = :authorId " +
+            "and (p.dateCreated < :dateCreated or (p.dateCreated = :dateCreated and p.id < :id)) " +
+            "order by p.dateCreated desc, p.id desc")
+    List<PostSummaryProjection> findPostSummariesByAuthorIdBefore(Long authorId, Date dateCreated, Long id, Pageable pageable);
+
+    @Query("select p.id as postId, t.id as id, t.name as name from Post p join p.postTags t where p.id in :postIds")
+    List<PostTagProjection> findPostTagsByPostIdIn(Collection<Long> postIds);
+
+    @Modifying
+    @Query(value = "insert ignore into post_likes (post_id, liker_id) values (:postId, :likerId)", nativeQuery = true)
+    int insertPostLike(Long postId, Long likerId);
+
+    @Modifying
+    @Query(value = "delete from post_likes where post_id = :postId and liker_id = :likerId", nativeQuery = true)
+    int deletePostLike(Long postId, Long likerId);
 }
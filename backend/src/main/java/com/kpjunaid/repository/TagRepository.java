@@ -1,10 +1,33 @@
 package com.kpjunaid.repository;
 
 import com.kpjunaid.entity.Tag;
+import com.kpjunaid.projection.TagNameProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findTagByName(String name);
+    boolean existsByName(String name);
+    List<Tag> findTagsByNameIn(Collection<String> names);
+
+    @Query("select t.id as id, t.name as name, t.tagUseCounter as tagUseCounter from Tag t " +
+            "where t.id > :id order by t.id asc")
+    List<TagNameProjection> findTagNamesAfter(Long id, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select t from Tag t where t.name in :names")
+    List<Tag> lockTagsByNameIn(Collection<String> names);
+
+    @Modifying
+    @Query("update Tag t set t.dateLastModified = :dateLastModified where t.id in :ids")
+    int updateDateLastModified(Collection<Long> ids, Date dateLastModified);
 }
@@ -0,0 +1,31 @@
+package com.kpjunaid.repository;
+
+import com.kpjunaid.entity.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Date;
+import java.util.List;
+
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+    List<TimelineEntry> findTimelineEntriesByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query("select t from TimelineEntry t where t.ownerId = :ownerId " +
+            "and (t.dateCreated < :dateCreated or (t.dateCreated = :dateCreated and t.postId < :postId)) " +
+            "order by t.dateCreated desc, t.postId desc")
+    List<TimelineEntry> findTimelineEntriesByOwnerIdBefore(Long ownerId, Date dateCreated, Long postId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from TimelineEntry t where t.postId = :postId")
+    int deleteTimelineEntriesByPostId(Long postId);
+
+    @Modifying
+    @Query("delete from TimelineEntry t where t.ownerId = :ownerId and t.authorId = :authorId")
+    int deleteTimelineEntriesByOwnerIdAndAuthorId(Long ownerId, Long authorId);
+
+    @Modifying
+    @Query("delete from TimelineEntry t where t.ownerId = :ownerId")
+    int deleteTimelineEntriesByOwnerId(Long ownerId);
+}
@@ -3,21 +3,60 @@ package com.kpjunaid.repository;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.projection.UserNameProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    boolean existsByEmail(String email);
     void deleteByEmail(String email);
     List<User> findUsersByFollowerUsers(User user, Pageable pageable);
     List<User> findUsersByFollowingUsers(User user, Pageable pageable);
     List<User> findUsersByLikedPosts(Post post, Pageable pageable);
     List<User> findUsersByLikedComments(Comment comment, Pageable pageable);
 
+    @Query("select f from User u join u.followerUsers f where u = :user " +
+            "and (f.firstName > :firstName or (f.firstName = :firstName " +
+            "and (f.lastName > :lastName or (f.lastName = :lastName and f.id > :id)))) " +
+            "order by f.firstName asc, f.lastName asc, f.id asc")
+    List<User> findFollowerUsersAfter(User user, String firstName, String lastName, Long id, Pageable pageable);
+
+    @Query("select u from User u join u.followerUsers f where f = :user " +
+            "and (u.firstName > :firstName or (u.firstName = :firstName " +
+            "and (u.lastName > :lastName or (u.lastName = :lastName and u.id > :id)))) " +
+            "order by u.firstName asc, u.lastName asc, u.id asc")
+    List<User> findFollowingUsersAfter(User user, String firstName, String lastName, Long id, Pageable pageable);
+
+    @Query("select f.id from User u join u.followerUsers f where u.id = :userId")
+    List<Long> findFollowerIdsByUserId(Long userId);
+
+    @Query("select u.id from User u join u.followerUsers f where f.id = :userId")
+    List<Long> findFollowingIdsByUserId(Long userId);
+
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName from User u " +
+            "where u.id > :id order by u.id asc")
+    List<UserNameProjection> findUserNamesAfter(Long id, Pageable pageable);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "insert ignore into follow_users (followed_id, follower_id) values (:followedId, :followerId)",
+            nativeQuery = true)
+    int insertFollow(Long followedId, Long followerId);
+
+    @Modifying
+    @Query(value = "delete from follow_users where followed_id = :followedId and follower_id = :followerId",
+            nativeQuery = true)
+    int deleteFollow(Long followedId, Long followerId);
+
     @Query(value = "select * from users u " +
             "where concat(u.first_name, ' ', u.last_name) like %:name% " +
             "order by u.first_name asc, u.last_name asc",
@@ -1,6 +1,5 @@
 package com.kpjunaid.response;
 
-import com.kpjunaid.entity.Comment;
 import lombok.*;
 
 @Getter
@@ -9,6 +8,6 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CommentResponse {
-    private Comment comment;
+    private CommentSummaryResponse comment;
     private Boolean likedByAuthUser;
 }
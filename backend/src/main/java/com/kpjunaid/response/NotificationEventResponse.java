@@ -0,0 +1,23 @@
+package com.kpjunaid.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationEventResponse {
+    private Long notificationId;
+    private String type;
+    private Long senderId;
+    private Integer actorCount;
+    private Long owningPostId;
+    private Long owningCommentId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateUpdated;
+}
@@ -0,0 +1,32 @@
+package com.kpjunaid.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationSummaryResponse {
+    private Long id;
+    private String type;
+    private UserCardResponse sender;
+    private PostSummaryResponse owningPost;
+    private CommentSummaryResponse owningComment;
+    private Integer actorCount;
+    private List<Long> recentActorIds;
+    private Boolean isSeen;
+    private Boolean isRead;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateCreated;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateUpdated;
+}
@@ -1,6 +1,5 @@
 package com.kpjunaid.response;
 
-import com.kpjunaid.entity.Post;
 import lombok.*;
 
 @Getter
@@ -9,6 +8,6 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostResponse {
-    private Post post;
+    private PostSummaryResponse post;
     private Boolean likedByAuthUser;
 }
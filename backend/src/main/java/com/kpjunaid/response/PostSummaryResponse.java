@@ -0,0 +1,34 @@
+package com.kpjunaid.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostSummaryResponse {
+    private Long id;
+    private String content;
+    private String postPhoto;
+    private Integer likeCount;
+    private Integer commentCount;
+    private Integer shareCount;
+    private Boolean isTypeShare;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateCreated;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date dateLastModified;
+
+    private UserCardResponse author;
+    private PostSummaryResponse sharedPost;
+    private List<TagSummaryResponse> postTags;
+}
@@ -0,0 +1,13 @@
+package com.kpjunaid.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSummaryResponse {
+    private Long id;
+    private String name;
+}
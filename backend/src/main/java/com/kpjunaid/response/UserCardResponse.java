@@ -0,0 +1,15 @@
+package com.kpjunaid.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCardResponse {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String profilePhoto;
+}
@@ -3,6 +3,7 @@ package com.kpjunaid.service;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.response.CommentResponse;
+import com.kpjunaid.response.CursorPageResponse;
 
 import java.util.List;
 
@@ -10,8 +11,9 @@ public interface CommentService {
     Comment getCommentById(Long commentId);
     Comment createNewComment(String content, Post post);
     Comment updateComment(Long commentId, String content);
-    Comment likeComment(Long commentId);
-    Comment unlikeComment(Long commentId);
+    void likeComment(Long commentId);
+    void unlikeComment(Long commentId);
     void deleteComment(Long commentId);
     List<CommentResponse> getPostCommentsPaginate(Post post, Integer page, Integer size);
+    CursorPageResponse<CommentResponse> getPostCommentsByCursor(Post post, String cursor, Integer size);
 }
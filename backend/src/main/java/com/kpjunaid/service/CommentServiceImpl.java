@@ -1,22 +1,28 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.exception.CommentNotFoundException;
 import com.kpjunaid.response.CommentResponse;
+import com.kpjunaid.response.CommentSummaryResponse;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.enumeration.NotificationType;
 import com.kpjunaid.exception.InvalidOperationException;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.projection.CommentSummaryProjection;
 import com.kpjunaid.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,6 +31,9 @@ public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final UserService userService;
     private final NotificationService notificationService;
+    private final LikeService likeService;
+    private final CounterService counterService;
+    private final ReadModelMapper readModelMapper;
 
     @Override
     public Comment getCommentById(Long commentId) {
@@ -48,7 +57,7 @@ public class CommentServiceImpl implements CommentService {
     public Comment updateComment(Long commentId, String content) {
         User authUser = userService.getAuthenticatedUser();
         Comment targetComment = getCommentById(commentId);
-        if (targetComment.getAuthor().equals(authUser)) {
+        if (targetComment.getAuthor().getId().equals(authUser.getId())) {
             targetComment.setContent(content);
             targetComment.setDateLastModified(new Date());
             return commentRepository.save(targetComment);
@@ -61,7 +70,7 @@ public class CommentServiceImpl implements CommentService {
     public void deleteComment(Long commentId) {
         User authUser = userService.getAuthenticatedUser();
         Comment targetComment = getCommentById(commentId);
-        if (targetComment.getAuthor().equals(authUser)) {
+        if (targetComment.getAuthor().getId().equals(authUser.getId())) {
             commentRepository.deleteById(commentId);
             notificationService.deleteNotificationByOwningComment(targetComment);
         } else {
@@ -70,16 +79,11 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public Comment likeComment(Long commentId) {
+    public void likeComment(Long commentId) {
         User authUser = userService.getAuthenticatedUser();
         Comment targetComment = getCommentById(commentId);
-        if (!targetComment.getLikeList().contains(authUser)) {
-            targetComment.setLikeCount(targetComment.getLikeCount()+1);
-            targetComment.getLikeList().add(authUser);
-            targetComment.setDateLastModified(new Date());
-            Comment updatedComment = commentRepository.save(targetComment);
-
-            if (!targetComment.getAuthor().equals(authUser)) {
+        if (likeService.addCommentLike(targetComment.getId(), authUser.getId())) {
+            if (!targetComment.getAuthor().getId().equals(authUser.getId())) {
                 notificationService.sendNotification(
                         targetComment.getAuthor(),
                         authUser,
@@ -88,32 +92,23 @@ public class CommentServiceImpl implements CommentService {
                         NotificationType.COMMENT_LIKE.name()
                 );
             }
-
-            return updatedComment;
         } else {
             throw new InvalidOperationException();
         }
     }
 
     @Override
-    public Comment unlikeComment(Long commentId) {
+    public void unlikeComment(Long commentId) {
         User authUser = userService.getAuthenticatedUser();
         Comment targetComment = getCommentById(commentId);
-        if (targetComment.getLikeList().contains(authUser)) {
-            targetComment.setLikeCount(targetComment.getLikeCount() - 1);
-            targetComment.getLikeList().remove(authUser);
-            targetComment.setDateLastModified(new Date());
-            Comment updatedComment = commentRepository.save(targetComment);
-
-            if (!targetComment.getAuthor().equals(authUser)) {
+        if (likeService.removeCommentLike(targetComment.getId(), authUser.getId())) {
+            if (!targetComment.getAuthor().getId().equals(authUser.getId())) {
                 notificationService.removeNotification(
                         targetComment.getPost().getAuthor(),
                         targetComment.getPost(),
                         NotificationType.COMMENT_LIKE.name()
                 );
             }
-
-            return updatedComment;
         } else {
             throw new InvalidOperationException();
         }
@@ -121,21 +116,43 @@ public class CommentServiceImpl implements CommentService {
 
     @Override
     public List<CommentResponse> getPostCommentsPaginate(Post post, Integer page, Integer size) {
-        User authUser = userService.getAuthenticatedUser();
-        List<Comment> foundCommentList = commentRepository.findByPost(
+        List<CommentSummaryProjection> foundCommentList = commentRepository.findCommentSummariesByPost(
                 post,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated"))
+                PageRequest.of(page, size)
         );
+        return commentsToCommentResponses(foundCommentList);
+    }
 
-        List<CommentResponse> commentResponseList = new ArrayList<>();
-        foundCommentList.forEach(comment -> {
-            CommentResponse newCommentResponse = CommentResponse.builder()
-                    .comment(comment)
-                    .likedByAuthUser(comment.getLikeList().contains(authUser))
-                    .build();
-            commentResponseList.add(newCommentResponse);
-        });
+    @Override
+    public CursorPageResponse<CommentResponse> getPostCommentsByCursor(Post post, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<CommentSummaryProjection> foundCommentList = pageCursor == null
+                ? commentRepository.findCommentSummariesByPost(post, PageRequest.of(0, size))
+                : commentRepository.findCommentSummariesByPostBefore(
+                        post, pageCursor.getDate(), pageCursor.getId(), PageRequest.of(0, size));
+        return CursorPageResponse.<CommentResponse>builder()
+                .content(commentsToCommentResponses(foundCommentList))
+                .nextCursor(PageCursor.nextCursor(foundCommentList, size,
+                        comment -> PageCursor.of(comment.getDateCreated(), comment.getId())))
+                .build();
+    }
 
-        return commentResponseList;
+    private List<CommentResponse> commentsToCommentResponses(List<CommentSummaryProjection> foundComments) {
+        if (foundComments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        User authUser = userService.getAuthenticatedUser();
+        List<CommentSummaryResponse> comments = foundComments.stream()
+                .map(readModelMapper::projectionToCommentSummary)
+                .collect(Collectors.toList());
+        comments.forEach(counterService::applyPendingCounts);
+        List<Long> commentIds = comments.stream().map(CommentSummaryResponse::getId).collect(Collectors.toList());
+        Set<Long> likedCommentIds = likeService.getCommentIdsLikedByUser(commentIds, authUser.getId());
+        return comments.stream()
+                .map(comment -> CommentResponse.builder()
+                        .comment(comment)
+                        .likedByAuthUser(likedCommentIds.contains(comment.getId()))
+                        .build())
+                .collect(Collectors.toList());
     }
 }
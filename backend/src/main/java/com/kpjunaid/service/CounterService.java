@@ -0,0 +1,21 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.Tag;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.response.CommentSummaryResponse;
+import com.kpjunaid.response.PostSummaryResponse;
+
+public interface CounterService {
+    void increment(CounterType counterType, Long id, long delta);
+    long getPendingDelta(CounterType counterType, Long id);
+    void applyPendingCounts(Post post);
+    void applyPendingCounts(Comment comment);
+    void applyPendingCounts(User user);
+    void applyPendingCounts(Tag tag);
+    void applyPendingCounts(PostSummaryResponse post);
+    void applyPendingCounts(CommentSummaryResponse comment);
+    void flushPendingCounts();
+}
@@ -0,0 +1,235 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.Tag;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.response.CommentSummaryResponse;
+import com.kpjunaid.response.PostSummaryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class CounterServiceImpl implements CounterService {
+    private static final int STRIPE_COUNT = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CounterStripe[] stripes = createStripes();
+
+    @Override
+    public void increment(CounterType counterType, Long id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+
+        CounterKey key = new CounterKey(counterType, id);
+        afterCommit(() -> stripeOf(key).add(key, delta));
+    }
+
+    @Override
+    public long getPendingDelta(CounterType counterType, Long id) {
+        CounterKey key = new CounterKey(counterType, id);
+        return stripeOf(key).pendingDelta(key);
+    }
+
+    @Override
+    public void applyPendingCounts(Post post) {
+        post.setLikeCount(withPendingDelta(CounterType.POST_LIKE, post.getId(), post.getLikeCount()));
+        post.setCommentCount(withPendingDelta(CounterType.POST_COMMENT, post.getId(), post.getCommentCount()));
+        post.setShareCount(withPendingDelta(CounterType.POST_SHARE, post.getId(), post.getShareCount()));
+    }
+
+    @Override
+    public void applyPendingCounts(Comment comment) {
+        comment.setLikeCount(withPendingDelta(CounterType.COMMENT_LIKE, comment.getId(), comment.getLikeCount()));
+    }
+
+    @Override
+    public void applyPendingCounts(User user) {
+        user.setFollowerCount(withPendingDelta(CounterType.USER_FOLLOWER, user.getId(), user.getFollowerCount()));
+        user.setFollowingCount(withPendingDelta(CounterType.USER_FOLLOWING, user.getId(), user.getFollowingCount()));
+    }
+
+    @Override
+    public void applyPendingCounts(Tag tag) {
+        tag.setTagUseCounter(withPendingDelta(CounterType.TAG_USE, tag.getId(), tag.getTagUseCounter()));
+    }
+
+    @Override
+    public void applyPendingCounts(PostSummaryResponse post) {
+        post.setLikeCount(withPendingDelta(CounterType.POST_LIKE, post.getId(), post.getLikeCount()));
+        post.setCommentCount(withPendingDelta(CounterType.POST_COMMENT, post.getId(), post.getCommentCount()));
+        post.setShareCount(withPendingDelta(CounterType.POST_SHARE, post.getId(), post.getShareCount()));
+    }
+
+    @Override
+    public void applyPendingCounts(CommentSummaryResponse comment) {
+        comment.setLikeCount(withPendingDelta(CounterType.COMMENT_LIKE, comment.getId(), comment.getLikeCount()));
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${counter.flush-interval-ms:1000}")
+    public synchronized void flushPendingCounts() {
+        Map<CounterType, List<Object[]>> batches = new EnumMap<>(CounterType.class);
+        for (CounterStripe stripe : stripes) {
+            stripe.beginFlush().forEach((key, adder) -> {
+                long delta = adder.sum();
+                if (delta != 0) {
+                    batches.computeIfAbsent(key.counterType(), type -> new ArrayList<>())
+                            .add(new Object[] { delta, key.id() });
+                }
+            });
+        }
+
+        if (batches.isEmpty()) {
+            completeFlush();
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        completeFlush();
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            abortFlush();
+                        }
+                    }
+                });
+                batches.forEach((counterType, args) -> {
+                    args.sort(Comparator.comparing(arg -> (Long) arg[1]));
+                    jdbcTemplate.batchUpdate(toUpdateSql(counterType), args);
+                });
+            });
+        } catch (RuntimeException e) {
+            abortFlush();
+            throw e;
+        }
+    }
+
+    private void completeFlush() {
+        for (CounterStripe stripe : stripes) {
+            stripe.completeFlush();
+        }
+    }
+
+    private void abortFlush() {
+        for (CounterStripe stripe : stripes) {
+            stripe.abortFlush();
+        }
+    }
+
+    private Integer withPendingDelta(CounterType counterType, Long id, Integer persistedCount) {
+        if (id == null) {
+            return persistedCount;
+        }
+        long delta = getPendingDelta(counterType, id);
+        if (delta == 0) {
+            return persistedCount;
+        }
+        return Math.toIntExact((persistedCount == null ? 0 : persistedCount) + delta);
+    }
+
+    private String toUpdateSql(CounterType counterType) {
+        String column = counterType.getColumnName();
+        return "update " + counterType.getTableName() +
+                " set " + column + " = coalesce(" + column + ", 0) + ? where id = ?";
+    }
+
+    private CounterStripe stripeOf(CounterKey key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPE_COUNT)];
+    }
+
+    private static CounterStripe[] createStripes() {
+        CounterStripe[] stripes = new CounterStripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new CounterStripe();
+        }
+        return stripes;
+    }
+
+    private record CounterKey(CounterType counterType, Long id) {
+    }
+
+    private static class CounterStripe {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private Map<CounterKey, LongAdder> pending = new ConcurrentHashMap<>();
+        private Map<CounterKey, LongAdder> flushing = Map.of();
+
+        void add(CounterKey key, long delta) {
+            lock.readLock().lock();
+            try {
+                pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long pendingDelta(CounterKey key) {
+            lock.readLock().lock();
+            try {
+                return sumOf(pending.get(key)) + sumOf(flushing.get(key));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Map<CounterKey, LongAdder> beginFlush() {
+            lock.writeLock().lock();
+            try {
+                flushing = pending;
+                pending = new ConcurrentHashMap<>();
+                return flushing;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void completeFlush() {
+            lock.writeLock().lock();
+            try {
+                flushing = Map.of();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void abortFlush() {
+            lock.writeLock().lock();
+            try {
+                flushing.forEach((key, adder) ->
+                        pending.computeIfAbsent(key, k -> new LongAdder()).add(adder.sum()));
+                flushing = Map.of();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private static long sumOf(LongAdder adder) {
+            return adder == null ? 0 : adder.sum();
+        }
+    }
+}
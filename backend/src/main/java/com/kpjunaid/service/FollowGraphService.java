@@ -0,0 +1,16 @@
+package com.kpjunaid.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface FollowGraphService {
+    boolean isFollowing(Long followerId, Long followedId);
+    Set<Long> getFollowedIdsAmong(Long followerId, Collection<Long> userIds);
+    long[] getFollowingIds(Long userId);
+    long[] getFollowerIds(Long userId);
+    int getFollowingCount(Long userId);
+    int getFollowerCount(Long userId);
+    boolean addFollow(Long followerId, Long followedId);
+    boolean removeFollow(Long followerId, Long followedId);
+    void removeUser(Long userId);
+}
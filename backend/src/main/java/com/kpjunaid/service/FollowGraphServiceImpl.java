@@ -0,0 +1,145 @@
+package com.kpjunaid.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class FollowGraphServiceImpl implements FollowGraphService {
+    private final UserRepository userRepository;
+    private final LoadingCache<Long, long[]> followingIds =
+            newAdjacencyCache(userId -> userRepository.findFollowingIdsByUserId(userId));
+    private final LoadingCache<Long, long[]> followerIds =
+            newAdjacencyCache(userId -> userRepository.findFollowerIdsByUserId(userId));
+
+    @Override
+    public boolean isFollowing(Long followerId, Long followedId) {
+        return Arrays.binarySearch(followingIds.getUnchecked(followerId), followedId) >= 0;
+    }
+
+    @Override
+    public Set<Long> getFollowedIdsAmong(Long followerId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        long[] followedIds = followingIds.getUnchecked(followerId);
+        return userIds.stream()
+                .filter(userId -> Arrays.binarySearch(followedIds, userId) >= 0)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public long[] getFollowingIds(Long userId) {
+        return followingIds.getUnchecked(userId).clone();
+    }
+
+    @Override
+    public long[] getFollowerIds(Long userId) {
+        return followerIds.getUnchecked(userId).clone();
+    }
+
+    @Override
+    public int getFollowingCount(Long userId) {
+        return followingIds.getUnchecked(userId).length;
+    }
+
+    @Override
+    public int getFollowerCount(Long userId) {
+        return followerIds.getUnchecked(userId).length;
+    }
+
+    @Override
+    public boolean addFollow(Long followerId, Long followedId) {
+        if (userRepository.insertFollow(followedId, followerId) == 0) {
+            return false;
+        }
+        afterCommit(() -> {
+            followingIds.asMap().computeIfPresent(followerId, (id, ids) -> withId(ids, followedId));
+            followerIds.asMap().computeIfPresent(followedId, (id, ids) -> withId(ids, followerId));
+        });
+        return true;
+    }
+
+    @Override
+    public boolean removeFollow(Long followerId, Long followedId) {
+        if (userRepository.deleteFollow(followedId, followerId) == 0) {
+            return false;
+        }
+        afterCommit(() -> {
+            followingIds.asMap().computeIfPresent(followerId, (id, ids) -> withoutId(ids, followedId));
+            followerIds.asMap().computeIfPresent(followedId, (id, ids) -> withoutId(ids, followerId));
+        });
+        return true;
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        long[] followedByUser = followingIds.getUnchecked(userId);
+        long[] followersOfUser = followerIds.getUnchecked(userId);
+        afterCommit(() -> {
+            followingIds.invalidate(userId);
+            followerIds.invalidate(userId);
+            for (long followedId : followedByUser) {
+                followerIds.asMap().computeIfPresent(followedId, (id, ids) -> withoutId(ids, userId));
+            }
+            for (long followerId : followersOfUser) {
+                followingIds.asMap().computeIfPresent(followerId, (id, ids) -> withoutId(ids, userId));
+            }
+        });
+    }
+
+    private LoadingCache<Long, long[]> newAdjacencyCache(Function<Long, List<Long>> loader) {
+        return CacheBuilder.newBuilder()
+                .maximumWeight(AppConstants.FOLLOW_GRAPH_MAX_IDS)
+                .<Long, long[]>weigher((userId, ids) -> ids.length + 1)
+                .expireAfterAccess(AppConstants.FOLLOW_GRAPH_TTL_MINUTES, TimeUnit.MINUTES)
+                .build(CacheLoader.<Long, long[]>from(userId -> toSortedArray(loader.apply(userId))));
+    }
+
+    private long[] toSortedArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    // Guava's computeIfPresent waits for an in-flight load of the key before applying the patch,
+    // and both patches are idempotent, so a load that already saw the commit is left unchanged.
+    private long[] withId(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] updatedIds = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updatedIds, 0, insertAt);
+        updatedIds[insertAt] = id;
+        System.arraycopy(ids, insertAt, updatedIds, insertAt + 1, ids.length - insertAt);
+        return updatedIds;
+    }
+
+    private long[] withoutId(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        long[] updatedIds = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updatedIds, 0, index);
+        System.arraycopy(ids, index + 1, updatedIds, index, ids.length - index - 1);
+        return updatedIds;
+    }
+}
@@ -3,7 +3,10 @@ package com.kpjunaid.service;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.kpjunaid.common.AppConstants;
 import com.kpjunaid.common.UserPrincipal;
 import org.apache.commons.lang3.StringUtils;
@@ -12,10 +15,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,34 +28,62 @@ public class JwtTokenService {
     @Value("jwt.secret")
     private String jwtSecret;
 
+    private Algorithm algorithm;
+    private JWTVerifier jwtVerifier;
+    private final Cache<String, DecodedJWT> verifiedTokens = CacheBuilder.newBuilder()
+            .maximumSize(AppConstants.VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfterWrite(AppConstants.VERIFIED_TOKEN_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    @PostConstruct
+    void initJwtVerifier() {
+        algorithm = Algorithm.HMAC512(jwtSecret.getBytes());
+        jwtVerifier = JWT.require(algorithm).build();
+    }
+
     public String generateToken(UserPrincipal userPrincipal) {
         String[] claims = getClaimsFromUser(userPrincipal);
         return JWT.create()
                 .withSubject(userPrincipal.getUsername())
+                .withClaim(AppConstants.USER_ID_CLAIM, userPrincipal.getUserId())
                 .withArrayClaim(AppConstants.AUTHORITIES, claims)
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + AppConstants.JWT_EXPIRATION_2Wk))
-                .sign(Algorithm.HMAC512(jwtSecret.getBytes()));
+                .sign(algorithm);
     }
 
-    public List<GrantedAuthority> getAuthoritiesFromToken(String token) {
-        String[] claims = getClaimsFromToken(token);
+    public DecodedJWT verifyToken(String token) {
+        DecodedJWT decodedToken = verifiedTokens.getIfPresent(token);
+        if (decodedToken == null) {
+            decodedToken = jwtVerifier.verify(token);
+            verifiedTokens.put(token, decodedToken);
+        } else if (isTokenExpired(decodedToken)) {
+            verifiedTokens.invalidate(token);
+            throw new TokenExpiredException(AppConstants.INVALID_TOKEN);
+        }
+        return decodedToken;
+    }
+
+    public List<GrantedAuthority> getAuthoritiesFromToken(DecodedJWT decodedToken) {
+        String[] claims = decodedToken.getClaim(AppConstants.AUTHORITIES).asArray(String.class);
         return Arrays.stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
     }
 
+    public Long getUserIdFromToken(DecodedJWT decodedToken) {
+        return decodedToken.getClaim(AppConstants.USER_ID_CLAIM).asLong();
+    }
+
     public String getSubjectFromToken(String token) {
-        JWTVerifier jwtVerifier = getJwtVerifier();
-        return jwtVerifier.verify(token).getSubject();
+        return verifyToken(token).getSubject();
     }
 
-    public Boolean isTokenValid(String email, String token) {
-        JWTVerifier jwtVerifier = getJwtVerifier();
-        return StringUtils.isNotEmpty(email) && !isTokenExpired(jwtVerifier, token);
+    public Boolean isTokenValid(String email, DecodedJWT decodedToken) {
+        return StringUtils.isNotEmpty(email) && !isTokenExpired(decodedToken);
     }
 
-    private Boolean isTokenExpired(JWTVerifier jwtVerifier, String token) {
-        Date expiration = jwtVerifier.verify(token).getExpiresAt();
-        return expiration.before(new Date());
+    private Boolean isTokenExpired(DecodedJWT decodedToken) {
+        Date expiration = decodedToken.getExpiresAt();
+        return expiration != null && expiration.before(new Date());
     }
 
     private String[] getClaimsFromUser(UserPrincipal userPrincipal) {
@@ -58,20 +91,4 @@ public class JwtTokenService {
         userPrincipal.getAuthorities().forEach(authority -> authorities.add(authority.getAuthority()));
         return authorities.toArray(new String[0]);
     }
-
-    private String[] getClaimsFromToken(String token) {
-        JWTVerifier jwtVerifier = getJwtVerifier();
-        return jwtVerifier.verify(token).getClaim(AppConstants.AUTHORITIES).asArray(String.class);
-    }
-
-    private JWTVerifier getJwtVerifier() {
-        JWTVerifier jwtVerifier;
-        try {
-            Algorithm algorithm = Algorithm.HMAC512(jwtSecret);
-            jwtVerifier = JWT.require(algorithm).build();
-        } catch (JWTVerificationException e) {
-            throw new JWTVerificationException(AppConstants.TOKEN_UNVERIFIABLE);
-        }
-        return jwtVerifier;
-    }
 }
@@ -0,0 +1,13 @@
+package com.kpjunaid.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface LikeService {
+    Set<Long> getPostIdsLikedByUser(Collection<Long> postIds, Long userId);
+    Set<Long> getCommentIdsLikedByUser(Collection<Long> commentIds, Long userId);
+    boolean addPostLike(Long postId, Long userId);
+    boolean removePostLike(Long postId, Long userId);
+    boolean addCommentLike(Long commentId, Long userId);
+    boolean removeCommentLike(Long commentId, Long userId);
+}
@@ -0,0 +1,77 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.repository.CommentRepository;
+import com.kpjunaid.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class LikeServiceImpl implements LikeService {
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final CounterService counterService;
+
+    @Override
+    public Set<Long> getPostIdsLikedByUser(Collection<Long> postIds, Long userId) {
+        if (postIds.isEmpty() || userId == null) {
+            return Set.of();
+        }
+        return new HashSet<>(postRepository.findPostIdsLikedByUser(postIds, userId));
+    }
+
+    @Override
+    public Set<Long> getCommentIdsLikedByUser(Collection<Long> commentIds, Long userId) {
+        if (commentIds.isEmpty() || userId == null) {
+            return Set.of();
+        }
+        return new HashSet<>(commentRepository.findCommentIdsLikedByUser(commentIds, userId));
+    }
+
+    @Override
+    @Transactional
+    public boolean addPostLike(Long postId, Long userId) {
+        if (postRepository.insertPostLike(postId, userId) == 0) {
+            return false;
+        }
+        counterService.increment(CounterType.POST_LIKE, postId, 1);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean removePostLike(Long postId, Long userId) {
+        if (postRepository.deletePostLike(postId, userId) == 0) {
+            return false;
+        }
+        counterService.increment(CounterType.POST_LIKE, postId, -1);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean addCommentLike(Long commentId, Long userId) {
+        if (commentRepository.insertCommentLike(commentId, userId) == 0) {
+            return false;
+        }
+        counterService.increment(CounterType.COMMENT_LIKE, commentId, 1);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean removeCommentLike(Long commentId, Long userId) {
+        if (commentRepository.deleteCommentLike(commentId, userId) == 0) {
+            return false;
+        }
+        counterService.increment(CounterType.COMMENT_LIKE, commentId, -1);
+        return true;
+    }
+}
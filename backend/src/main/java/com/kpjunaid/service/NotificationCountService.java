@@ -0,0 +1,11 @@
+package com.kpjunaid.service;
+
+import java.util.Collection;
+
+public interface NotificationCountService {
+    long getUnseenCount(Long userId);
+    void adjustUnseenCount(Long userId, long delta);
+    void adjustUnseenCounts(Collection<Long> userIds, long delta);
+    void resetUnseenCount(Long userId);
+    void reconcileUnseenCounts();
+}
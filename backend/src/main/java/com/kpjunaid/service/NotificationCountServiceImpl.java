@@ -0,0 +1,64 @@
+package com.kpjunaid.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationCountServiceImpl implements NotificationCountService {
+    private final NotificationRepository notificationRepository;
+    private final LoadingCache<Long, Long> unseenCounts = CacheBuilder.newBuilder()
+            .maximumSize(AppConstants.NOTIFICATION_COUNT_CACHE_SIZE)
+            .expireAfterAccess(AppConstants.NOTIFICATION_COUNT_TTL_MINUTES, TimeUnit.MINUTES)
+            .build(CacheLoader.<Long, Long>from(userId -> notificationRepository.countUnseenByReceiverId(userId)));
+
+    @Override
+    public long getUnseenCount(Long userId) {
+        return unseenCounts.getUnchecked(userId);
+    }
+
+    @Override
+    public void adjustUnseenCount(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        afterCommit(() -> unseenCounts.asMap().computeIfPresent(userId, (id, count) -> Math.max(0, count + delta)));
+    }
+
+    @Override
+    public void adjustUnseenCounts(Collection<Long> userIds, long delta) {
+        Map<Long, Long> deltas = new HashMap<>();
+        userIds.forEach(userId -> deltas.merge(userId, delta, Long::sum));
+        deltas.forEach(this::adjustUnseenCount);
+    }
+
+    @Override
+    public void resetUnseenCount(Long userId) {
+        afterCommit(() -> unseenCounts.asMap().computeIfPresent(userId, (id, count) -> 0L));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.unseen-count.reconcile-interval-ms:300000}")
+    public void reconcileUnseenCounts() {
+        List<Long> cachedUserIds = new ArrayList<>(unseenCounts.asMap().keySet());
+        for (List<Long> userIds : Lists.partition(cachedUserIds, AppConstants.NOTIFICATION_COUNT_RECONCILE_BATCH_SIZE)) {
+            Map<Long, Long> persistedCounts = new HashMap<>();
+            notificationRepository.countUnseenByReceiverIds(userIds)
+                    .forEach(count -> persistedCounts.put(count.getReceiverId(), count.getUnseenCount()));
+            userIds.forEach(userId -> unseenCounts.asMap()
+                    .computeIfPresent(userId, (id, count) -> persistedCounts.getOrDefault(userId, 0L)));
+        }
+    }
+}
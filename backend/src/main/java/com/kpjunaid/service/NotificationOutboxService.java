@@ -0,0 +1,14 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.User;
+
+public interface NotificationOutboxService {
+    void recordEvent(User receiver, User sender, Post owningPost, Comment owningComment, String type);
+    int discardPendingEvents(User receiver, Post owningPost, String type, User sender);
+    void discardPendingEventsByOwningPost(Post owningPost);
+    void discardPendingEventsByOwningComment(Comment owningComment);
+    int processNextBatch();
+    void drainOutbox();
+}
@@ -0,0 +1,246 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.entity.Comment;
+import com.kpjunaid.entity.Notification;
+import com.kpjunaid.entity.NotificationOutboxEvent;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.repository.CommentRepository;
+import com.kpjunaid.repository.NotificationOutboxRepository;
+import com.kpjunaid.repository.NotificationRepository;
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.response.NotificationEventResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final NotificationCountService notificationCountService;
+    private final NotificationStreamService notificationStreamService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong processedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("notification.outbox.pending", pendingEvents, AtomicLong::get)
+                .register(meterRegistry);
+        TimeGauge.builder("notification.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.outbox.processed", processedEvents, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("notification.outbox.coalesced", coalescedEvents, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordEvent(User receiver, User sender, Post owningPost, Comment owningComment, String type) {
+        notificationOutboxRepository.save(NotificationOutboxEvent.builder()
+                .type(type)
+                .receiverId(receiver.getId())
+                .senderId(sender == null ? null : sender.getId())
+                .owningPostId(owningPost.getId())
+                .owningCommentId(owningComment == null ? null : owningComment.getId())
+                .dateCreated(new Date())
+                .build());
+    }
+
+    @Override
+    public int discardPendingEvents(User receiver, Post owningPost, String type, User sender) {
+        return notificationOutboxRepository.deletePendingEvents(receiver.getId(), owningPost.getId(), type, sender.getId());
+    }
+
+    @Override
+    public void discardPendingEventsByOwningPost(Post owningPost) {
+        notificationOutboxRepository.deleteEventsByOwningPostId(owningPost.getId());
+    }
+
+    @Override
+    public void discardPendingEventsByOwningComment(Comment owningComment) {
+        notificationOutboxRepository.deleteEventsByOwningCommentId(owningComment.getId());
+    }
+
+    @Override
+    public int processNextBatch() {
+        Integer batchSize = transactionTemplate.execute(status -> {
+            List<NotificationOutboxEvent> events = notificationOutboxRepository.findNextBatch(
+                    PageRequest.of(0, AppConstants.NOTIFICATION_OUTBOX_BATCH_SIZE));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            Map<NotificationKey, List<NotificationOutboxEvent>> groupedEvents = new LinkedHashMap<>();
+            withLiveReferences(events).forEach(event -> groupedEvents
+                    .computeIfAbsent(NotificationKey.of(event), key -> new ArrayList<>()).add(event));
+            upsertNotifications(new ArrayList<>(groupedEvents.values()));
+            notificationOutboxRepository.deleteEventsByIdIn(events.stream().map(NotificationOutboxEvent::getId).toList());
+            coalescedEvents.addAndGet(events.size() - groupedEvents.size());
+            return events.size();
+        });
+        int processedCount = batchSize == null ? 0 : batchSize;
+        processedEvents.addAndGet(processedCount);
+        return processedCount;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:500}")
+    public void drainOutbox() {
+        for (int batch = 0; batch < AppConstants.NOTIFICATION_OUTBOX_MAX_BATCHES_PER_RUN; batch++) {
+            if (processNextBatch() < AppConstants.NOTIFICATION_OUTBOX_BATCH_SIZE) {
+                break;
+            }
+        }
+        Date oldestEventDate = notificationOutboxRepository.findOldestEventDate();
+        pendingEvents.set(notificationOutboxRepository.count());
+        lagMillis.set(oldestEventDate == null ? 0 : Math.max(0, System.currentTimeMillis() - oldestEventDate.getTime()));
+    }
+
+    private List<NotificationOutboxEvent> withLiveReferences(List<NotificationOutboxEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> postIds = new HashSet<>();
+        Set<Long> commentIds = new HashSet<>();
+        events.forEach(event -> {
+            userIds.add(event.getReceiverId());
+            postIds.add(event.getOwningPostId());
+            if (event.getSenderId() != null) {
+                userIds.add(event.getSenderId());
+            }
+            if (event.getOwningCommentId() != null) {
+                commentIds.add(event.getOwningCommentId());
+            }
+        });
+        Set<Long> liveUserIds = new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<Long> livePostIds = new HashSet<>(postRepository.findExistingIds(postIds));
+        Set<Long> liveCommentIds = commentIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(commentRepository.findExistingIds(commentIds));
+        return events.stream()
+                .filter(event -> liveUserIds.contains(event.getReceiverId())
+                        && livePostIds.contains(event.getOwningPostId())
+                        && (event.getSenderId() == null || liveUserIds.contains(event.getSenderId()))
+                        && (event.getOwningCommentId() == null || liveCommentIds.contains(event.getOwningCommentId())))
+                .toList();
+    }
+
+    private void upsertNotifications(List<List<NotificationOutboxEvent>> groupedEvents) {
+        if (groupedEvents.isEmpty()) {
+            return;
+        }
+        List<NotificationOutboxEvent> latestEvents = groupedEvents.stream()
+                .map(events -> events.get(events.size() - 1))
+                .toList();
+        Map<NotificationKey, Notification> existingNotifications = new HashMap<>();
+        notificationRepository.findNotificationsByReceiverIdsAndOwningPostIds(
+                latestEvents.stream().map(NotificationOutboxEvent::getReceiverId).distinct().toList(),
+                latestEvents.stream().map(NotificationOutboxEvent::getOwningPostId).distinct().toList()
+        ).forEach(notification -> existingNotifications.putIfAbsent(NotificationKey.of(notification), notification));
+
+        Date now = new Date();
+        List<Notification> notifications = new ArrayList<>();
+        List<Set<Long>> newActorIds = new ArrayList<>();
+        for (int i = 0; i < groupedEvents.size(); i++) {
+            NotificationOutboxEvent event = latestEvents.get(i);
+            Notification notification = existingNotifications.get(NotificationKey.of(event));
+            if (notification == null) {
+                notification = new Notification();
+                notification.setType(event.getType());
+                notification.setReceiver(userRepository.getById(event.getReceiverId()));
+                notification.setOwningPost(postRepository.getById(event.getOwningPostId()));
+                notification.setOwningComment(event.getOwningCommentId() == null
+                        ? null
+                        : commentRepository.getById(event.getOwningCommentId()));
+                notification.setDateCreated(event.getDateCreated());
+                notification.setActorCount(0);
+                notification.setRecentActorIds(new ArrayList<>());
+                notificationCountService.adjustUnseenCount(event.getReceiverId(), 1);
+            } else {
+                backfillLegacyActor(notification);
+                if (Boolean.TRUE.equals(notification.getIsSeen())) {
+                    notificationCountService.adjustUnseenCount(event.getReceiverId(), 1);
+                }
+            }
+            Set<Long> pendingActorIds = new LinkedHashSet<>();
+            for (NotificationOutboxEvent groupedEvent : groupedEvents.get(i)) {
+                if (groupedEvent.getSenderId() != null) {
+                    notification.addActor(groupedEvent.getSenderId(),
+                            recordActor(notification, groupedEvent.getSenderId(), pendingActorIds));
+                }
+            }
+            newActorIds.add(pendingActorIds);
+            notification.setSender(event.getSenderId() == null ? null : userRepository.getById(event.getSenderId()));
+            notification.setIsSeen(false);
+            notification.setIsRead(false);
+            notification.setDateUpdated(event.getDateCreated());
+            notification.setDateLastModified(now);
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+        for (int i = 0; i < notifications.size(); i++) {
+            Long notificationId = notifications.get(i).getId();
+            newActorIds.get(i).forEach(actorId -> notificationRepository.insertNotificationActor(notificationId, actorId));
+        }
+
+        for (int i = 0; i < latestEvents.size(); i++) {
+            NotificationOutboxEvent event = latestEvents.get(i);
+            Notification notification = notifications.get(i);
+            notificationStreamService.publish(event.getReceiverId(), NotificationEventResponse.builder()
+                    .notificationId(notification.getId())
+                    .type(event.getType())
+                    .senderId(event.getSenderId())
+                    .actorCount(notification.getActorCount())
+                    .owningPostId(event.getOwningPostId())
+                    .owningCommentId(notification.getOwningComment() == null
+                            ? event.getOwningCommentId()
+                            : notification.getOwningComment().getId())
+                    .dateUpdated(event.getDateCreated())
+                    .build());
+        }
+    }
+
+    // Notifications created before actors were tracked only know their sender, who counts as their one actor.
+    private void backfillLegacyActor(Notification notification) {
+        if (notification.getActorCount() == null && notification.getSender() != null) {
+            notificationRepository.insertNotificationActor(notification.getId(), notification.getSender().getId());
+        }
+    }
+
+    private boolean recordActor(Notification notification, Long actorId, Set<Long> pendingActorIds) {
+        if (notification.getId() == null) {
+            return pendingActorIds.add(actorId);
+        }
+        return notificationRepository.insertNotificationActor(notification.getId(), actorId) > 0;
+    }
+
+    private record NotificationKey(Long receiverId, Long owningPostId, String type) {
+        static NotificationKey of(NotificationOutboxEvent event) {
+            return new NotificationKey(event.getReceiverId(), event.getOwningPostId(), event.getType());
+        }
+
+        static NotificationKey of(Notification notification) {
+            return new NotificationKey(
+                    notification.getReceiver().getId(), notification.getOwningPost().getId(), notification.getType());
+        }
+    }
+}
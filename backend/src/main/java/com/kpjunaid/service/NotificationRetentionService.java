@@ -0,0 +1,7 @@
+package com.kpjunaid.service;
+
+public interface NotificationRetentionService {
+    int purgeExpiredNotifications();
+    int compactReceiverHistories();
+    void applyRetention();
+}
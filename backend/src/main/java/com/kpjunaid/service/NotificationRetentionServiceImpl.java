@@ -0,0 +1,128 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.NotificationRetentionProjection;
+import com.kpjunaid.repository.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationRetentionServiceImpl implements NotificationRetentionService {
+    private static final String EXPIRED = "expired";
+    private static final String COMPACTED = "compacted";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCountService notificationCountService;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.retention.interval-ms:3600000}",
+            initialDelayString = "${notification.retention.interval-ms:3600000}")
+    public void applyRetention() {
+        purgeExpiredNotifications();
+        compactReceiverHistories();
+    }
+
+    @Override
+    public int purgeExpiredNotifications() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(getReadMaxAgeDays()));
+        int reclaimedCount = 0;
+        for (int batch = 0; batch < AppConstants.NOTIFICATION_RETENTION_MAX_BATCHES_PER_RUN; batch++) {
+            int deletedCount = runBatch(EXPIRED, () -> {
+                List<Long> notificationIds = notificationRepository.findReadNotificationIdsBefore(
+                        cutoff, PageRequest.of(0, AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE));
+                if (notificationIds.isEmpty()) {
+                    return 0;
+                }
+                notificationRepository.deleteNotificationActorsByNotificationIdIn(notificationIds);
+                return notificationRepository.deleteNotificationsByIdIn(notificationIds);
+            });
+            reclaimedCount += deletedCount;
+            if (deletedCount < AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE) {
+                break;
+            }
+        }
+        return reclaimedCount;
+    }
+
+    @Override
+    public int compactReceiverHistories() {
+        int maxPerReceiver = getMaxPerReceiver();
+        List<Long> receiverIds = notificationRepository.findReceiverIdsWithMoreNotificationsThan(
+                (long) maxPerReceiver, PageRequest.of(0, AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE));
+        int reclaimedCount = 0;
+        int batchCount = 0;
+        for (Long receiverId : receiverIds) {
+            List<NotificationRetentionProjection> boundary = notificationRepository
+                    .findRetentionCandidatesByReceiverId(receiverId, PageRequest.of(maxPerReceiver, 1));
+            if (boundary.isEmpty()) {
+                continue;
+            }
+            NotificationRetentionProjection newestToDelete = boundary.get(0);
+            int deletedCount;
+            do {
+                deletedCount = runBatch(COMPACTED, () -> {
+                    List<NotificationRetentionProjection> candidates = notificationRepository
+                            .findRetentionCandidatesByReceiverIdFrom(
+                                    receiverId,
+                                    newestToDelete.getDateUpdated(),
+                                    newestToDelete.getId(),
+                                    PageRequest.of(0, AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE));
+                    if (candidates.isEmpty()) {
+                        return 0;
+                    }
+                    List<Long> candidateIds = candidates.stream().map(NotificationRetentionProjection::getId).toList();
+                    notificationRepository.deleteNotificationActorsByNotificationIdIn(candidateIds);
+                    int deleted = notificationRepository.deleteNotificationsByIdIn(candidateIds);
+                    notificationCountService.adjustUnseenCount(receiverId, -candidates.stream()
+                            .filter(candidate -> !Boolean.TRUE.equals(candidate.getIsSeen()))
+                            .count());
+                    return deleted;
+                });
+                reclaimedCount += deletedCount;
+                batchCount++;
+            } while (deletedCount == AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE
+                    && batchCount < AppConstants.NOTIFICATION_RETENTION_MAX_BATCHES_PER_RUN);
+            if (batchCount >= AppConstants.NOTIFICATION_RETENTION_MAX_BATCHES_PER_RUN) {
+                break;
+            }
+        }
+        return reclaimedCount;
+    }
+
+    private int runBatch(String reason, Supplier<Integer> batch) {
+        Supplier<Integer> transactionalBatch = () -> transactionTemplate.execute(status -> batch.get());
+        Integer deletedCount = meterRegistry.timer("notification.retention.batch", "reason", reason)
+                .record(transactionalBatch);
+        int reclaimedCount = deletedCount == null ? 0 : deletedCount;
+        meterRegistry.counter("notification.retention.reclaimed", "reason", reason).increment(reclaimedCount);
+        return reclaimedCount;
+    }
+
+    private long getReadMaxAgeDays() {
+        Long readMaxAgeDays = environment.getProperty("notification.retention.read-max-age-days", Long.class);
+        return readMaxAgeDays == null || readMaxAgeDays <= 0
+                ? AppConstants.NOTIFICATION_RETENTION_DEFAULT_READ_MAX_AGE_DAYS
+                : readMaxAgeDays;
+    }
+
+    private int getMaxPerReceiver() {
+        Integer maxPerReceiver = environment.getProperty("notification.retention.max-per-receiver", Integer.class);
+        return maxPerReceiver == null || maxPerReceiver <= 0
+                ? AppConstants.NOTIFICATION_RETENTION_DEFAULT_MAX_PER_RECEIVER
+                : maxPerReceiver;
+    }
+}
@@ -4,6 +4,9 @@ import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.entity.Notification;
+import com.kpjunaid.response.CursorPageResponse;
+import com.kpjunaid.response.NotificationSummaryResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -12,9 +15,12 @@ public interface NotificationService {
     Notification getNotificationByReceiverAndOwningPostAndType(User receiver, Post owningPost, String type);
     void sendNotification(User receiver, User sender, Post owningPost, Comment owningComment, String type);
     void removeNotification(User receiver, Post owningPost, String type);
-    List<Notification> getNotificationsForAuthUserPaginate(Integer page, Integer size);
-    void markAllSeen();
-    void markAllRead();
+    List<NotificationSummaryResponse> getNotificationsForAuthUserPaginate(Integer page, Integer size);
+    CursorPageResponse<NotificationSummaryResponse> getNotificationsForAuthUserByCursor(String cursor, Integer size);
+    int markAllSeen();
+    int markAllRead();
+    long getUnseenCountForAuthUser();
+    SseEmitter subscribeForAuthUser();
     void deleteNotification(User receiver, Post owningPost, String type);
     void deleteNotificationByOwningPost(Post owningPost);
     void deleteNotificationByOwningComment(Comment owningComment);
@@ -1,24 +1,36 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.exception.NotificationNotFoundException;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.projection.NotificationSummaryProjection;
 import com.kpjunaid.repository.NotificationRepository;
 import com.kpjunaid.entity.Notification;
+import com.kpjunaid.response.CursorPageResponse;
+import com.kpjunaid.response.NotificationSummaryResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserService userService;
+    private final NotificationCountService notificationCountService;
+    private final NotificationStreamService notificationStreamService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final CounterService counterService;
+    private final ReadModelMapper readModelMapper;
 
     @Override
     public Notification getNotificationById(Long notificationId) {
@@ -33,90 +45,128 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public void sendNotification(User receiver, User sender, Post owningPost, Comment owningComment, String type) {
-        try {
-            Notification targetNotification = getNotificationByReceiverAndOwningPostAndType(receiver, owningPost, type);
-            targetNotification.setSender(sender);
-            targetNotification.setIsSeen(false);
-            targetNotification.setIsRead(false);
-            targetNotification.setDateUpdated(new Date());
-            targetNotification.setDateLastModified(new Date());
-            notificationRepository.save(targetNotification);
-        } catch (NotificationNotFoundException e) {
-            Notification newNotification = new Notification();
-            newNotification.setType(type);
-            newNotification.setReceiver(receiver);
-            newNotification.setSender(sender);
-            newNotification.setOwningPost(owningPost);
-            newNotification.setOwningComment(owningComment);
-            newNotification.setIsSeen(false);
-            newNotification.setIsRead(false);
-            newNotification.setDateCreated(new Date());
-            newNotification.setDateUpdated(new Date());
-            newNotification.setDateLastModified(new Date());
-            notificationRepository.save(newNotification);
-        }
+        notificationOutboxService.recordEvent(receiver, sender, owningPost, owningComment, type);
     }
 
     @Override
     public void removeNotification(User receiver, Post owningPost, String type) {
         User authUser = userService.getAuthenticatedUser();
-        Notification targetNotification = getNotificationByReceiverAndOwningPostAndType(receiver, owningPost, type);
-        if (targetNotification.getSender() != null && targetNotification.getSender().equals(authUser)) {
-            targetNotification.setSender(null);
-            targetNotification.setDateLastModified(new Date());
-            notificationRepository.save(targetNotification);
+        if (notificationOutboxService.discardPendingEvents(receiver, owningPost, type, authUser) > 0) {
+            return;
         }
+        notificationRepository.findByReceiverAndOwningPostAndType(receiver, owningPost, type)
+                .ifPresent(targetNotification -> {
+                    backfillLegacyActor(targetNotification);
+                    targetNotification.removeActor(authUser.getId(), notificationRepository
+                            .deleteNotificationActor(targetNotification.getId(), authUser.getId()) > 0);
+                    User sender = targetNotification.getSender();
+                    if (sender != null && authUser.getId().equals(sender.getId())) {
+                        List<Long> recentActorIds = targetNotification.getRecentActorIds();
+                        targetNotification.setSender(recentActorIds.isEmpty()
+                                ? null
+                                : userService.getUserById(recentActorIds.get(0)));
+                    }
+                    targetNotification.setDateLastModified(new Date());
+                    notificationRepository.save(targetNotification);
+                });
     }
 
     @Override
-    public List<Notification> getNotificationsForAuthUserPaginate(Integer page, Integer size) {
+    public List<NotificationSummaryResponse> getNotificationsForAuthUserPaginate(Integer page, Integer size) {
         User authUser = userService.getAuthenticatedUser();
-        return notificationRepository.findNotificationsByReceiver(
+        return toNotificationSummaries(notificationRepository.findNotificationSummariesByReceiver(
                 authUser,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateUpdated"))
-        );
+                PageRequest.of(page, size)
+        ));
     }
 
     @Override
-    public void markAllSeen() {
+    public CursorPageResponse<NotificationSummaryResponse> getNotificationsForAuthUserByCursor(String cursor, Integer size) {
         User authUser = userService.getAuthenticatedUser();
-        notificationRepository.findNotificationsByReceiverAndIsSeenIsFalse(authUser)
-                .forEach(notification -> {
-                    if (notification.getReceiver().equals(authUser)) {
-                        notification.setIsSeen(true);
-                        notification.setDateLastModified(new Date());
-                        notificationRepository.save(notification);
-                    }
-                });
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<NotificationSummaryResponse> foundNotifications = toNotificationSummaries(pageCursor == null
+                ? notificationRepository.findNotificationSummariesByReceiver(authUser, PageRequest.of(0, size))
+                : notificationRepository.findNotificationSummariesByReceiverBefore(
+                        authUser, pageCursor.getDate(), pageCursor.getId(), PageRequest.of(0, size)));
+        return CursorPageResponse.<NotificationSummaryResponse>builder()
+                .content(foundNotifications)
+                .nextCursor(PageCursor.nextCursor(foundNotifications, size,
+                        notification -> PageCursor.of(notification.getDateUpdated(), notification.getId())))
+                .build();
     }
 
     @Override
-    public void markAllRead() {
+    @Transactional
+    public int markAllSeen() {
         User authUser = userService.getAuthenticatedUser();
-        notificationRepository.findNotificationsByReceiverAndIsReadIsFalse(authUser)
-                .forEach(notification -> {
-                    if (notification.getReceiver().equals(authUser)) {
-                        notification.setIsSeen(true);
-                        notification.setIsRead(true);
-                        notification.setDateLastModified(new Date());
-                        notificationRepository.save(notification);
-                    }
-                });
+        int markedCount = notificationRepository.markAllSeenByReceiver(authUser, new Date());
+        notificationCountService.adjustUnseenCount(authUser.getId(), -markedCount);
+        return markedCount;
+    }
+
+    @Override
+    @Transactional
+    public int markAllRead() {
+        User authUser = userService.getAuthenticatedUser();
+        int markedCount = notificationRepository.markAllReadByReceiver(authUser, new Date());
+        notificationCountService.resetUnseenCount(authUser.getId());
+        return markedCount;
+    }
+
+    @Override
+    public SseEmitter subscribeForAuthUser() {
+        User authUser = userService.getAuthenticatedUser();
+        return notificationStreamService.subscribe(authUser.getId());
+    }
+
+    @Override
+    public long getUnseenCountForAuthUser() {
+        User authUser = userService.getAuthenticatedUser();
+        return notificationCountService.getUnseenCount(authUser.getId());
     }
 
     @Override
     public void deleteNotification(User receiver, Post owningPost, String type) {
         Notification targetNotification = getNotificationByReceiverAndOwningPostAndType(receiver, owningPost, type);
         notificationRepository.deleteById(targetNotification.getId());
+        if (Boolean.FALSE.equals(targetNotification.getIsSeen())) {
+            notificationCountService.adjustUnseenCount(receiver.getId(), -1);
+        }
     }
 
     @Override
     public void deleteNotificationByOwningPost(Post owningPost) {
+        notificationOutboxService.discardPendingEventsByOwningPost(owningPost);
+        List<Long> unseenReceiverIds = notificationRepository.findUnseenReceiverIdsByOwningPost(owningPost);
         notificationRepository.deleteNotificationByOwningPost(owningPost);
+        notificationCountService.adjustUnseenCounts(unseenReceiverIds, -1);
     }
 
     @Override
     public void deleteNotificationByOwningComment(Comment owningComment) {
+        notificationOutboxService.discardPendingEventsByOwningComment(owningComment);
+        List<Long> unseenReceiverIds = notificationRepository.findUnseenReceiverIdsByOwningComment(owningComment);
         notificationRepository.deleteNotificationByOwningComment(owningComment);
+        notificationCountService.adjustUnseenCounts(unseenReceiverIds, -1);
+    }
+
+    private List<NotificationSummaryResponse> toNotificationSummaries(List<NotificationSummaryProjection> foundNotifications) {
+        return foundNotifications.stream()
+                .map(foundNotification -> {
+                    NotificationSummaryResponse notification = readModelMapper.projectionToNotificationSummary(foundNotification);
+                    counterService.applyPendingCounts(notification.getOwningPost());
+                    if (notification.getOwningComment() != null) {
+                        counterService.applyPendingCounts(notification.getOwningComment());
+                    }
+                    return notification;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Notifications created before actors were tracked only know their sender, who counts as their one actor.
+    private void backfillLegacyActor(Notification notification) {
+        if (notification.getActorCount() == null && notification.getSender() != null) {
+            notificationRepository.insertNotificationActor(notification.getId(), notification.getSender().getId());
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.response.NotificationEventResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NotificationStreamService {
+    SseEmitter subscribe(Long userId);
+    void publish(Long userId, NotificationEventResponse event);
+    void sendHeartbeats();
+    int getSubscriberCount();
+}
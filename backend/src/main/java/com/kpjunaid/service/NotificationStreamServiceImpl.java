@@ -0,0 +1,171 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.response.NotificationEventResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationStreamServiceImpl implements NotificationStreamService {
+    private static final Object HEARTBEAT = new Object();
+
+    private final Environment environment;
+    private final Map<Long, List<Subscriber>> subscribersByUserId = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(
+            AppConstants.NOTIFICATION_STREAM_THREADS, AppConstants.NOTIFICATION_STREAM_THREADS,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(AppConstants.NOTIFICATION_STREAM_DISPATCH_QUEUE_SIZE),
+            new CustomizableThreadFactory("notification-stream-"),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        Long timeout = environment.getProperty("notification.stream.timeout-ms", Long.class);
+        Subscriber subscriber = new Subscriber(userId,
+                new SseEmitter(timeout == null ? AppConstants.NOTIFICATION_STREAM_DEFAULT_TIMEOUT_MS : timeout));
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+        List<Subscriber> evictedSubscribers = new ArrayList<>();
+        subscribersByUserId.compute(userId, (id, userSubscribers) -> {
+            List<Subscriber> updatedSubscribers = userSubscribers == null
+                    ? new CopyOnWriteArrayList<>()
+                    : userSubscribers;
+            updatedSubscribers.add(subscriber);
+            while (updatedSubscribers.size() > AppConstants.NOTIFICATION_STREAM_MAX_PER_USER) {
+                evictedSubscribers.add(updatedSubscribers.remove(0));
+            }
+            return updatedSubscribers;
+        });
+        evictedSubscribers.forEach(evictedSubscriber -> evictedSubscriber.emitter.complete());
+        subscriber.enqueue(HEARTBEAT);
+        return subscriber.emitter;
+    }
+
+    @Override
+    public void publish(Long userId, NotificationEventResponse event) {
+        afterCommit(() -> {
+            List<Subscriber> userSubscribers = subscribersByUserId.get(userId);
+            if (userSubscribers != null) {
+                userSubscribers.forEach(subscriber -> subscriber.enqueue(event));
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        subscribersByUserId.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.enqueue(HEARTBEAT)));
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribersByUserId.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribersByUserId.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribersByUserId.clear();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribersByUserId.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Deque<Object> pendingEvents = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Object event) {
+            synchronized (pendingEvents) {
+                if (event == HEARTBEAT && !pendingEvents.isEmpty()) {
+                    return;
+                }
+                if (pendingEvents.size() >= AppConstants.NOTIFICATION_STREAM_QUEUE_SIZE) {
+                    pendingEvents.pollFirst();
+                }
+                pendingEvents.addLast(event);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object event;
+                while ((event = nextEvent()) != null) {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("notification").data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                synchronized (pendingEvents) {
+                    pendingEvents.clear();
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (hasPendingEvents()) {
+                scheduleDrain();
+            }
+        }
+
+        private Object nextEvent() {
+            synchronized (pendingEvents) {
+                return pendingEvents.pollFirst();
+            }
+        }
+
+        private boolean hasPendingEvents() {
+            synchronized (pendingEvents) {
+                return !pendingEvents.isEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.kpjunaid.service;
+
+import java.util.List;
+
+public interface PostSearchService {
+    List<Long> searchPostIds(String key, Integer page, Integer size);
+    void indexPost(Long postId, String content);
+    void removePost(Long postId);
+    void catchUpIndex();
+    void flushIndex();
+}
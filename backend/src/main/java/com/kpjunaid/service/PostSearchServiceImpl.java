@@ -0,0 +1,517 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.PostContentProjection;
+import com.kpjunaid.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class PostSearchServiceImpl implements PostSearchService {
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final long BUFFER_GENERATION = 0L;
+    private static final int SEGMENT_FORMAT_VERSION = 1;
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".idx";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final PostRepository postRepository;
+    private final Environment environment;
+
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<String, TreeMap<Long, Integer>> bufferPostings = new HashMap<>();
+    private final Set<Long> bufferPostIds = new HashSet<>();
+    private final Set<Long> bufferDeletes = new HashSet<>();
+    private final Map<Long, Long> liveGenerations = new HashMap<>();
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private Set<Long> liveUpdatedPostIds;
+    private long totalDocLength;
+    private long lastGeneration;
+    private long lastFlushTime;
+
+    @Override
+    public List<Long> searchPostIds(String key, Integer page, Integer size) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(key));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        indexLock.readLock().lock();
+        try {
+            int docCount = liveGenerations.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double averageDocLength = Math.max(1.0, (double) totalDocLength / docCount);
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<Long, Integer> termFrequencies = new HashMap<>();
+                for (Segment segment : segments) {
+                    segment.forEachPosting(term, (postId, termFrequency) -> {
+                        if (liveGenerations.getOrDefault(postId, -1L) == segment.generation()) {
+                            termFrequencies.put(postId, termFrequency);
+                        }
+                    });
+                }
+                TreeMap<Long, Integer> bufferedPostings = bufferPostings.get(term);
+                if (bufferedPostings != null) {
+                    termFrequencies.putAll(bufferedPostings);
+                }
+                if (termFrequencies.isEmpty()) {
+                    continue;
+                }
+
+                int docFrequency = termFrequencies.size();
+                double idf = Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+                termFrequencies.forEach((postId, termFrequency) -> {
+                    double lengthNorm = 1 - BM25_B + BM25_B * docLengths.get(postId) / averageDocLength;
+                    double termScore = idf * termFrequency * (BM25_K1 + 1) / (termFrequency + BM25_K1 * lengthNorm);
+                    scores.merge(postId, termScore, Double::sum);
+                });
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                    .skip((long) page * size)
+                    .limit(size)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexPost(Long postId, String content) {
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                markLiveUpdate(postId);
+                putPost(postId, content);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void removePost(Long postId) {
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                markLiveUpdate(postId);
+                deletePost(postId);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @PostConstruct
+    void loadSegments() {
+        Path indexDirectory = getIndexDirectory();
+        if (indexDirectory == null) {
+            return;
+        }
+
+        indexLock.writeLock().lock();
+        try {
+            Files.createDirectories(indexDirectory);
+            List<Path> segmentFiles;
+            try (Stream<Path> files = Files.list(indexDirectory)) {
+                segmentFiles = files.filter(this::isSegmentFile)
+                        .sorted(Comparator.comparingLong(this::generationOf))
+                        .toList();
+            }
+            for (Path segmentFile : segmentFiles) {
+                readSegment(segmentFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpIndex() {
+        indexLock.writeLock().lock();
+        try {
+            liveUpdatedPostIds = new HashSet<>();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+
+        try {
+            Date modifiedSince = lastFlushTime > 0
+                    ? new Date(lastFlushTime - AppConstants.POST_SEARCH_CATCH_UP_MARGIN_MS)
+                    : null;
+            Long lastPostId = 0L;
+            List<PostContentProjection> batch;
+            do {
+                PageRequest batchRequest = PageRequest.of(0, AppConstants.POST_SEARCH_REINDEX_BATCH_SIZE);
+                batch = modifiedSince == null
+                        ? postRepository.findPostContentsAfter(lastPostId, batchRequest)
+                        : postRepository.findPostContentsModifiedSince(modifiedSince, lastPostId, batchRequest);
+                indexLock.writeLock().lock();
+                try {
+                    batch.stream()
+                            .filter(post -> !liveUpdatedPostIds.contains(post.getId()))
+                            .forEach(post -> putPost(post.getId(), post.getContent()));
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    lastPostId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == AppConstants.POST_SEARCH_REINDEX_BATCH_SIZE);
+
+            if (modifiedSince != null) {
+                removeDeletedPosts();
+            }
+        } finally {
+            indexLock.writeLock().lock();
+            try {
+                liveUpdatedPostIds = null;
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${search.post.flush-interval-ms:5000}")
+    public void flushIndex() {
+        indexLock.writeLock().lock();
+        try {
+            if (bufferPostIds.isEmpty() && bufferDeletes.isEmpty()) {
+                return;
+            }
+
+            long generation = lastGeneration + 1;
+            long flushTime = System.currentTimeMillis();
+            Map<Long, Integer> segmentDocs = new TreeMap<>();
+            bufferPostIds.forEach(postId -> segmentDocs.put(postId, docLengths.get(postId)));
+            Segment segment = new Segment(generation, encodePostings(bufferPostings));
+            writeSegment(segment, segmentDocs, bufferDeletes, flushTime);
+
+            segments.add(segment);
+            bufferPostIds.forEach(postId -> liveGenerations.put(postId, generation));
+            bufferPostings.clear();
+            bufferPostIds.clear();
+            bufferDeletes.clear();
+            lastGeneration = generation;
+            lastFlushTime = flushTime;
+
+            if (segments.size() > AppConstants.POST_SEARCH_MAX_SEGMENTS) {
+                mergeSegments();
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void removeDeletedPosts() {
+        List<Long> indexedPostIds;
+        indexLock.readLock().lock();
+        try {
+            indexedPostIds = new ArrayList<>(liveGenerations.keySet());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+
+        for (int from = 0; from < indexedPostIds.size(); from += AppConstants.POST_SEARCH_REINDEX_BATCH_SIZE) {
+            List<Long> batchIds = indexedPostIds.subList(
+                    from, Math.min(from + AppConstants.POST_SEARCH_REINDEX_BATCH_SIZE, indexedPostIds.size()));
+            Set<Long> existingIds = new HashSet<>(postRepository.findExistingIds(batchIds));
+            indexLock.writeLock().lock();
+            try {
+                batchIds.stream()
+                        .filter(postId -> !existingIds.contains(postId) && !liveUpdatedPostIds.contains(postId))
+                        .forEach(this::deletePost);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void markLiveUpdate(Long postId) {
+        if (liveUpdatedPostIds != null) {
+            liveUpdatedPostIds.add(postId);
+        }
+    }
+
+    private void putPost(Long postId, String content) {
+        deletePost(postId);
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        tokenize(content).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        termFrequencies.forEach((term, termFrequency) ->
+                bufferPostings.computeIfAbsent(term, t -> new TreeMap<>()).put(postId, termFrequency));
+
+        int docLength = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        bufferPostIds.add(postId);
+        liveGenerations.put(postId, BUFFER_GENERATION);
+        docLengths.put(postId, docLength);
+        totalDocLength += docLength;
+    }
+
+    private void deletePost(Long postId) {
+        Long generation = forgetPost(postId);
+        if (generation == null) {
+            return;
+        }
+
+        if (generation == BUFFER_GENERATION) {
+            bufferPostIds.remove(postId);
+            Iterator<TreeMap<Long, Integer>> postingsIterator = bufferPostings.values().iterator();
+            while (postingsIterator.hasNext()) {
+                TreeMap<Long, Integer> postings = postingsIterator.next();
+                if (postings.remove(postId) != null && postings.isEmpty()) {
+                    postingsIterator.remove();
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            bufferDeletes.add(postId);
+        }
+    }
+
+    private Long forgetPost(Long postId) {
+        Long generation = liveGenerations.remove(postId);
+        Integer docLength = docLengths.remove(postId);
+        if (docLength != null) {
+            totalDocLength -= docLength;
+        }
+        return generation;
+    }
+
+    private void mergeSegments() {
+        long generation = lastGeneration + 1;
+        Map<String, TreeMap<Long, Integer>> livePostings = new HashMap<>();
+        Map<Long, Integer> mergedDocs = new TreeMap<>();
+        for (Segment segment : segments) {
+            segment.postings().keySet().forEach(term -> segment.forEachPosting(term, (postId, termFrequency) -> {
+                if (liveGenerations.getOrDefault(postId, -1L) == segment.generation()) {
+                    livePostings.computeIfAbsent(term, t -> new TreeMap<>()).put(postId, termFrequency);
+                }
+            }));
+        }
+        liveGenerations.forEach((postId, liveGeneration) -> {
+            if (liveGeneration != BUFFER_GENERATION) {
+                mergedDocs.put(postId, docLengths.get(postId));
+            }
+        });
+
+        Segment mergedSegment = new Segment(generation, encodePostings(livePostings));
+        writeSegment(mergedSegment, mergedDocs, Set.of(), lastFlushTime);
+
+        List<Segment> mergedSegments = new ArrayList<>(segments);
+        segments.clear();
+        segments.add(mergedSegment);
+        mergedDocs.keySet().forEach(postId -> liveGenerations.put(postId, generation));
+        lastGeneration = generation;
+        mergedSegments.forEach(this::deleteSegmentFile);
+    }
+
+    private Map<String, byte[]> encodePostings(Map<String, TreeMap<Long, Integer>> postingsByTerm) {
+        Map<String, byte[]> encodedPostings = new HashMap<>();
+        postingsByTerm.forEach((term, postings) -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long previousPostId = 0;
+            for (Map.Entry<Long, Integer> posting : postings.entrySet()) {
+                writeVarLong(bytes, posting.getKey() - previousPostId);
+                writeVarLong(bytes, posting.getValue());
+                previousPostId = posting.getKey();
+            }
+            encodedPostings.put(term, bytes.toByteArray());
+        });
+        return encodedPostings;
+    }
+
+    private void writeSegment(Segment segment, Map<Long, Integer> docs, Set<Long> deletes, long flushTime) {
+        Path indexDirectory = getIndexDirectory();
+        if (indexDirectory == null) {
+            return;
+        }
+
+        Path segmentFile = indexDirectory.resolve(SEGMENT_FILE_PREFIX + segment.generation() + SEGMENT_FILE_SUFFIX);
+        Path temporaryFile = indexDirectory.resolve(segmentFile.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(SEGMENT_FORMAT_VERSION);
+            output.writeLong(segment.generation());
+            output.writeLong(flushTime);
+            output.writeInt(deletes.size());
+            for (Long postId : deletes) {
+                output.writeLong(postId);
+            }
+            output.writeInt(docs.size());
+            for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                output.writeLong(doc.getKey());
+                output.writeInt(doc.getValue());
+            }
+            output.writeInt(segment.postings().size());
+            for (Map.Entry<String, byte[]> postings : segment.postings().entrySet()) {
+                output.writeUTF(postings.getKey());
+                output.writeInt(postings.getValue().length);
+                output.write(postings.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(temporaryFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readSegment(Path segmentFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(segmentFile)))) {
+            if (input.readInt() != SEGMENT_FORMAT_VERSION) {
+                throw new IOException("Unsupported post index segment: " + segmentFile);
+            }
+            long generation = input.readLong();
+            long flushTime = input.readLong();
+
+            int deleteCount = input.readInt();
+            for (int i = 0; i < deleteCount; i++) {
+                forgetPost(input.readLong());
+            }
+            int docCount = input.readInt();
+            for (int i = 0; i < docCount; i++) {
+                long postId = input.readLong();
+                int docLength = input.readInt();
+                forgetPost(postId);
+                liveGenerations.put(postId, generation);
+                docLengths.put(postId, docLength);
+                totalDocLength += docLength;
+            }
+            int termCount = input.readInt();
+            Map<String, byte[]> postings = new HashMap<>(termCount);
+            for (int i = 0; i < termCount; i++) {
+                String term = input.readUTF();
+                byte[] encodedPostings = new byte[input.readInt()];
+                input.readFully(encodedPostings);
+                postings.put(term, encodedPostings);
+            }
+
+            segments.add(new Segment(generation, postings));
+            lastGeneration = Math.max(lastGeneration, generation);
+            lastFlushTime = Math.max(lastFlushTime, flushTime);
+        }
+    }
+
+    private void deleteSegmentFile(Segment segment) {
+        Path indexDirectory = getIndexDirectory();
+        if (indexDirectory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(
+                    indexDirectory.resolve(SEGMENT_FILE_PREFIX + segment.generation() + SEGMENT_FILE_SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isSegmentFile(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.startsWith(SEGMENT_FILE_PREFIX) && fileName.endsWith(SEGMENT_FILE_SUFFIX);
+    }
+
+    private long generationOf(Path segmentFile) {
+        String fileName = segmentFile.getFileName().toString();
+        return Long.parseLong(fileName.substring(
+                SEGMENT_FILE_PREFIX.length(), fileName.length() - SEGMENT_FILE_SUFFIX.length()));
+    }
+
+    private Path getIndexDirectory() {
+        String indexDirectory = environment.getProperty("search.post.index-dir");
+        return StringUtils.isBlank(indexDirectory) ? null : Paths.get(indexDirectory);
+    }
+
+    private List<String> tokenize(String text) {
+        if (StringUtils.isBlank(text)) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(StringUtils::isNotEmpty)
+                .toList();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream bytes, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        bytes.write((int) value);
+    }
+
+    private interface PostingConsumer {
+        void accept(long postId, int termFrequency);
+    }
+
+    private record Segment(long generation, Map<String, byte[]> postings) {
+        void forEachPosting(String term, PostingConsumer consumer) {
+            byte[] encodedPostings = postings.get(term);
+            if (encodedPostings == null) {
+                return;
+            }
+            int position = 0;
+            long postId = 0;
+            while (position < encodedPostings.length) {
+                long delta = 0;
+                int shift = 0;
+                byte next;
+                do {
+                    next = encodedPostings[position++];
+                    delta |= (long) (next & 0x7F) << shift;
+                    shift += 7;
+                } while ((next & 0x80) != 0);
+
+                long termFrequency = 0;
+                shift = 0;
+                do {
+                    next = encodedPostings[position++];
+                    termFrequency |= (long) (next & 0x7F) << shift;
+                    shift += 7;
+                } while ((next & 0x80) != 0);
+
+                postId += delta;
+                consumer.accept(postId, (int) termFrequency);
+            }
+        }
+    }
+}
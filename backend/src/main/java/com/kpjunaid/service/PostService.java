@@ -5,6 +5,7 @@ import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.dto.TagDto;
 import com.kpjunaid.entity.Tag;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.response.PostResponse;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,6 +18,10 @@ public interface PostService {
     List<PostResponse> getTimelinePostsPaginate(Integer page, Integer size);
     List<PostResponse> getPostSharesPaginate(Post sharedPost, Integer page, Integer size);
     List<PostResponse> getPostByTagPaginate(Tag tag, Integer page, Integer size);
+    List<PostResponse> getPostSearchResult(String key, Integer page, Integer size);
+    CursorPageResponse<PostResponse> getPostsByUserByCursor(User author, String cursor, Integer size);
+    CursorPageResponse<PostResponse> getTimelinePostsByCursor(String cursor, Integer size);
+    CursorPageResponse<PostResponse> getPostByTagByCursor(Tag tag, String cursor, Integer size);
     Post createNewPost(String content, MultipartFile postPhoto, List<TagDto> postTags);
     Post updatePost(Long postId, String content, MultipartFile postPhoto, List<TagDto> postTags);
     void deletePost(Long postId);
@@ -1,14 +1,23 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.exception.*;
 import com.kpjunaid.dto.TagDto;
 import com.kpjunaid.entity.Tag;
+import com.kpjunaid.entity.TimelineEntry;
+import com.kpjunaid.enumeration.CounterType;
 import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.projection.PostSummaryProjection;
+import com.kpjunaid.projection.PostTagProjection;
 import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.response.PostResponse;
+import com.kpjunaid.response.PostSummaryResponse;
+import com.kpjunaid.response.TagSummaryResponse;
 import com.kpjunaid.util.FileNamingUtil;
 import com.kpjunaid.util.FileUploadUtil;
 import lombok.RequiredArgsConstructor;
@@ -22,19 +31,33 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class PostServiceImpl implements PostService {
+    private static final Sort NEWEST_POSTS_SORT = Sort.by(Sort.Direction.DESC, "dateCreated", "id");
+
     private final PostRepository postRepository;
     private final UserService userService;
     private final CommentService commentService;
     private final TagService tagService;
+    private final TrendingTagService trendingTagService;
     private final NotificationService notificationService;
+    private final TimelineService timelineService;
+    private final LikeService likeService;
+    private final CounterService counterService;
+    private final PostSearchService postSearchService;
+    private final ReadModelMapper readModelMapper;
     private final Environment environment;
     private final FileNamingUtil fileNamingUtil;
     private final FileUploadUtil fileUploadUtil;
@@ -46,48 +69,75 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public PostResponse getPostResponseById(Long postId) {
-        User authUser = userService.getAuthenticatedUser();
         Post foundPost = getPostById(postId);
-        return PostResponse.builder()
-                .post(foundPost)
-                .likedByAuthUser(foundPost.getLikeList().contains(authUser))
-                .build();
+        return postsToPostResponses(List.of(foundPost)).get(0);
     }
 
     @Override
     public List<PostResponse> getTimelinePostsPaginate(Integer page, Integer size) {
         User authUser = userService.getAuthenticatedUser();
-        List<User> followingList = authUser.getFollowingUsers();
-        followingList.add(authUser);
-        List<Long> followingListIds = followingList.stream().map(User::getId).toList();
-        return postRepository.findPostsByAuthorIdIn(
-                followingListIds,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated")))
-                .stream().map(this::postToPostResponse).collect(Collectors.toList());
+        List<Long> postIds = timelineService.getTimelinePostIdsPaginate(authUser.getId(), page, size);
+        return summariesToPostResponses(findPostSummariesInOrder(postIds));
     }
 
     @Override
     public List<PostResponse> getPostSharesPaginate(Post sharedPost, Integer page, Integer size) {
-        return postRepository.findPostsBySharedPost(
+        return postsToPostResponses(postRepository.findPostsBySharedPost(
                 sharedPost,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated")))
-                .stream().map(this::postToPostResponse).collect(Collectors.toList());
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated"))));
     }
 
     @Override
     public List<PostResponse> getPostByTagPaginate(Tag tag, Integer page, Integer size) {
-        return postRepository.findPostsByPostTags(
+        return postsToPostResponses(postRepository.findPostsByPostTags(
                 tag,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated")))
-                .stream().map(this::postToPostResponse).collect(Collectors.toList());
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated"))));
+    }
+
+    @Override
+    public List<PostResponse> getPostSearchResult(String key, Integer page, Integer size) {
+        List<Long> postIds = postSearchService.searchPostIds(key, page, size);
+        return summariesToPostResponses(findPostSummariesInOrder(postIds));
     }
 
     @Override
     public List<PostResponse> getPostsByUserPaginate(User author, Integer page, Integer size) {
-        return postRepository.findPostsByAuthor(
-                author,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateCreated")))
-                .stream().map(this::postToPostResponse).collect(Collectors.toList());
+        return summariesToPostResponses(toPostSummaries(
+                postRepository.findPostSummariesByAuthorId(author.getId(), PageRequest.of(page, size))));
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getTimelinePostsByCursor(String cursor, Integer size) {
+        User authUser = userService.getAuthenticatedUser();
+        List<TimelineEntry> timelineEntries = timelineService.getTimelineEntriesByCursor(
+                authUser.getId(), PageCursor.decode(cursor), size);
+        List<PostSummaryResponse> timelinePosts = findPostSummariesInOrder(
+                timelineEntries.stream().map(TimelineEntry::getPostId).toList());
+        return CursorPageResponse.<PostResponse>builder()
+                .content(summariesToPostResponses(timelinePosts))
+                .nextCursor(PageCursor.nextCursor(timelineEntries, size,
+                        entry -> PageCursor.of(entry.getDateCreated(), entry.getPostId())))
+                .build();
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getPostsByUserByCursor(User author, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<PostSummaryProjection> foundPosts = pageCursor == null
+                ? postRepository.findPostSummariesByAuthorId(author.getId(), PageRequest.of(0, size))
+                : postRepository.findPostSummariesByAuthorIdBefore(
+                        author.getId(), pageCursor.getDate(), pageCursor.getId(), PageRequest.of(0, size));
+        return summariesToCursorPage(toPostSummaries(foundPosts), size);
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getPostByTagByCursor(Tag tag, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<Post> foundPosts = pageCursor == null
+                ? postRepository.findPostsByPostTags(tag, PageRequest.of(0, size, NEWEST_POSTS_SORT))
+                : postRepository.findPostsByPostTagsBefore(
+                        tag, pageCursor.getDate(), pageCursor.getId(), PageRequest.of(0, size));
+        return postsToCursorPage(foundPosts, size);
     }
 
     @Override
@@ -100,6 +150,7 @@ public class PostServiceImpl implements PostService {
         newPost.setShareCount(0);
         newPost.setCommentCount(0);
         newPost.setIsTypeShare(false);
+        newPost.setIsFannedOut(timelineService.shouldFanOut(authUser.getId()));
         newPost.setSharedPost(null);
         newPost.setDateCreated(new Date());
         newPost.setDateLastModified(new Date());
@@ -118,21 +169,16 @@ public class PostServiceImpl implements PostService {
         }
 
         if (postTags != null && postTags.size() > 0) {
-            postTags.forEach(tagDto -> {
-                Tag tagToAdd = null;
-                try {
-                    Tag existingTag = tagService.getTagByName(tagDto.getTagName());
-                    if (existingTag != null) {
-                        tagToAdd = tagService.increaseTagUseCounter(tagDto.getTagName());
-                    }
-                } catch (TagNotFoundException e) {
-                    tagToAdd = tagService.createNewTag(tagDto.getTagName());
-                }
-                newPost.getPostTags().add(tagToAdd);
-            });
+            List<Tag> tagsToAdd = new ArrayList<>(tagService.resolveTags(
+                    postTags.stream().map(TagDto::getTagName).toList()).values());
+            newPost.getPostTags().addAll(tagsToAdd);
+            tagService.adjustTagUseCounters(tagsToAdd, 1);
         }
 
-        return postRepository.save(newPost);
+        Post savedPost = postRepository.save(newPost);
+        savedPost.getPostTags().forEach(tag -> trendingTagService.recordTagUse(tag.getId()));
+        timelineService.fanOutPost(savedPost);
+        return savedPost;
     }
 
     @Override
@@ -160,31 +206,35 @@ public class PostServiceImpl implements PostService {
             }
         }
 
+        List<Tag> addedTags = new ArrayList<>();
+        List<Tag> removedTags = new ArrayList<>();
         if (postTags != null && postTags.size() > 0) {
+            Map<String, Tag> resolvedTags = tagService.resolveTags(
+                    postTags.stream().map(TagDto::getTagName).toList());
             postTags.forEach(tagDto -> {
-                Boolean isNewTag = false;
-                Tag targetTag;
-                try {
-                    targetTag = tagService.getTagByName(tagDto.getTagName());
-                } catch (TagNotFoundException e) {
-                    targetTag = tagService.createNewTag(tagDto.getTagName());
-                    isNewTag = true;
+                Tag targetTag = resolvedTags.get(tagDto.getTagName());
+                if (targetTag == null) {
+                    return;
                 }
 
                 if (tagDto.getAction().equalsIgnoreCase("remove")) {
-                    targetPost.getPostTags().remove(targetTag);
-                    tagService.decreaseTagUseCounter(tagDto.getTagName());
-                } else if (tagDto.getAction().equalsIgnoreCase("add")) {
-                    targetPost.getPostTags().add(targetTag);
-                    if (!isNewTag) {
-                        tagService.increaseTagUseCounter(tagDto.getTagName());
+                    if (targetPost.getPostTags().remove(targetTag)) {
+                        removedTags.add(targetTag);
                     }
+                } else if (tagDto.getAction().equalsIgnoreCase("add")
+                        && !targetPost.getPostTags().contains(targetTag)) {
+                    targetPost.getPostTags().add(targetTag);
+                    addedTags.add(targetTag);
                 }
             });
+            tagService.adjustTagUseCounters(addedTags, 1);
+            tagService.adjustTagUseCounters(removedTags, -1);
         }
 
         targetPost.setDateLastModified(new Date());
-        return postRepository.save(targetPost);
+        Post updatedPost = postRepository.save(targetPost);
+        addedTags.forEach(tag -> trendingTagService.recordTagUse(tag.getId()));
+        return updatedPost;
     }
 
     @Override
@@ -192,13 +242,14 @@ public class PostServiceImpl implements PostService {
         User authUser = userService.getAuthenticatedUser();
         Post targetPost = getPostById(postId);
 
-        if (targetPost.getAuthor().equals(authUser)) {
+        if (targetPost.getAuthor().getId().equals(authUser.getId())) {
             targetPost.getShareList().forEach(sharingPost -> {
                 sharingPost.setSharedPost(null);
                 postRepository.save(sharingPost);
             });
 
             notificationService.deleteNotificationByOwningPost(targetPost);
+            timelineService.removePost(postId);
 
             postRepository.deleteById(postId);
 
@@ -219,7 +270,7 @@ public class PostServiceImpl implements PostService {
         User authUser = userService.getAuthenticatedUser();
         Post targetPost = getPostById(postId);
 
-        if (targetPost.getAuthor().equals(authUser)) {
+        if (targetPost.getAuthor().getId().equals(authUser.getId())) {
             if (targetPost.getPostPhoto() != null) {
                 String uploadDir = environment.getProperty("upload.post.images");
                 String photoName = getPhotoNameFromPhotoUrl(targetPost.getPostPhoto());
@@ -239,12 +290,8 @@ public class PostServiceImpl implements PostService {
     public void likePost(Long postId) {
         User authUser = userService.getAuthenticatedUser();
         Post targetPost = getPostById(postId);
-        if (!targetPost.getLikeList().contains(authUser)) {
-            targetPost.setLikeCount(targetPost.getLikeCount() + 1);
-            targetPost.getLikeList().add(authUser);
-            postRepository.save(targetPost);
-
-            if (!targetPost.getAuthor().equals(authUser)) {
+        if (likeService.addPostLike(targetPost.getId(), authUser.getId())) {
+            if (!targetPost.getAuthor().getId().equals(authUser.getId())) {
                 notificationService.sendNotification(
                         targetPost.getAuthor(),
                         authUser,
@@ -262,12 +309,8 @@ public class PostServiceImpl implements PostService {
     public void unlikePost(Long postId) {
         User authUser = userService.getAuthenticatedUser();
         Post targetPost = getPostById(postId);
-        if (targetPost.getLikeList().contains(authUser)) {
-            targetPost.setLikeCount(targetPost.getLikeCount()-1);
-            targetPost.getLikeList().remove(authUser);
-            postRepository.save(targetPost);
-
-            if (!targetPost.getAuthor().equals(authUser)) {
+        if (likeService.removePostLike(targetPost.getId(), authUser.getId())) {
+            if (!targetPost.getAuthor().getId().equals(authUser.getId())) {
                 notificationService.removeNotification(
                         targetPost.getAuthor(),
                         targetPost,
@@ -286,10 +329,9 @@ public class PostServiceImpl implements PostService {
         User authUser = userService.getAuthenticatedUser();
         Post targetPost = getPostById(postId);
         Comment savedComment = commentService.createNewComment(content, targetPost);
-        targetPost.setCommentCount(targetPost.getCommentCount()+1);
-        postRepository.save(targetPost);
+        counterService.increment(CounterType.POST_COMMENT, targetPost.getId(), 1);
 
-        if (!targetPost.getAuthor().equals(authUser)) {
+        if (!targetPost.getAuthor().getId().equals(authUser.getId())) {
             notificationService.sendNotification(
                     targetPost.getAuthor(),
                     authUser,
@@ -313,7 +355,7 @@ public class PostServiceImpl implements PostService {
     public void deletePostComment(Long commentId, Long postId) {
         Post targetPost = getPostById(postId);
         commentService.deleteComment(commentId);
-        targetPost.setCommentCount(targetPost.getCommentCount()-1);
+        counterService.increment(CounterType.POST_COMMENT, targetPost.getId(), -1);
         targetPost.setDateLastModified(new Date());
         postRepository.save(targetPost);
     }
@@ -331,15 +373,16 @@ public class PostServiceImpl implements PostService {
             newPostShare.setCommentCount(0);
             newPostShare.setPostPhoto(null);
             newPostShare.setIsTypeShare(true);
+            newPostShare.setIsFannedOut(timelineService.shouldFanOut(authUser.getId()));
             newPostShare.setSharedPost(targetPost);
             newPostShare.setDateCreated(new Date());
             newPostShare.setDateLastModified(new Date());
             Post savedPostShare = postRepository.save(newPostShare);
+            timelineService.fanOutPost(savedPostShare);
             targetPost.getShareList().add(savedPostShare);
-            targetPost.setShareCount(targetPost.getShareCount()+1);
-            postRepository.save(targetPost);
+            counterService.increment(CounterType.POST_SHARE, targetPost.getId(), 1);
 
-            if (!targetPost.getAuthor().equals(authUser)) {
+            if (!targetPost.getAuthor().getId().equals(authUser.getId())) {
                 notificationService.sendNotification(
                         targetPost.getAuthor(),
                         authUser,
@@ -359,7 +402,7 @@ public class PostServiceImpl implements PostService {
     public Post updatePostShare(String content, Long postShareId) {
         User authUser = userService.getAuthenticatedUser();
         Post targetPostShare = getPostById(postShareId);
-        if (targetPostShare.getAuthor().equals(authUser)) {
+        if (targetPostShare.getAuthor().getId().equals(authUser.getId())) {
             targetPostShare.setContent(content);
             targetPostShare.setDateLastModified(new Date());
             return postRepository.save(targetPostShare);
@@ -372,11 +415,11 @@ public class PostServiceImpl implements PostService {
     public void deletePostShare(Long postShareId) {
         User authUser = userService.getAuthenticatedUser();
         Post targetPostShare = getPostById(postShareId);
-        if (targetPostShare.getAuthor().equals(authUser)) {
+        if (targetPostShare.getAuthor().getId().equals(authUser.getId())) {
             Post sharedPost = targetPostShare.getSharedPost();
             sharedPost.getShareList().remove(targetPostShare);
-            sharedPost.setShareCount(sharedPost.getShareCount()-1);
-            postRepository.save(sharedPost);
+            counterService.increment(CounterType.POST_SHARE, sharedPost.getId(), -1);
+            timelineService.removePost(postShareId);
             postRepository.deleteById(postShareId);
 
             notificationService.deleteNotificationByOwningPost(targetPostShare);
@@ -395,11 +438,86 @@ public class PostServiceImpl implements PostService {
         }
     }
 
-    private PostResponse postToPostResponse(Post post) {
+    private List<PostSummaryResponse> findPostSummariesInOrder(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, PostSummaryResponse> postsById = toPostSummaries(postRepository.findPostSummariesByIdIn(postIds))
+                .stream()
+                .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+        return postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<PostSummaryResponse> toPostSummaries(List<PostSummaryProjection> foundPosts) {
+        if (foundPosts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> sharedPostIds = foundPosts.stream()
+                .map(PostSummaryProjection::getSharedPostId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, PostSummaryResponse> sharedPostsById = sharedPostIds.isEmpty()
+                ? new HashMap<>()
+                : postRepository.findPostSummariesByIdIn(sharedPostIds).stream()
+                        .map(this::toPostSummary)
+                        .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+        Map<Long, List<TagSummaryResponse>> tagsByPostId = postRepository.findPostTagsByPostIdIn(
+                foundPosts.stream().map(PostSummaryProjection::getId).toList()).stream()
+                .collect(Collectors.groupingBy(
+                        PostTagProjection::getPostId,
+                        Collectors.mapping(readModelMapper::projectionToTagSummary, Collectors.toList())));
+
+        return foundPosts.stream()
+                .map(foundPost -> {
+                    PostSummaryResponse postSummary = toPostSummary(foundPost);
+                    postSummary.setSharedPost(foundPost.getSharedPostId() == null
+                            ? null
+                            : sharedPostsById.get(foundPost.getSharedPostId()));
+                    postSummary.setPostTags(tagsByPostId.getOrDefault(foundPost.getId(), new ArrayList<>()));
+                    return postSummary;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private PostSummaryResponse toPostSummary(PostSummaryProjection foundPost) {
+        PostSummaryResponse postSummary = readModelMapper.projectionToPostSummary(foundPost);
+        counterService.applyPendingCounts(postSummary);
+        return postSummary;
+    }
+
+    private List<PostResponse> postsToPostResponses(List<Post> posts) {
+        return summariesToPostResponses(posts.stream().map(readModelMapper::postToPostSummary).toList());
+    }
+
+    private List<PostResponse> summariesToPostResponses(List<PostSummaryResponse> posts) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
         User authUser = userService.getAuthenticatedUser();
-        return PostResponse.builder()
-                .post(post)
-                .likedByAuthUser(post.getLikeList().contains(authUser))
+        List<Long> postIds = posts.stream().map(PostSummaryResponse::getId).collect(Collectors.toList());
+        Set<Long> likedPostIds = likeService.getPostIdsLikedByUser(postIds, authUser.getId());
+        return posts.stream()
+                .map(post -> PostResponse.builder()
+                        .post(post)
+                        .likedByAuthUser(likedPostIds.contains(post.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private CursorPageResponse<PostResponse> postsToCursorPage(List<Post> posts, Integer size) {
+        return summariesToCursorPage(posts.stream().map(readModelMapper::postToPostSummary).toList(), size);
+    }
+
+    private CursorPageResponse<PostResponse> summariesToCursorPage(List<PostSummaryResponse> posts, Integer size) {
+        return CursorPageResponse.<PostResponse>builder()
+                .content(summariesToPostResponses(posts))
+                .nextCursor(PageCursor.nextCursor(posts, size, post -> PageCursor.of(post.getDateCreated(), post.getId())))
                 .build();
     }
 }
@@ -2,13 +2,16 @@ package com.kpjunaid.service;
 
 import com.kpjunaid.entity.Tag;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface TagService {
     Tag getTagById(Long id);
     Tag getTagByName(String name);
     Tag createNewTag(String name);
-    Tag increaseTagUseCounter(String name);
-    Tag decreaseTagUseCounter(String name);
+    Map<String, Tag> resolveTags(Collection<String> names);
+    void adjustTagUseCounters(Collection<Tag> tags, int delta);
     List<Tag> getTimelineTags();
+    List<String> getTagSuggestions(String prefix);
 }
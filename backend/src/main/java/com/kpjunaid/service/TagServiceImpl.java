@@ -2,20 +2,29 @@ package com.kpjunaid.service;
 
 import com.kpjunaid.exception.TagExistsException;
 import com.kpjunaid.entity.Tag;
+import com.kpjunaid.enumeration.CounterType;
 import com.kpjunaid.exception.TagNotFoundException;
 import com.kpjunaid.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Date;
-import java.util.List;
+import java.sql.Timestamp;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class TagServiceImpl implements TagService {
+    private static final String INSERT_TAG_IF_ABSENT_SQL =
+            "insert into tags (name, tag_use_counter, date_created, date_last_modified) " +
+            "select ?, 0, ?, ? from dual where not exists (select 1 from tags where name = ?)";
+
     private final TagRepository tagRepository;
+    private final CounterService counterService;
+    private final TrendingTagService trendingTagService;
+    private final TagSuggestService tagSuggestService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Tag getTagById(Long id) {
@@ -29,42 +38,89 @@ public class TagServiceImpl implements TagService {
 
     @Override
     public Tag createNewTag(String name) {
-        try {
-            Tag tag = getTagByName(name);
-            if (tag != null) {
-                throw new TagExistsException();
-            }
-        } catch (TagNotFoundException e) {
-            Tag newTag = new Tag();
-            newTag.setName(name);
-            newTag.setTagUseCounter(1);
-            newTag.setDateCreated(new Date());
-            newTag.setDateLastModified(new Date());
-            return tagRepository.save(newTag);
+        if (tagRepository.existsByName(name)) {
+            throw new TagExistsException();
         }
-        return null;
+        Tag newTag = new Tag();
+        newTag.setName(name);
+        newTag.setTagUseCounter(1);
+        newTag.setDateCreated(new Date());
+        newTag.setDateLastModified(new Date());
+        Tag savedTag = tagRepository.save(newTag);
+        tagSuggestService.indexTag(savedTag.getName(), savedTag.getTagUseCounter());
+        return savedTag;
     }
 
     @Override
-    public Tag increaseTagUseCounter(String name) {
-        Tag targetTag = getTagByName(name);
-        targetTag.setTagUseCounter(targetTag.getTagUseCounter()+1);
-        targetTag.setDateLastModified(new Date());
-        return tagRepository.save(targetTag);
+    public Map<String, Tag> resolveTags(Collection<String> names) {
+        Set<String> uniqueNames = new LinkedHashSet<>(names);
+        if (uniqueNames.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Tag> tagsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        tagRepository.findTagsByNameIn(uniqueNames).forEach(tag -> tagsByName.put(tag.getName(), tag));
+        List<String> missingNames = uniqueNames.stream()
+                .filter(name -> !tagsByName.containsKey(name))
+                .toList();
+        if (!missingNames.isEmpty()) {
+            insertTagsIfAbsent(missingNames);
+            tagRepository.lockTagsByNameIn(missingNames).forEach(tag -> {
+                tagsByName.put(tag.getName(), tag);
+                tagSuggestService.indexTag(tag.getName(), tag.getTagUseCounter());
+            });
+        }
+
+        Map<String, Tag> resolvedTags = new LinkedHashMap<>();
+        uniqueNames.forEach(name -> {
+            Tag tag = tagsByName.get(name);
+            if (tag != null) {
+                resolvedTags.put(name, tag);
+            }
+        });
+        return resolvedTags;
     }
 
     @Override
-    public Tag decreaseTagUseCounter(String name) {
-        Tag targetTag = getTagByName(name);
-        targetTag.setTagUseCounter(targetTag.getTagUseCounter()-1);
-        targetTag.setDateLastModified(new Date());
-        return tagRepository.save(targetTag);
+    public void adjustTagUseCounters(Collection<Tag> tags, int delta) {
+        if (tags.isEmpty() || delta == 0) {
+            return;
+        }
+
+        Set<Long> tagIds = new LinkedHashSet<>();
+        tags.forEach(tag -> {
+            counterService.increment(CounterType.TAG_USE, tag.getId(), delta);
+            tagSuggestService.adjustTagUseCounter(tag.getName(), delta);
+            tagIds.add(tag.getId());
+        });
+        tagRepository.updateDateLastModified(tagIds, new Date());
     }
 
     @Override
     public List<Tag> getTimelineTags() {
-        return tagRepository.findAll(
-                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "tagUseCounter"))
-        ).getContent();
+        return trendingTagService.getTrendingTags();
+    }
+
+    @Override
+    public List<String> getTagSuggestions(String prefix) {
+        return tagSuggestService.suggestTagNames(prefix);
+    }
+
+    private void insertTagsIfAbsent(List<String> names) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> insertArgs = names.stream()
+                .map(name -> new Object[] { name, now, now, name })
+                .toList();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_TAG_IF_ABSENT_SQL, insertArgs);
+        } catch (DataIntegrityViolationException e) {
+            insertArgs.forEach(args -> {
+                try {
+                    jdbcTemplate.update(INSERT_TAG_IF_ABSENT_SQL, args);
+                } catch (DataIntegrityViolationException concurrentInsert) {
+                    // another request created the same tag first; it is read back below
+                }
+            });
+        }
     }
 }
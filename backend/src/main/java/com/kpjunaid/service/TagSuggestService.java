@@ -0,0 +1,10 @@
+package com.kpjunaid.service;
+
+import java.util.List;
+
+public interface TagSuggestService {
+    List<String> suggestTagNames(String prefix);
+    void indexTag(String name, long tagUseCounter);
+    void adjustTagUseCounter(String name, long delta);
+    void rebuildIndex();
+}
@@ -0,0 +1,255 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.TagNameProjection;
+import com.kpjunaid.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class TagSuggestServiceImpl implements TagSuggestService {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final TagEntry[] NO_ENTRIES = new TagEntry[0];
+    private static final Comparator<TagEntry> MOST_USED_FIRST = Comparator
+            .comparingLong((TagEntry entry) -> entry.tagUseCounter).reversed()
+            .thenComparing(entry -> entry.name);
+
+    private final TagRepository tagRepository;
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Map<String, TagEntry> entriesByKey = new HashMap<>();
+    private final Node root = new Node(new char[0]);
+
+    @Override
+    public List<String> suggestTagNames(String prefix) {
+        if (StringUtils.isBlank(prefix)) {
+            return List.of();
+        }
+
+        String key = normalize(prefix);
+        indexLock.readLock().lock();
+        try {
+            Node node = findNode(key);
+            if (node == null) {
+                return List.of();
+            }
+            List<String> suggestions = new ArrayList<>(node.top.length);
+            for (TagEntry entry : node.top) {
+                suggestions.add(entry.name);
+            }
+            return suggestions;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexTag(String name, long tagUseCounter) {
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                refreshTops(putEntry(name, tagUseCounter));
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void adjustTagUseCounter(String name, long delta) {
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                TagEntry entry = entriesByKey.get(normalize(name));
+                long tagUseCounter = entry == null ? delta : entry.tagUseCounter + delta;
+                refreshTops(putEntry(name, tagUseCounter));
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        Long lastTagId = 0L;
+        List<TagNameProjection> batch;
+        do {
+            batch = tagRepository.findTagNamesAfter(
+                    lastTagId, PageRequest.of(0, AppConstants.TAG_SUGGEST_REBUILD_BATCH_SIZE));
+            indexLock.writeLock().lock();
+            try {
+                batch.forEach(tag -> putEntry(tag.getName(),
+                        tag.getTagUseCounter() == null ? 0 : tag.getTagUseCounter()));
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                lastTagId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == AppConstants.TAG_SUGGEST_REBUILD_BATCH_SIZE);
+
+        indexLock.writeLock().lock();
+        try {
+            refreshSubtree(root);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private List<Node> putEntry(String name, long tagUseCounter) {
+        String key = normalize(name);
+        List<Node> path = findOrCreatePath(key);
+        TagEntry entry = entriesByKey.computeIfAbsent(key, k -> new TagEntry(name));
+        entry.tagUseCounter = tagUseCounter;
+        path.get(path.size() - 1).entry = entry;
+        return path;
+    }
+
+    private Node findNode(String key) {
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int childIndex = findChild(node, key.charAt(offset));
+            if (childIndex < 0) {
+                return null;
+            }
+            Node child = node.children[childIndex];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (offset + common == key.length()) {
+                return child;
+            }
+            if (common < child.label.length) {
+                return null;
+            }
+            node = child;
+            offset += common;
+        }
+        return node;
+    }
+
+    private List<Node> findOrCreatePath(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int childIndex = findChild(node, key.charAt(offset));
+            if (childIndex < 0) {
+                Node leaf = new Node(key.substring(offset).toCharArray());
+                node.children = insertChild(node.children, -(childIndex + 1), leaf);
+                path.add(leaf);
+                return path;
+            }
+
+            Node child = node.children[childIndex];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length) {
+                Node split = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                split.children = new Node[] { child };
+                split.top = child.top;
+                node.children[childIndex] = split;
+                child = split;
+            }
+            path.add(child);
+            node = child;
+            offset += common;
+        }
+        return path;
+    }
+
+    private void refreshTops(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            refreshTop(path.get(i));
+        }
+    }
+
+    private void refreshSubtree(Node node) {
+        for (Node child : node.children) {
+            refreshSubtree(child);
+        }
+        refreshTop(node);
+    }
+
+    private void refreshTop(Node node) {
+        List<TagEntry> candidates = new ArrayList<>();
+        if (node.entry != null) {
+            candidates.add(node.entry);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(MOST_USED_FIRST);
+        int topSize = Math.min(candidates.size(), AppConstants.TAG_SUGGESTION_COUNT);
+        node.top = topSize == 0 ? NO_ENTRIES : candidates.subList(0, topSize).toArray(NO_ENTRIES);
+    }
+
+    private static int findChild(Node node, char firstChar) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleChar = node.children[middle].label[0];
+            if (middleChar < firstChar) {
+                low = middle + 1;
+            } else if (middleChar > firstChar) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] newChildren = new Node[children.length + 1];
+        System.arraycopy(children, 0, newChildren, 0, index);
+        newChildren[index] = child;
+        System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+        return newChildren;
+    }
+
+    private static int commonPrefixLength(char[] label, String key, int offset) {
+        int length = 0;
+        while (length < label.length && offset + length < key.length()
+                && label[length] == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private TagEntry entry;
+        private TagEntry[] top = NO_ENTRIES;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+    }
+
+    private static class TagEntry {
+        private final String name;
+        private long tagUseCounter;
+
+        private TagEntry(String name) {
+            this.name = name;
+        }
+    }
+}
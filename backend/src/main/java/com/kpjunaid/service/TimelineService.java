@@ -0,0 +1,18 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.PageCursor;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.TimelineEntry;
+
+import java.util.List;
+
+public interface TimelineService {
+    List<Long> getTimelinePostIdsPaginate(Long ownerId, Integer page, Integer size);
+    List<TimelineEntry> getTimelineEntriesByCursor(Long ownerId, PageCursor cursor, Integer size);
+    boolean shouldFanOut(Long authorId);
+    void fanOutPost(Post post);
+    void removePost(Long postId);
+    void addAuthorToTimeline(Long ownerId, Long authorId);
+    void removeAuthorFromTimeline(Long ownerId, Long authorId);
+    void deleteTimeline(Long ownerId);
+}
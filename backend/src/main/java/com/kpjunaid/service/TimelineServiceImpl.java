@@ -0,0 +1,278 @@
+package com.kpjunaid.service;
+
+import com.google.common.collect.Lists;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.PageCursor;
+import com.kpjunaid.entity.MaterializedTimeline;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.TimelineEntry;
+import com.kpjunaid.repository.MaterializedTimelineRepository;
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.repository.TimelineEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class TimelineServiceImpl implements TimelineService {
+    private static final String INSERT_TIMELINE_ENTRY_SQL =
+            "insert ignore into timeline_entries (owner_id, post_id, author_id, date_created) values (?, ?, ?, ?)";
+    private static final String INSERT_MATERIALIZED_TIMELINE_SQL =
+            "insert ignore into materialized_timelines (owner_id, horizon_date, horizon_post_id, date_materialized) " +
+            "values (?, ?, ?, ?)";
+    private static final Comparator<Date> DATE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Sort NEWEST_ENTRIES_SORT = Sort.by(Sort.Direction.DESC, "dateCreated", "postId");
+    private static final Sort NEWEST_POSTS_SORT = Sort.by(Sort.Direction.DESC, "dateCreated", "id");
+    private static final RowMapper<TimelineEntry> MERGED_ENTRY_MAPPER = (resultSet, rowNum) -> TimelineEntry.builder()
+            .postId(resultSet.getLong("post_id"))
+            .dateCreated(resultSet.getTimestamp("date_created"))
+            .build();
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final MaterializedTimelineRepository materializedTimelineRepository;
+    private final PostRepository postRepository;
+    private final FollowGraphService followGraphService;
+    private final Environment environment;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Set<Long> pulledAuthorIds = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPulledAuthorIds() {
+        pulledAuthorIds.addAll(postRepository.findPulledAuthorIds());
+    }
+
+    @Override
+    public List<Long> getTimelinePostIdsPaginate(Long ownerId, Integer page, Integer size) {
+        MaterializedTimeline timeline = getMaterializedTimeline(ownerId);
+        List<Long> followedPulledAuthorIds = findPulledAuthorIds(ownerId);
+
+        List<TimelineEntry> pushedEntries = timelineEntryRepository.findTimelineEntriesByOwnerId(
+                ownerId,
+                PageRequest.of(page, size, NEWEST_ENTRIES_SORT));
+        if (followedPulledAuthorIds.isEmpty() && !reachesHorizon(timeline, pushedEntries, size)) {
+            return toPostIds(pushedEntries);
+        }
+        return toPostIds(findMergedEntries(timeline, followedPulledAuthorIds, null, page * size, size));
+    }
+
+    @Override
+    public List<TimelineEntry> getTimelineEntriesByCursor(Long ownerId, PageCursor cursor, Integer size) {
+        MaterializedTimeline timeline = getMaterializedTimeline(ownerId);
+        List<Long> followedPulledAuthorIds = findPulledAuthorIds(ownerId);
+
+        List<TimelineEntry> pushedEntries = cursor == null
+                ? timelineEntryRepository.findTimelineEntriesByOwnerId(
+                        ownerId, PageRequest.of(0, size, NEWEST_ENTRIES_SORT))
+                : timelineEntryRepository.findTimelineEntriesByOwnerIdBefore(
+                        ownerId, cursor.getDate(), cursor.getId(), PageRequest.of(0, size));
+        if (followedPulledAuthorIds.isEmpty() && !reachesHorizon(timeline, pushedEntries, size)) {
+            return pushedEntries;
+        }
+        return findMergedEntries(timeline, followedPulledAuthorIds, cursor, 0, size);
+    }
+
+    @Override
+    public boolean shouldFanOut(Long authorId) {
+        return !isHybridMode() || followGraphService.getFollowerCount(authorId) <= getFanOutThreshold();
+    }
+
+    @Override
+    public void fanOutPost(Post post) {
+        Long authorId = post.getAuthor().getId();
+        List<Long> recipientIds = new ArrayList<>();
+        if (Boolean.FALSE.equals(post.getIsFannedOut())) {
+            pulledAuthorIds.add(authorId);
+        } else {
+            Arrays.stream(followGraphService.getFollowerIds(authorId)).forEach(recipientIds::add);
+        }
+        recipientIds.add(authorId);
+
+        List<TimelineEntry> newEntries = new ArrayList<>();
+        Lists.partition(recipientIds, AppConstants.TIMELINE_FAN_OUT_CHUNK_SIZE).forEach(chunk ->
+                materializedTimelineRepository.findMaterializedOwnerIds(chunk).forEach(ownerId ->
+                        newEntries.add(toTimelineEntry(ownerId, post))));
+        insertEntriesIfAbsent(newEntries);
+    }
+
+    @Override
+    public void removePost(Long postId) {
+        timelineEntryRepository.deleteTimelineEntriesByPostId(postId);
+    }
+
+    @Override
+    public void addAuthorToTimeline(Long ownerId, Long authorId) {
+        if (!materializedTimelineRepository.existsById(ownerId)) {
+            return;
+        }
+
+        List<TimelineEntry> newEntries = postRepository.findPostsByAuthorIdIn(
+                List.of(authorId),
+                PageRequest.of(0, AppConstants.TIMELINE_FOLLOW_BACKFILL_SIZE, NEWEST_POSTS_SORT))
+                .stream().map(post -> toTimelineEntry(ownerId, post)).toList();
+        insertEntriesIfAbsent(newEntries);
+    }
+
+    @Override
+    public void removeAuthorFromTimeline(Long ownerId, Long authorId) {
+        timelineEntryRepository.deleteTimelineEntriesByOwnerIdAndAuthorId(ownerId, authorId);
+    }
+
+    @Override
+    public void deleteTimeline(Long ownerId) {
+        timelineEntryRepository.deleteTimelineEntriesByOwnerId(ownerId);
+        materializedTimelineRepository.deleteMaterializedTimelineByOwnerId(ownerId);
+    }
+
+    private MaterializedTimeline getMaterializedTimeline(Long ownerId) {
+        return materializedTimelineRepository.findById(ownerId)
+                .orElseGet(() -> materializeTimeline(ownerId));
+    }
+
+    private List<Long> findPulledAuthorIds(Long ownerId) {
+        return pulledAuthorIds.isEmpty()
+                ? List.of()
+                : List.copyOf(followGraphService.getFollowedIdsAmong(ownerId, pulledAuthorIds));
+    }
+
+    private MaterializedTimeline materializeTimeline(Long ownerId) {
+        List<TimelineEntry> newEntries = postRepository.findPostsByAuthorIdIn(
+                getTimelineAuthorIds(ownerId),
+                PageRequest.of(0, AppConstants.TIMELINE_MATERIALIZE_SIZE, NEWEST_POSTS_SORT))
+                .stream().map(post -> toTimelineEntry(ownerId, post)).toList();
+        insertEntriesIfAbsent(newEntries);
+
+        MaterializedTimeline timeline = new MaterializedTimeline();
+        timeline.setOwnerId(ownerId);
+        timeline.setDateMaterialized(new Date());
+        if (newEntries.size() >= AppConstants.TIMELINE_MATERIALIZE_SIZE) {
+            TimelineEntry oldestEntry = newEntries.get(newEntries.size() - 1);
+            timeline.setHorizonDate(oldestEntry.getDateCreated());
+            timeline.setHorizonPostId(oldestEntry.getPostId());
+        }
+        jdbcTemplate.update(INSERT_MATERIALIZED_TIMELINE_SQL,
+                ownerId,
+                toTimestamp(timeline.getHorizonDate()),
+                timeline.getHorizonPostId(),
+                toTimestamp(timeline.getDateMaterialized()));
+        return timeline;
+    }
+
+    private List<TimelineEntry> findMergedEntries(MaterializedTimeline timeline, List<Long> followedPulledAuthorIds,
+                                                  PageCursor cursor, int offset, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ownerId", timeline.getOwnerId())
+                .addValue("windowSize", offset + size)
+                .addValue("offset", offset)
+                .addValue("size", size);
+        if (cursor != null) {
+            params.addValue("cursorDate", toTimestamp(cursor.getDate())).addValue("cursorId", cursor.getId());
+        }
+
+        StringBuilder sql = new StringBuilder("select post_id, date_created from (")
+                .append("(select t.post_id, t.date_created from timeline_entries t where t.owner_id = :ownerId")
+                .append(cursor == null ? "" : olderThan("t.date_created", "t.post_id", "cursorDate", "cursorId"))
+                .append(" order by t.date_created desc, t.post_id desc limit :windowSize)");
+        if (!followedPulledAuthorIds.isEmpty()) {
+            params.addValue("pulledAuthorIds", followedPulledAuthorIds);
+            sql.append(" union (select p.id, p.date_created from posts p")
+                    .append(" where p.author_id in (:pulledAuthorIds) and p.is_fanned_out = false")
+                    .append(cursor == null ? "" : olderThan("p.date_created", "p.id", "cursorDate", "cursorId"))
+                    .append(" order by p.date_created desc, p.id desc limit :windowSize)");
+        }
+        if (timeline.isTruncated()) {
+            params.addValue("authorIds", getTimelineAuthorIds(timeline.getOwnerId()))
+                    .addValue("horizonDate", toTimestamp(timeline.getHorizonDate()))
+                    .addValue("horizonPostId", timeline.getHorizonPostId());
+            sql.append(" union (select p.id, p.date_created from posts p where p.author_id in (:authorIds)")
+                    .append(olderThan("p.date_created", "p.id", "horizonDate", "horizonPostId"))
+                    .append(cursor == null ? "" : olderThan("p.date_created", "p.id", "cursorDate", "cursorId"))
+                    .append(" order by p.date_created desc, p.id desc limit :windowSize)");
+        }
+        sql.append(") timeline order by date_created desc, post_id desc limit :size offset :offset");
+
+        return namedParameterJdbcTemplate.query(sql.toString(), params, MERGED_ENTRY_MAPPER);
+    }
+
+    private String olderThan(String dateColumn, String idColumn, String dateParam, String idParam) {
+        return " and (" + dateColumn + " < :" + dateParam +
+                " or (" + dateColumn + " = :" + dateParam + " and " + idColumn + " < :" + idParam + "))";
+    }
+
+    private boolean reachesHorizon(MaterializedTimeline timeline, List<TimelineEntry> pushedEntries, int size) {
+        if (!timeline.isTruncated()) {
+            return false;
+        }
+        if (pushedEntries.size() < size) {
+            return true;
+        }
+        TimelineEntry oldestEntry = pushedEntries.get(pushedEntries.size() - 1);
+        return !isOlder(timeline.getHorizonDate(), timeline.getHorizonPostId(),
+                oldestEntry.getDateCreated(), oldestEntry.getPostId());
+    }
+
+    private boolean isOlder(Date date, Long id, Date otherDate, Long otherId) {
+        int dateComparison = DATE_ORDER.compare(date, otherDate);
+        return dateComparison < 0 || (dateComparison == 0 && id < otherId);
+    }
+
+    private List<Long> getTimelineAuthorIds(Long ownerId) {
+        List<Long> authorIds = Arrays.stream(followGraphService.getFollowingIds(ownerId))
+                .boxed().collect(Collectors.toCollection(ArrayList::new));
+        authorIds.add(ownerId);
+        return authorIds;
+    }
+
+    private void insertEntriesIfAbsent(List<TimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TIMELINE_ENTRY_SQL, entries.stream()
+                .map(entry -> new Object[] {
+                        entry.getOwnerId(), entry.getPostId(), entry.getAuthorId(), toTimestamp(entry.getDateCreated())
+                })
+                .toList());
+    }
+
+    private Timestamp toTimestamp(Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+
+    private Boolean isHybridMode() {
+        return AppConstants.FEED_MODE_HYBRID.equalsIgnoreCase(environment.getProperty("feed.mode"));
+    }
+
+    private Integer getFanOutThreshold() {
+        return environment.getProperty("feed.hybrid.follower-threshold", Integer.class,
+                AppConstants.FEED_DEFAULT_FOLLOWER_THRESHOLD);
+    }
+
+    private List<Long> toPostIds(List<TimelineEntry> entries) {
+        return entries.stream().map(TimelineEntry::getPostId).toList();
+    }
+
+    private TimelineEntry toTimelineEntry(Long ownerId, Post post) {
+        TimelineEntry newEntry = new TimelineEntry();
+        newEntry.setOwnerId(ownerId);
+        newEntry.setPostId(post.getId());
+        newEntry.setAuthorId(post.getAuthor().getId());
+        newEntry.setDateCreated(post.getDateCreated());
+        return newEntry;
+    }
+}
@@ -0,0 +1,11 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Tag;
+
+import java.util.List;
+
+public interface TrendingTagService {
+    void recordTagUse(Long tagId);
+    List<Tag> getTrendingTags();
+    void refreshTrendingTags();
+}
@@ -0,0 +1,128 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.entity.Tag;
+import com.kpjunaid.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class TrendingTagServiceImpl implements TrendingTagService {
+    private static final double MAX_DECAY_EXPONENT = 300.0;
+
+    private final TagRepository tagRepository;
+    private final Environment environment;
+
+    private final Map<Long, TagCounter> countersByTagId = new HashMap<>();
+    private final TreeSet<TagCounter> countersByWeight = new TreeSet<>(
+            Comparator.<TagCounter>comparingDouble(counter -> counter.weight)
+                    .thenComparingLong(counter -> counter.tagId));
+    private long landmarkTime = System.currentTimeMillis();
+    private volatile List<Tag> trendingTags;
+
+    @Override
+    public void recordTagUse(Long tagId) {
+        afterCommit(() -> recordTagUse(tagId, System.currentTimeMillis()));
+    }
+
+    @Override
+    public List<Tag> getTrendingTags() {
+        List<Tag> snapshot = trendingTags;
+        if (snapshot == null) {
+            refreshTrendingTags();
+            snapshot = trendingTags;
+        }
+        return snapshot;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${tags.trending.refresh-interval-ms:30000}")
+    public void refreshTrendingTags() {
+        List<Long> trendingTagIds = getTrendingTagIds(AppConstants.TRENDING_TAG_COUNT);
+        Map<Long, Tag> tagsById = tagRepository.findAllById(trendingTagIds).stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+        List<Tag> snapshot = trendingTagIds.stream()
+                .map(tagsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        if (snapshot.size() < AppConstants.TRENDING_TAG_COUNT) {
+            tagRepository.findAll(PageRequest.of(0, AppConstants.TRENDING_TAG_COUNT,
+                    Sort.by(Sort.Direction.DESC, "tagUseCounter"))).forEach(tag -> {
+                if (snapshot.size() < AppConstants.TRENDING_TAG_COUNT && !snapshot.contains(tag)) {
+                    snapshot.add(tag);
+                }
+            });
+        }
+        trendingTags = List.copyOf(snapshot);
+    }
+
+    synchronized void recordTagUse(Long tagId, long time) {
+        double decayRate = getDecayRate();
+        if (decayRate * (time - landmarkTime) > MAX_DECAY_EXPONENT) {
+            moveLandmark(time, decayRate);
+        }
+        double increment = Math.exp(decayRate * (time - landmarkTime));
+
+        TagCounter counter = countersByTagId.get(tagId);
+        if (counter != null) {
+            countersByWeight.remove(counter);
+        } else {
+            counter = new TagCounter(tagId);
+            if (countersByTagId.size() >= AppConstants.TRENDING_TAG_SKETCH_CAPACITY) {
+                TagCounter evictedCounter = countersByWeight.pollFirst();
+                countersByTagId.remove(evictedCounter.tagId);
+                counter.weight = evictedCounter.weight;
+            }
+            countersByTagId.put(tagId, counter);
+        }
+        counter.weight += increment;
+        countersByWeight.add(counter);
+    }
+
+    synchronized List<Long> getTrendingTagIds(int limit) {
+        List<Long> trendingTagIds = new ArrayList<>(Math.min(limit, countersByWeight.size()));
+        Iterator<TagCounter> counters = countersByWeight.descendingIterator();
+        while (counters.hasNext() && trendingTagIds.size() < limit) {
+            trendingTagIds.add(counters.next().tagId);
+        }
+        return trendingTagIds;
+    }
+
+    private void moveLandmark(long time, double decayRate) {
+        double scale = Math.exp(-decayRate * (time - landmarkTime));
+        List<TagCounter> counters = new ArrayList<>(countersByWeight);
+        countersByWeight.clear();
+        counters.forEach(counter -> counter.weight *= scale);
+        countersByWeight.addAll(counters);
+        landmarkTime = time;
+    }
+
+    private double getDecayRate() {
+        Long halfLifeMinutes = environment.getProperty("tags.trending.half-life-minutes", Long.class);
+        if (halfLifeMinutes == null || halfLifeMinutes <= 0) {
+            halfLifeMinutes = AppConstants.TRENDING_TAG_DEFAULT_HALF_LIFE_MINUTES;
+        }
+        return Math.log(2) / (halfLifeMinutes * 60000.0);
+    }
+
+    private static class TagCounter {
+        private final long tagId;
+        private double weight;
+
+        private TagCounter(long tagId) {
+            this.tagId = tagId;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.kpjunaid.service;
+
+import java.util.List;
+
+public interface UserSearchService {
+    List<Long> searchUserIds(String key, Integer page, Integer size);
+    void indexUser(Long userId, String firstName, String lastName);
+    void removeUser(Long userId);
+    void rebuildIndex();
+}
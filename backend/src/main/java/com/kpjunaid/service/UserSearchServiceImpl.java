@@ -0,0 +1,224 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.UserNameProjection;
+import com.kpjunaid.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.kpjunaid.common.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+public class UserSearchServiceImpl implements UserSearchService {
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final Comparator<SearchHit> BEST_MATCH_FIRST = Comparator
+            .comparingInt(SearchHit::rank)
+            .thenComparing(SearchHit::name)
+            .thenComparingLong(SearchHit::userId);
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Map<Long, String> indexedNames = new HashMap<>();
+    private final Map<String, Postings> postingsByTrigram = new HashMap<>();
+
+    @Override
+    public List<Long> searchUserIds(String key, Integer page, Integer size) {
+        String query = normalize(key);
+        if (query.length() < TRIGRAM_LENGTH) {
+            return List.of();
+        }
+
+        indexLock.readLock().lock();
+        try {
+            List<SearchHit> hits = new ArrayList<>();
+            for (long userId : findCandidateIds(trigramsOf(query))) {
+                addHit(hits, userId, indexedNames.get(userId), query);
+            }
+            return hits.stream()
+                    .sorted(BEST_MATCH_FIRST)
+                    .skip((long) page * size)
+                    .limit(size)
+                    .map(SearchHit::userId)
+                    .toList();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexUser(Long userId, String firstName, String lastName) {
+        String name = normalize(firstName + " " + lastName);
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                putName(userId, name);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        afterCommit(() -> {
+            indexLock.writeLock().lock();
+            try {
+                removeName(userId);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        Long lastUserId = 0L;
+        List<UserNameProjection> batch;
+        do {
+            batch = userRepository.findUserNamesAfter(
+                    lastUserId, PageRequest.of(0, AppConstants.USER_SEARCH_REBUILD_BATCH_SIZE));
+            indexLock.writeLock().lock();
+            try {
+                batch.forEach(user -> putName(user.getId(), normalize(user.getFirstName() + " " + user.getLastName())));
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                lastUserId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == AppConstants.USER_SEARCH_REBUILD_BATCH_SIZE);
+    }
+
+    private void putName(Long userId, String name) {
+        String oldName = indexedNames.put(userId, name);
+        if (name.equals(oldName)) {
+            return;
+        }
+        if (oldName != null) {
+            trigramsOf(oldName).forEach(trigram -> removePosting(trigram, userId));
+        }
+        trigramsOf(name).forEach(trigram -> postingsByTrigram.computeIfAbsent(trigram, t -> new Postings()).add(userId));
+    }
+
+    private void removeName(Long userId) {
+        String oldName = indexedNames.remove(userId);
+        if (oldName != null) {
+            trigramsOf(oldName).forEach(trigram -> removePosting(trigram, userId));
+        }
+    }
+
+    private void removePosting(String trigram, Long userId) {
+        Postings postings = postingsByTrigram.get(trigram);
+        if (postings != null && postings.remove(userId) && postings.size() == 0) {
+            postingsByTrigram.remove(trigram);
+        }
+    }
+
+    private long[] findCandidateIds(Set<String> queryTrigrams) {
+        List<Postings> postingLists = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings == null) {
+                return new long[0];
+            }
+            postingLists.add(postings);
+        }
+        postingLists.sort(Comparator.comparingInt(Postings::size));
+
+        long[] candidateIds = postingLists.get(0).toArray();
+        for (int i = 1; i < postingLists.size() && candidateIds.length > 0; i++) {
+            candidateIds = postingLists.get(i).retainAll(candidateIds);
+        }
+        return candidateIds;
+    }
+
+    private void addHit(List<SearchHit> hits, long userId, String name, String query) {
+        int matchIndex = name.indexOf(query);
+        if (matchIndex >= 0) {
+            hits.add(new SearchHit(userId, name, rankMatch(name, query, matchIndex)));
+        }
+    }
+
+    private int rankMatch(String name, String query, int matchIndex) {
+        if (name.equals(query)) {
+            return 0;
+        } else if (matchIndex == 0) {
+            return 1;
+        } else if (name.charAt(matchIndex - 1) == ' ') {
+            return 2;
+        }
+        return 3;
+    }
+
+    private String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private Set<String> trigramsOf(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private record SearchHit(long userId, String name, int rank) {
+    }
+
+    private static final class Postings {
+        private long[] userIds = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(long userId) {
+            int index = Arrays.binarySearch(userIds, 0, size, userId);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+            }
+            System.arraycopy(userIds, insertAt, userIds, insertAt + 1, size - insertAt);
+            userIds[insertAt] = userId;
+            size++;
+        }
+
+        boolean remove(long userId) {
+            int index = Arrays.binarySearch(userIds, 0, size, userId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(userIds, index + 1, userIds, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(userIds, size);
+        }
+
+        long[] retainAll(long[] candidateIds) {
+            long[] retainedIds = new long[candidateIds.length];
+            int retained = 0;
+            for (long candidateId : candidateIds) {
+                if (Arrays.binarySearch(userIds, 0, size, candidateId) >= 0) {
+                    retainedIds[retained++] = candidateId;
+                }
+            }
+            return Arrays.copyOf(retainedIds, retained);
+        }
+    }
+}
@@ -4,16 +4,23 @@ import com.kpjunaid.dto.*;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.response.UserResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     User getUserById(Long userId);
+    UserResponse getUserResponseById(Long userId);
     User getUserByEmail(String email);
+    Optional<User> findUserByEmail(String email);
+    boolean existsByEmail(String email);
     List<UserResponse> getFollowerUsersPaginate(Long userId, Integer page, Integer size);
     List<UserResponse> getFollowingUsersPaginate(Long userId, Integer page, Integer size);
+    CursorPageResponse<UserResponse> getFollowerUsersByCursor(Long userId, String cursor, Integer size);
+    CursorPageResponse<UserResponse> getFollowingUsersByCursor(Long userId, String cursor, Integer size);
     User createNewUser(SignupDto signupDto);
     User updateUserInfo(UpdateUserInfoDto updateUserInfoDto);
     User updateEmail(UpdateEmailDto updateEmailDto);
@@ -1,11 +1,16 @@
 package com.kpjunaid.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.AuthenticatedUserDetails;
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.common.UserPrincipal;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Country;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.CounterType;
 import com.kpjunaid.enumeration.Role;
 import com.kpjunaid.exception.EmailExistsException;
 import com.kpjunaid.exception.InvalidOperationException;
@@ -14,6 +19,7 @@ import com.kpjunaid.exception.UserNotFoundException;
 import com.kpjunaid.mapper.MapStructMapper;
 import com.kpjunaid.mapper.MapstructMapperUpdate;
 import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.response.UserResponse;
 import com.kpjunaid.dto.*;
 import com.kpjunaid.util.FileNamingUtil;
@@ -22,141 +28,188 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.core.env.Environment;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final Sort FOLLOW_LIST_SORT = Sort.by(Sort.Direction.ASC, "firstName", "lastName", "id");
+
     private final UserRepository userRepository;
     private final CountryService countryService;
     private final EmailService emailService;
     private final JwtTokenService jwtTokenService;
+    private final TimelineService timelineService;
+    private final CounterService counterService;
+    private final FollowGraphService followGraphService;
+    private final UserSearchService userSearchService;
     private final PasswordEncoder passwordEncoder;
     private final MapStructMapper mapStructMapper;
     private final MapstructMapperUpdate mapstructMapperUpdate;
     private final Environment environment;
     private final FileNamingUtil fileNamingUtil;
     private final FileUploadUtil fileUploadUtil;
+    private final Cache<Long, AuthenticatedUser> authenticatedUsers = CacheBuilder.newBuilder()
+            .maximumSize(AppConstants.AUTH_USER_CACHE_SIZE)
+            .expireAfterWrite(AppConstants.AUTH_USER_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+            .build();
 
     @Override
     public User getUserById(Long userId) {
         return userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
     }
 
+    @Override
+    public UserResponse getUserResponseById(Long userId) {
+        return usersToUserResponses(List.of(getUserById(userId))).get(0);
+    }
+
     @Override
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email).orElseThrow(UserNotFoundException::new);
     }
 
+    @Override
+    public Optional<User> findUserByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return userRepository.existsByEmail(email);
+    }
+
     @Override
     public List<UserResponse> getFollowerUsersPaginate(Long userId, Integer page, Integer size) {
         User targetUser = getUserById(userId);
-        return userRepository.findUsersByFollowingUsers(targetUser,
-                        PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "firstName", "lastName")))
-                .stream().map(this::userToUserResponse).collect(Collectors.toList());
+        return usersToUserResponses(userRepository.findUsersByFollowingUsers(targetUser,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "firstName", "lastName"))));
     }
 
     @Override
     public List<UserResponse> getFollowingUsersPaginate(Long userId, Integer page, Integer size) {
         User targetUser = getUserById(userId);
-        return userRepository.findUsersByFollowerUsers(targetUser,
-                        PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "firstName", "lastName")))
-                .stream().map(this::userToUserResponse).collect(Collectors.toList());
+        return usersToUserResponses(userRepository.findUsersByFollowerUsers(targetUser,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "firstName", "lastName"))));
+    }
+
+    @Override
+    public CursorPageResponse<UserResponse> getFollowerUsersByCursor(Long userId, String cursor, Integer size) {
+        User targetUser = getUserById(userId);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<User> foundUsers = pageCursor == null
+                ? userRepository.findUsersByFollowingUsers(targetUser, PageRequest.of(0, size, FOLLOW_LIST_SORT))
+                : userRepository.findFollowerUsersAfter(targetUser, pageCursor.getKey(0), pageCursor.getKey(1),
+                        pageCursor.getId(), PageRequest.of(0, size));
+        return usersToCursorPage(foundUsers, size);
+    }
+
+    @Override
+    public CursorPageResponse<UserResponse> getFollowingUsersByCursor(Long userId, String cursor, Integer size) {
+        User targetUser = getUserById(userId);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        List<User> foundUsers = pageCursor == null
+                ? userRepository.findUsersByFollowerUsers(targetUser, PageRequest.of(0, size, FOLLOW_LIST_SORT))
+                : userRepository.findFollowingUsersAfter(targetUser, pageCursor.getKey(0), pageCursor.getKey(1),
+                        pageCursor.getId(), PageRequest.of(0, size));
+        return usersToCursorPage(foundUsers, size);
     }
 
     @Override
     public User createNewUser(SignupDto signupDto) {
-        try {
-            User user = getUserByEmail(signupDto.getEmail());
-            if (user != null) {
-                throw new EmailExistsException();
-            }
-        } catch (UserNotFoundException e) {
-            User newUser = new User();
-            newUser.setEmail(signupDto.getEmail());
-            newUser.setPassword(passwordEncoder.encode(signupDto.getPassword()));
-            newUser.setFirstName(signupDto.getFirstName());
-            newUser.setLastName(signupDto.getLastName());
-            newUser.setFollowerCount(0);
-            newUser.setFollowingCount(0);
-            newUser.setEnabled(true);
-            newUser.setAccountVerified(false);
-            newUser.setEmailVerified(false);
-            newUser.setJoinDate(new Date());
-            newUser.setDateLastModified(new Date());
-            newUser.setRole(Role.ROLE_USER.name());
-            User savedUser = userRepository.save(newUser);
-            UserPrincipal userPrincipal = new UserPrincipal(savedUser);
-            String emailVerifyMail =
-                    emailService.buildEmailVerifyMail(jwtTokenService.generateToken(userPrincipal));
-            emailService.send(savedUser.getEmail(), AppConstants.VERIFY_EMAIL, emailVerifyMail);
-            return savedUser;
+        if (existsByEmail(signupDto.getEmail())) {
+            throw new EmailExistsException();
         }
-        return null;
+        User newUser = new User();
+        newUser.setEmail(signupDto.getEmail());
+        newUser.setPassword(passwordEncoder.encode(signupDto.getPassword()));
+        newUser.setFirstName(signupDto.getFirstName());
+        newUser.setLastName(signupDto.getLastName());
+        newUser.setFollowerCount(0);
+        newUser.setFollowingCount(0);
+        newUser.setEnabled(true);
+        newUser.setAccountVerified(false);
+        newUser.setEmailVerified(false);
+        newUser.setJoinDate(new Date());
+        newUser.setDateLastModified(new Date());
+        newUser.setRole(Role.ROLE_USER.name());
+        User savedUser = userRepository.save(newUser);
+        UserPrincipal userPrincipal = new UserPrincipal(savedUser);
+        String emailVerifyMail =
+                emailService.buildEmailVerifyMail(jwtTokenService.generateToken(userPrincipal));
+        emailService.send(savedUser.getEmail(), AppConstants.VERIFY_EMAIL, emailVerifyMail);
+        return savedUser;
     }
 
     @Override
     public User updateUserInfo(UpdateUserInfoDto updateUserInfoDto) {
-        User authUser = getAuthenticatedUser();
+        User authUser = loadAuthenticatedUser();
         if (updateUserInfoDto.getCountryName() != null) {
             Country selectedUserCountry = countryService.getCountryByName(updateUserInfoDto.getCountryName());
             authUser.setCountry(selectedUserCountry);
         }
         mapstructMapperUpdate.updateUserFromUserUpdateDto(updateUserInfoDto, authUser);
-        return userRepository.save(authUser);
+        User updatedUser = userRepository.save(authUser);
+        evictAuthenticatedUser(authUser.getId());
+        return updatedUser;
     }
 
     @Override
     public User updateEmail(UpdateEmailDto updateEmailDto) {
-        User authUser = getAuthenticatedUser();
+        User authUser = loadAuthenticatedUser();
         String newEmail = updateEmailDto.getEmail();
         String password = updateEmailDto.getPassword();
 
-        if (!newEmail.equalsIgnoreCase(authUser.getEmail())) {
-            try {
-                User duplicateUser = getUserByEmail(newEmail);
-                if (duplicateUser != null) {
-                    throw new EmailExistsException();
-                }
-            } catch (UserNotFoundException e) {
-                if (passwordEncoder.matches(password, authUser.getPassword())) {
-                    authUser.setEmail(newEmail);
-                    authUser.setEmailVerified(false);
-                    authUser.setDateLastModified(new Date());
-                    User updatedUser = userRepository.save(authUser);
-                    UserPrincipal userPrincipal = new UserPrincipal(updatedUser);
-                    String emailVerifyMail =
-                            emailService.buildEmailVerifyMail(jwtTokenService.generateToken(userPrincipal));
-                    emailService.send(updatedUser.getEmail(), AppConstants.VERIFY_EMAIL, emailVerifyMail);
-                    return updatedUser;
-                } else {
-                    throw new InvalidOperationException();
-                }
-            }
-        } else {
+        if (newEmail.equalsIgnoreCase(authUser.getEmail())) {
             throw new SameEmailUpdateException();
         }
-        return null;
+        if (existsByEmail(newEmail)) {
+            throw new EmailExistsException();
+        }
+        if (!passwordEncoder.matches(password, authUser.getPassword())) {
+            throw new InvalidOperationException();
+        }
+        authUser.setEmail(newEmail);
+        authUser.setEmailVerified(false);
+        authUser.setDateLastModified(new Date());
+        User updatedUser = userRepository.save(authUser);
+        evictAuthenticatedUser(authUser.getId());
+        UserPrincipal userPrincipal = new UserPrincipal(updatedUser);
+        String emailVerifyMail =
+                emailService.buildEmailVerifyMail(jwtTokenService.generateToken(userPrincipal));
+        emailService.send(updatedUser.getEmail(), AppConstants.VERIFY_EMAIL, emailVerifyMail);
+        return updatedUser;
     }
 
     @Override
     public User updatePassword(UpdatePasswordDto updatePasswordDto) {
-        User authUser = getAuthenticatedUser();
+        User authUser = loadAuthenticatedUser();
         if (passwordEncoder.matches(updatePasswordDto.getOldPassword(), authUser.getPassword())) {
             authUser.setPassword(passwordEncoder.encode(updatePasswordDto.getPassword()));
             authUser.setDateLastModified(new Date());
-            return userRepository.save(authUser);
+            User updatedUser = userRepository.save(authUser);
+            evictAuthenticatedUser(authUser.getId());
+            return updatedUser;
         } else {
             throw new InvalidOperationException();
         }
@@ -169,12 +222,14 @@ public class UserServiceImpl implements UserService {
         targetUser.setEmailVerified(true);
         targetUser.setAccountVerified(true);
         targetUser.setDateLastModified(new Date());
-        return userRepository.save(targetUser);
+        User verifiedUser = userRepository.save(targetUser);
+        evictAuthenticatedUser(targetUser.getId());
+        return verifiedUser;
     }
 
     @Override
     public User updateProfilePhoto(MultipartFile profilePhoto) {
-        User targetUser = getAuthenticatedUser();
+        User targetUser = loadAuthenticatedUser();
         if (!profilePhoto.isEmpty() && profilePhoto.getSize() > 0) {
             String uploadDir = environment.getProperty("upload.user.images");
             String oldPhotoName = targetUser.getProfilePhoto();
@@ -192,12 +247,14 @@ public class UserServiceImpl implements UserService {
                 throw new RuntimeException();
             }
         }
-        return userRepository.save(targetUser);
+        User updatedUser = userRepository.save(targetUser);
+        evictAuthenticatedUser(targetUser.getId());
+        return updatedUser;
     }
 
     @Override
     public User updateCoverPhoto(MultipartFile coverPhoto) {
-        User targetUser = getAuthenticatedUser();
+        User targetUser = loadAuthenticatedUser();
         if (!coverPhoto.isEmpty() && coverPhoto.getSize() > 0) {
             String uploadDir = environment.getProperty("upload.user.images");
             String oldPhotoName = targetUser.getCoverPhoto();
@@ -215,18 +272,19 @@ public class UserServiceImpl implements UserService {
                 throw new RuntimeException();
             }
         }
-        return userRepository.save(targetUser);
+        User updatedUser = userRepository.save(targetUser);
+        evictAuthenticatedUser(targetUser.getId());
+        return updatedUser;
     }
 
     @Override
     public void forgotPassword(String email) {
-        try {
-            User targetUser = getUserByEmail(email);
+        findUserByEmail(email).ifPresent(targetUser -> {
             UserPrincipal userPrincipal = new UserPrincipal(targetUser);
             String emailVerifyMail =
                     emailService.buildResetPasswordMail(jwtTokenService.generateToken(userPrincipal));
             emailService.send(targetUser.getEmail(), AppConstants.RESET_PASSWORD, emailVerifyMail);
-        } catch (UserNotFoundException ignored) {}
+        });
     }
 
     @Override
@@ -234,12 +292,14 @@ public class UserServiceImpl implements UserService {
         String targetUserEmail = jwtTokenService.getSubjectFromToken(token);
         User targetUser = getUserByEmail(targetUserEmail);
         targetUser.setPassword(passwordEncoder.encode(resetPasswordDto.getPassword()));
-        return userRepository.save(targetUser);
+        User updatedUser = userRepository.save(targetUser);
+        evictAuthenticatedUser(targetUser.getId());
+        return updatedUser;
     }
 
     @Override
     public void deleteUserAccount() {
-        User authUser = getAuthenticatedUser();
+        User authUser = loadAuthenticatedUser();
         String profilePhoto = getPhotoNameFromPhotoUrl(authUser.getProfilePhoto());
         // delete user profile picture from filesystem if exists
         if (profilePhoto != null && profilePhoto.length() > 0) {
@@ -250,7 +310,10 @@ public class UserServiceImpl implements UserService {
                 throw new RuntimeException();
             }
         }
+        timelineService.deleteTimeline(authUser.getId());
+        followGraphService.removeUser(authUser.getId());
         userRepository.deleteByEmail(authUser.getEmail());
+        evictAuthenticatedUser(authUser.getId());
     }
 
     @Override
@@ -258,12 +321,12 @@ public class UserServiceImpl implements UserService {
         User authUser = getAuthenticatedUser();
         if (!authUser.getId().equals(userId)) {
             User userToFollow = getUserById(userId);
-            authUser.getFollowingUsers().add(userToFollow);
-            authUser.setFollowingCount(authUser.getFollowingCount() + 1);
-            userToFollow.getFollowerUsers().add(authUser);
-            userToFollow.setFollowerCount(userToFollow.getFollowerCount() + 1);
-            userRepository.save(userToFollow);
-            userRepository.save(authUser);
+            if (!followGraphService.addFollow(authUser.getId(), userToFollow.getId())) {
+                throw new InvalidOperationException();
+            }
+            counterService.increment(CounterType.USER_FOLLOWING, authUser.getId(), 1);
+            counterService.increment(CounterType.USER_FOLLOWER, userToFollow.getId(), 1);
+            timelineService.addAuthorToTimeline(authUser.getId(), userToFollow.getId());
         } else {
             throw new InvalidOperationException();
         }
@@ -274,12 +337,12 @@ public class UserServiceImpl implements UserService {
         User authUser = getAuthenticatedUser();
         if (!authUser.getId().equals(userId)) {
             User userToUnfollow = getUserById(userId);
-            authUser.getFollowingUsers().remove(userToUnfollow);
-            authUser.setFollowingCount(authUser.getFollowingCount() - 1);
-            userToUnfollow.getFollowerUsers().remove(authUser);
-            userToUnfollow.setFollowerCount(userToUnfollow.getFollowerCount() - 1);
-            userRepository.save(userToUnfollow);
-            userRepository.save(authUser);
+            if (!followGraphService.removeFollow(authUser.getId(), userToUnfollow.getId())) {
+                throw new InvalidOperationException();
+            }
+            counterService.increment(CounterType.USER_FOLLOWING, authUser.getId(), -1);
+            counterService.increment(CounterType.USER_FOLLOWER, userToUnfollow.getId(), -1);
+            timelineService.removeAuthorFromTimeline(authUser.getId(), userToUnfollow.getId());
         } else {
             throw new InvalidOperationException();
         }
@@ -289,10 +352,10 @@ public class UserServiceImpl implements UserService {
     public List<UserResponse> getUserSearchResult(String key, Integer page, Integer size) {
         if (key.length() < 3) throw new InvalidOperationException();
 
-        return userRepository.findUsersByName(
-                key,
-                PageRequest.of(page, size)
-        ).stream().map(this::userToUserResponse).collect(Collectors.toList());
+        List<Long> userIds = userSearchService.searchUserIds(key, page, size);
+        Map<Long, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return usersToUserResponses(userIds.stream().map(usersById::get).filter(Objects::nonNull).toList());
     }
 
     @Override
@@ -311,9 +374,60 @@ public class UserServiceImpl implements UserService {
         );
     }
 
-    public final User getAuthenticatedUser() {
-        String authUserEmail = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
-        return getUserByEmail(authUserEmail);
+    @Override
+    public User getAuthenticatedUser() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object requestUser = requestAttributes.getAttribute(
+                    AppConstants.AUTH_USER_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (requestUser instanceof User authUser) {
+                return authUser;
+            }
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long authUserId = getAuthenticatedUserId(authentication);
+        AuthenticatedUser cachedUser = authUserId == null ? null : authenticatedUsers.getIfPresent(authUserId);
+        User authUser;
+        if (cachedUser != null && cachedUser.email().equalsIgnoreCase(authentication.getPrincipal().toString())) {
+            authUser = userRepository.getById(cachedUser.id());
+        } else {
+            authUser = loadAuthenticatedUser();
+            authenticatedUsers.put(authUser.getId(),
+                    new AuthenticatedUser(authUser.getId(), authUser.getEmail(), authUser.getRole()));
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(
+                    AppConstants.AUTH_USER_REQUEST_ATTRIBUTE, authUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return authUser;
+    }
+
+    private User loadAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String authUserEmail = authentication.getPrincipal().toString();
+        Long authUserId = getAuthenticatedUserId(authentication);
+        if (authUserId == null) {
+            return getUserByEmail(authUserEmail);
+        }
+        User authUser = getUserById(authUserId);
+        if (!authUser.getEmail().equalsIgnoreCase(authUserEmail)) {
+            throw new UserNotFoundException();
+        }
+        return authUser;
+    }
+
+    private Long getAuthenticatedUserId(Authentication authentication) {
+        return authentication.getDetails() instanceof AuthenticatedUserDetails details ? details.getUserId() : null;
+    }
+
+    private void evictAuthenticatedUser(Long userId) {
+        authenticatedUsers.invalidate(userId);
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.removeAttribute(AppConstants.AUTH_USER_REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
     }
 
     private String getPhotoNameFromPhotoUrl(String photoUrl) {
@@ -326,11 +440,29 @@ public class UserServiceImpl implements UserService {
         }
     }
 
-    private UserResponse userToUserResponse(User user) {
+    private List<UserResponse> usersToUserResponses(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
         User authUser = getAuthenticatedUser();
-        return UserResponse.builder()
-                .user(user)
-                .followedByAuthUser(user.getFollowerUsers().contains(authUser))
+        Set<Long> followedUserIds = followGraphService.getFollowedIdsAmong(
+                authUser.getId(), users.stream().map(User::getId).toList());
+        return users.stream()
+                .map(user -> UserResponse.builder()
+                        .user(user)
+                        .followedByAuthUser(followedUserIds.contains(user.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private CursorPageResponse<UserResponse> usersToCursorPage(List<User> users, Integer size) {
+        return CursorPageResponse.<UserResponse>builder()
+                .content(usersToUserResponses(users))
+                .nextCursor(PageCursor.nextCursor(users, size,
+                        user -> PageCursor.of(user.getFirstName(), user.getLastName(), user.getId())))
                 .build();
     }
+
+    private record AuthenticatedUser(Long id, String email, String role) {
+    }
 }
@@ -1,30 +1,143 @@
 package com.kpjunaid.controller;
 
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.UserPrincipal;
+import com.kpjunaid.entity.Notification;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.repository.NotificationRepository;
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.service.JwtTokenService;
+import com.kpjunaid.service.NotificationStreamService;
+import com.kpjunaid.shared.MockResourceRepo;
+import com.kpjunaid.shared.QueryBudget;
+import com.kpjunaid.shared.WithMockAuthUser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
-@SpringBootTest
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.max-connections=20000")
 @AutoConfigureMockMvc
 class NotificationControllerIntegrationTest {
+    private static final int NOTIFICATION_LISTING_QUERY_BUDGET = 4;
+
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PostRepository postRepository;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JwtTokenService jwtTokenService;
+
+    @Autowired
+    NotificationStreamService notificationStreamService;
+
+    @LocalServerPort
+    int port;
+
+    private final String API_URL_PREFIX = "/api/v1";
+    private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
+
     @BeforeEach
     void setUp() {
-
+        USER_JOHN.setPassword(passwordEncoder.encode(USER_JOHN.getPassword()));
+        userRepository.save(USER_JOHN);
     }
 
     @AfterEach
     void tearDown() {
+        notificationRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
     }
 
     @Test
+    @WithMockAuthUser
     void getNotifications() throws Exception {
+        createNotifications(12);
+        QueryBudget queryBudget = new QueryBudget(entityManagerFactory);
+
+        int smallPageQueryCount = queryBudget.assertWithin(NOTIFICATION_LISTING_QUERY_BUDGET,
+                () -> getNotificationPage(2));
+        int largePageQueryCount = queryBudget.assertWithin(NOTIFICATION_LISTING_QUERY_BUDGET,
+                () -> getNotificationPage(12));
+
+        assertThat(largePageQueryCount).isEqualTo(smallPageQueryCount);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldHoldTenThousandIdleStreams_whenHeartbeatsAreSent() throws Exception {
+        int connectionCount = 10_000;
+        List<String> tokens = createStreamUsers(connectionCount).stream()
+                .map(user -> jwtTokenService.generateToken(new UserPrincipal(user)))
+                .toList();
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<CompletableFuture<HttpResponse<Stream<String>>>> streams = tokens.stream()
+                .map(token -> httpClient.sendAsync(newStreamRequest(token), HttpResponse.BodyHandlers.ofLines()))
+                .toList();
+        try {
+            CompletableFuture.allOf(streams.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+            assertThat(streams).allSatisfy(stream -> assertThat(stream.join().statusCode()).isEqualTo(200));
+            assertThat(notificationStreamService.getSubscriberCount()).isEqualTo(connectionCount);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                notificationStreamService.sendHeartbeats();
+            }
+            long heartbeatMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(heartbeatMillis).isLessThan(1000L);
+            assertThat(streams.get(connectionCount - 1).join().body().findFirst())
+                    .hasValueSatisfying(line -> assertThat(line).startsWith(":heartbeat"));
+            assertThat(notificationStreamService.getSubscriberCount()).isEqualTo(connectionCount);
+        } finally {
+            streams.forEach(stream -> stream.thenAccept(response -> response.body().close()));
+        }
     }
 
     @Test
@@ -34,4 +147,56 @@ class NotificationControllerIntegrationTest {
     @Test
     void markAllRead() {
     }
-}
\ No newline at end of file
+
+    private void createNotifications(int count) {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User sender = MockResourceRepo.getMockUserJane();
+            sender.setEmail("notification.sender" + i + "@dom.com");
+            sender = userRepository.save(sender);
+
+            Post owningPost = MockResourceRepo.getPostOne();
+            owningPost.setAuthor(userJohn);
+            owningPost = postRepository.save(owningPost);
+
+            Notification notification = MockResourceRepo.getNotificationOne();
+            notification.setType(NotificationType.POST_LIKE.name());
+            notification.setReceiver(userJohn);
+            notification.setSender(sender);
+            notification.setOwningPost(owningPost);
+            notification.setActorCount(1);
+            notification.setRecentActorIds(new ArrayList<>(List.of(sender.getId())));
+            notification.setDateCreated(new Date(1_000_000L + i * 1000L));
+            notification.setDateUpdated(new Date(1_000_000L + i * 1000L));
+            notification.setDateLastModified(new Date());
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+    }
+
+    private List<User> createStreamUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = MockResourceRepo.getMockUserJane();
+            user.setEmail("stream.user" + i + "@dom.com");
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private HttpRequest newStreamRequest(String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + API_URL_PREFIX + "/notifications/stream"))
+                .header(HttpHeaders.AUTHORIZATION, AppConstants.TOKEN_PREFIX + token)
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+    }
+
+    private void getNotificationPage(int size) throws Exception {
+        mockMvc.perform(get(API_URL_PREFIX + "/notifications")
+                        .param("page", "1")
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(size)));
+    }
+}
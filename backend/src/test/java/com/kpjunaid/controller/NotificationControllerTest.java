@@ -3,6 +3,7 @@ package com.kpjunaid.controller;
 import com.kpjunaid.shared.MockResource;
 import com.kpjunaid.shared.WithMockAuthUser;
 import com.kpjunaid.entity.Notification;
+import com.kpjunaid.response.NotificationSummaryResponse;
 import com.kpjunaid.service.NotificationService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +13,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -47,7 +49,10 @@ class NotificationControllerTest {
     @WithMockAuthUser
     void shouldReturnListOfNotifications() throws Exception {
         when(notificationService.getNotificationsForAuthUserPaginate(0, 5))
-                .thenReturn(List.of(NOTIFICATION_ONE));
+                .thenReturn(List.of(NotificationSummaryResponse.builder()
+                        .id(NOTIFICATION_ONE.getId())
+                        .type(NOTIFICATION_ONE.getType())
+                        .build()));
 
         mockMvc.perform(get(API_URL_PREFIX + "/notifications")
                         .param("page", "1")
@@ -58,19 +63,41 @@ class NotificationControllerTest {
 
     @Test
     @WithMockAuthUser
-    void shouldReturnOK_whenNotificationsAreMarkedSeen() throws Exception {
-        doNothing().when(notificationService).markAllSeen();
+    void shouldReturnMarkedCount_whenNotificationsAreMarkedSeen() throws Exception {
+        when(notificationService.markAllSeen()).thenReturn(1);
 
         mockMvc.perform(post(API_URL_PREFIX + "/notifications/mark-seen"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(1));
     }
 
     @Test
     @WithMockAuthUser
-    void shouldReturnOK_whenNotificationsAreMarkedRead() throws Exception {
-        doNothing().when(notificationService).markAllRead();
+    void shouldReturnMarkedCount_whenNotificationsAreMarkedRead() throws Exception {
+        when(notificationService.markAllRead()).thenReturn(1);
 
         mockMvc.perform(post(API_URL_PREFIX + "/notifications/mark-read"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(1));
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldReturnUnreadCount() throws Exception {
+        when(notificationService.getUnseenCountForAuthUser()).thenReturn(3L);
+
+        mockMvc.perform(get(API_URL_PREFIX + "/notifications/unread-count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(3));
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldStartEventStream_whenNotificationsAreStreamed() throws Exception {
+        when(notificationService.subscribeForAuthUser()).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get(API_URL_PREFIX + "/notifications/stream"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
     }
-}
\ No newline at end of file
+}
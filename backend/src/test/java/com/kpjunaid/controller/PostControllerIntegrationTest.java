@@ -1,9 +1,12 @@
 package com.kpjunaid.controller;
 
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.UserPrincipal;
 import com.kpjunaid.dto.TagDto;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Notification;
 import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.enumeration.NotificationType;
 import com.kpjunaid.exception.CommentNotFoundException;
@@ -11,6 +14,7 @@ import com.kpjunaid.exception.PostNotFoundException;
 import com.kpjunaid.repository.*;
 import com.kpjunaid.service.*;
 import com.kpjunaid.shared.MockResourceRepo;
+import com.kpjunaid.shared.QueryBudget;
 import com.kpjunaid.shared.WithMockAuthUser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,11 +23,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -75,6 +83,14 @@ class PostControllerIntegrationTest {
     @Autowired
     NotificationRepository notificationRepository;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JwtTokenService jwtTokenService;
+
+    private static final int POST_LISTING_QUERY_BUDGET = 8;
+
     private final String API_URL_PREFIX = "/api/v1";
     private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
     private final User USER_JANE = MockResourceRepo.getMockUserJane();
@@ -128,7 +144,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void updatePost() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
         String postTagsString = "[{\"tagName\":\"TagOne\",\"action\":\"add\"}]";
         String fileContent = "some-file-content";
         MockMultipartFile postPhoto = new MockMultipartFile(
@@ -151,7 +167,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void deletePost() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/delete", postOne.getId()))
                 .andExpect(status().isOk());
@@ -161,11 +177,25 @@ class PostControllerIntegrationTest {
         }).isInstanceOf(PostNotFoundException.class);
     }
 
+    @Test
+    void shouldDeleteOwnPost_whenAuthUserIsServedFromCache() throws Exception {
+        String authorization = AppConstants.TOKEN_PREFIX + jwtTokenService.generateToken(new UserPrincipal(USER_JOHN));
+
+        mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/like", POST_TWO.getId())
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/delete", POST_ONE.getId())
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        assertThat(postRepository.findById(POST_ONE.getId())).isEmpty();
+    }
+
     @Test
     @WithMockAuthUser
     void deletePostPhoto() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
         String fileContent = "some-file-content";
         MockMultipartFile postPhoto = new MockMultipartFile(
                 "postPhoto",
@@ -187,7 +217,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getPostById() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         mockMvc.perform(get(API_URL_PREFIX + "/posts/{postId}", postOne.getId()))
                 .andExpect(status().isOk())
@@ -198,7 +228,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getPostLikes() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         postService.likePost(postOne.getId());
 
@@ -213,7 +243,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getPostShares() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         postService.createPostShare("Post One Share", postOne.getId());
 
@@ -228,7 +258,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getPostComments() throws Exception {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post postOne = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         postService.createPostComment(postOne.getId(), "Post One Comment");
 
@@ -243,7 +273,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void likePost() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/like", postTwo.getId()))
                 .andExpect(status().isOk());
@@ -263,7 +293,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void unlikePost() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         postService.likePost(postTwo.getId());
 
@@ -284,7 +314,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void createPostComment() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/comments/create", postTwo.getId())
                         .param("content", "Post One Comment"))
@@ -303,7 +333,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void updatePostComment() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Comment commentOne = postService.createPostComment(postTwo.getId(), "Post One Comment");
 
@@ -317,7 +347,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void deletePostComment() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Comment commentOne = postService.createPostComment(postTwo.getId(), "Post One Comment");
 
@@ -333,7 +363,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void likePostComment() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Comment commentOne = postService.createPostComment(postTwo.getId(), "Post One Comment");
 
@@ -348,7 +378,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void unlikePostComment() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Comment commentOne = postService.createPostComment(postTwo.getId(), "Post One Comment");
         commentService.likeComment(commentOne.getId());
@@ -367,7 +397,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getCommentLikeList() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Comment commentOne = postService.createPostComment(postTwo.getId(), "Post One Comment");
         commentService.likeComment(commentOne.getId());
@@ -383,7 +413,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void createPostShare() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         mockMvc.perform(post(API_URL_PREFIX + "/posts/{postId}/share/create", postTwo.getId())
                         .param("content", "Post Two Share"))
@@ -404,7 +434,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void updatePostShare() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Post postTwoShare = postService.createPostShare("Post Two Share", postTwo.getId());
 
@@ -418,7 +448,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void deletePostShare() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         Post postTwoShare = postService.createPostShare("Post Two Share", postTwo.getId());
 
@@ -444,7 +474,7 @@ class PostControllerIntegrationTest {
     @WithMockAuthUser
     void getPostsByTag() throws Exception {
         User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
-        Post postTwo = postRepository.findPostsByAuthor(userJane, PageRequest.of(0, 5)).get(0);
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
 
         List<TagDto> postTagsToAdd = List.of(new TagDto("TagOne", "add"));
         postService.updatePost(postTwo.getId(), postTwo.getContent(), null, postTagsToAdd);
@@ -455,4 +485,74 @@ class PostControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
     }
+
+    @Test
+    @WithMockAuthUser
+    void shouldLoadPostsByTagWithinQueryBudget_whenPostsHaveDistinctAuthors() throws Exception {
+        Tag tag = tagRepository.save(Tag.builder().name("BudgetTag").tagUseCounter(0).build());
+        List<User> authors = createAuthors(12);
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < authors.size(); i++) {
+            Post post = MockResourceRepo.getPostTwo();
+            post.setContent("Budget Post " + i);
+            post.setAuthor(authors.get(i));
+            post.setDateCreated(new Date(1_000_000L + i * 1000L));
+            post.getPostTags().add(tag);
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+        QueryBudget queryBudget = new QueryBudget(entityManagerFactory);
+
+        int smallPageQueryCount = queryBudget.assertWithin(POST_LISTING_QUERY_BUDGET,
+                () -> getPostListPage(API_URL_PREFIX + "/posts/tags/BudgetTag", 2));
+        int largePageQueryCount = queryBudget.assertWithin(POST_LISTING_QUERY_BUDGET,
+                () -> getPostListPage(API_URL_PREFIX + "/posts/tags/BudgetTag", 12));
+
+        assertThat(largePageQueryCount).isEqualTo(smallPageQueryCount);
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldLoadPostSharesWithinQueryBudget_whenSharesHaveDistinctAuthors() throws Exception {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Post postOne = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+        List<User> authors = createAuthors(12);
+        List<Post> shares = new ArrayList<>();
+        for (int i = 0; i < authors.size(); i++) {
+            Post share = MockResourceRepo.getPostTwoShare();
+            share.setContent("Budget Share " + i);
+            share.setAuthor(authors.get(i));
+            share.setSharedPost(postOne);
+            share.setDateCreated(new Date(1_000_000L + i * 1000L));
+            shares.add(share);
+        }
+        postRepository.saveAll(shares);
+        QueryBudget queryBudget = new QueryBudget(entityManagerFactory);
+
+        int smallPageQueryCount = queryBudget.assertWithin(POST_LISTING_QUERY_BUDGET,
+                () -> getPostListPage(API_URL_PREFIX + "/posts/" + postOne.getId() + "/shares", 2));
+        int largePageQueryCount = queryBudget.assertWithin(POST_LISTING_QUERY_BUDGET,
+                () -> getPostListPage(API_URL_PREFIX + "/posts/" + postOne.getId() + "/shares", 12));
+
+        assertThat(largePageQueryCount).isEqualTo(smallPageQueryCount);
+    }
+
+    private List<User> createAuthors(int count) {
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User author = MockResourceRepo.getMockUserJane();
+            author.setEmail("budget.author" + i + "@dom.com");
+            author.setFirstName("Author" + i);
+            authors.add(author);
+        }
+        return userRepository.saveAll(authors);
+    }
+
+    private void getPostListPage(String url, int size) throws Exception {
+        mockMvc.perform(get(url)
+                        .param("page", "1")
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(size)));
+    }
 }
\ No newline at end of file
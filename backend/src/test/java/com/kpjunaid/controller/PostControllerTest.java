@@ -7,6 +7,7 @@ import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.mapper.ReadModelMapper;
 import com.kpjunaid.response.CommentResponse;
 import com.kpjunaid.response.PostResponse;
 import com.kpjunaid.service.CommentService;
@@ -38,6 +39,9 @@ class PostControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    ReadModelMapper readModelMapper;
+
     @MockBean
     PostService postService;
 
@@ -129,7 +133,7 @@ class PostControllerTest {
     @WithMockAuthUser
     void shouldReturnPost_whenPostIdIsGiven() throws Exception {
         when(postService.getPostResponseById(POST_ONE.getId()))
-                .thenReturn(new PostResponse(POST_ONE, false));
+                .thenReturn(new PostResponse(readModelMapper.postToPostSummary(POST_ONE), false));
 
         mockMvc.perform(get(API_URL_PREFIX + "/posts/{postId}", POST_ONE.getId()))
                 .andExpect(status().isOk())
@@ -155,7 +159,7 @@ class PostControllerTest {
     void shouldReturnListOfPostShares_whenPostIdIsGiven() throws Exception {
         when(postService.getPostById(POST_ONE.getId())).thenReturn(POST_ONE);
         when(postService.getPostSharesPaginate(POST_ONE, 0, 5))
-                .thenReturn(List.of(new PostResponse(POST_ONE_SHARE, false)));
+                .thenReturn(List.of(new PostResponse(readModelMapper.postToPostSummary(POST_ONE_SHARE), false)));
 
         mockMvc.perform(get(API_URL_PREFIX + "/posts/{postId}/shares", POST_ONE.getId())
                         .param("page", "1")
@@ -169,7 +173,7 @@ class PostControllerTest {
     void shouldReturnListOfPostComments_whenPostIdIsGiven() throws Exception {
         when(postService.getPostById(POST_ONE.getId())).thenReturn(POST_ONE);
         when(commentService.getPostCommentsPaginate(POST_ONE, 0, 5))
-                .thenReturn(List.of(new CommentResponse(COMMENT_ONE, false)));
+                .thenReturn(List.of(new CommentResponse(readModelMapper.commentToCommentSummary(COMMENT_ONE), false)));
 
         mockMvc.perform(get(API_URL_PREFIX + "/posts/{postId}/comments", POST_ONE.getId())
                         .param("page", "1")
@@ -295,8 +299,8 @@ class PostControllerTest {
         when(tagService.getTagByName(TAG_ONE.getName())).thenReturn(TAG_ONE);
         when(postService.getPostByTagPaginate(TAG_ONE, 0, 5))
                 .thenReturn(List.of(
-                        new PostResponse(POST_ONE, false),
-                        new PostResponse(POST_TWO, false)
+                        new PostResponse(readModelMapper.postToPostSummary(POST_ONE), false),
+                        new PostResponse(readModelMapper.postToPostSummary(POST_TWO), false)
                 ));
 
         mockMvc.perform(get(API_URL_PREFIX + "/posts/tags/{tagName}", TAG_ONE.getName())
@@ -305,4 +309,21 @@ class PostControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockAuthUser
+    void shouldReturnListOfPosts_whenSearchKeyIsGiven() throws Exception {
+        when(postService.getPostSearchResult("content", 0, 5))
+                .thenReturn(List.of(
+                        new PostResponse(readModelMapper.postToPostSummary(POST_ONE), false),
+                        new PostResponse(readModelMapper.postToPostSummary(POST_TWO), false)
+                ));
+
+        mockMvc.perform(get(API_URL_PREFIX + "/posts/search")
+                        .param("key", "content")
+                        .param("page", "1")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+}
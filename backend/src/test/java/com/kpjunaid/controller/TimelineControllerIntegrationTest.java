@@ -1,23 +1,40 @@
 package com.kpjunaid.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.repository.PostRepository;
 import com.kpjunaid.repository.TagRepository;
 import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.service.TimelineService;
 import com.kpjunaid.service.UserService;
 import com.kpjunaid.shared.MockResourceRepo;
+import com.kpjunaid.shared.QueryCountInspector;
 import com.kpjunaid.shared.WithMockAuthUser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -32,6 +49,9 @@ class TimelineControllerIntegrationTest {
     @Autowired
     UserService userService;
 
+    @Autowired
+    TimelineService timelineService;
+
     @Autowired
     PasswordEncoder passwordEncoder;
 
@@ -44,6 +64,12 @@ class TimelineControllerIntegrationTest {
     @Autowired
     TagRepository tagRepository;
 
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     private final String API_URL_PREFIX = "/api/v1";
     private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
     private final User USER_JANE = MockResourceRepo.getMockUserJane();
@@ -67,8 +93,8 @@ class TimelineControllerIntegrationTest {
 
     @AfterEach
     void tearDown() {
-        tagRepository.deleteAll();
         postRepository.deleteAll();
+        tagRepository.deleteAll();
         userRepository.deleteAll();
     }
 
@@ -86,6 +112,85 @@ class TimelineControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(2)));
     }
 
+    @Test
+    @WithMockAuthUser
+    void shouldServeEachPostOnce_whenPostIsFannedOutAgain() throws Exception {
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        userService.followUser(userJane.getId());
+        getTimelinePage(5);
+
+        Post postTwo = postRepository.findPostsByAuthorIdIn(List.of(userJane.getId()), PageRequest.of(0, 5)).get(0);
+        timelineService.fanOutPost(postTwo);
+        timelineService.fanOutPost(postTwo);
+
+        assertThat(getPostIds(getTimelinePage(5))).hasSize(2).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldInterleavePushedAndPulledPosts_whenFollowingAuthorAboveHybridThreshold() throws Exception {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        userService.followUser(userJane.getId());
+        getTimelinePage(5);
+
+        System.setProperty("feed.hybrid.follower-threshold", "0");
+        try {
+            List<Long> newestFirstPostIds = new ArrayList<>();
+            long newestDate = System.currentTimeMillis() + 60_000L;
+            for (int i = 0; i < 6; i++) {
+                User author = i % 2 == 0 ? userJane : userJohn;
+                Post post = MockResourceRepo.getPostTwo();
+                post.setContent("Hybrid Post " + i);
+                post.setAuthor(author);
+                post.setDateCreated(new Date(newestDate - i * 1000L));
+                post.setIsFannedOut(timelineService.shouldFanOut(author.getId()));
+                Post savedPost = postRepository.save(post);
+                timelineService.fanOutPost(savedPost);
+                newestFirstPostIds.add(savedPost.getId());
+            }
+
+            assertThat(newestFirstPostIds.stream()
+                    .map(postId -> postRepository.findById(postId).get().getIsFannedOut())
+                    .toList()).containsExactly(false, true, false, true, false, true);
+
+            List<Long> pagedPostIds = new ArrayList<>(getPostIds(getTimelinePage(1, 3)));
+            pagedPostIds.addAll(getPostIds(getTimelinePage(2, 3)));
+            assertThat(pagedPostIds).containsExactlyElementsOf(newestFirstPostIds);
+
+            MvcResult firstCursorPage = mockMvc.perform(get(API_URL_PREFIX + "/").param("size", "4"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String nextCursor = JsonPath.read(firstCursorPage.getResponse().getContentAsString(), "$.nextCursor");
+            MvcResult secondCursorPage = mockMvc.perform(get(API_URL_PREFIX + "/")
+                            .param("cursor", nextCursor)
+                            .param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            List<Long> cursorPostIds = new ArrayList<>(getPostIds(firstCursorPage, "$.content[*].post.id"));
+            cursorPostIds.addAll(getPostIds(secondCursorPage, "$.content[*].post.id"));
+            assertThat(cursorPostIds).containsExactlyElementsOf(newestFirstPostIds);
+        } finally {
+            System.clearProperty("feed.hybrid.follower-threshold");
+        }
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldRespondBadRequest_whenTimelineCursorIsMalformed() throws Exception {
+        String undecodableCursor = "not*base64";
+        String nonNumericDateCursor = PageCursor.of("yesterday", "", 5L).encode();
+
+        for (String cursor : List.of(undecodableCursor, nonNumericDateCursor)) {
+            mockMvc.perform(get(API_URL_PREFIX + "/")
+                            .param("cursor", cursor)
+                            .param("size", "5"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(AppConstants.INVALID_CURSOR));
+        }
+    }
+
     @Test
     @WithMockAuthUser
     void getTimelineTags() throws Exception {
@@ -97,4 +202,105 @@ class TimelineControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$.[0].name").value("TagTwo"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockAuthUser
+    void shouldLoadTimelineWithConstantQueryCount_whenPageSizeGrows() throws Exception {
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        userService.followUser(userJane.getId());
+        createTaggedPosts(userJane, 20);
+        getTimelinePage(2);
+
+        QueryCountInspector.reset();
+        getTimelinePage(2);
+        int smallPageQueryCount = QueryCountInspector.getCount();
+
+        QueryCountInspector.reset();
+        getTimelinePage(20);
+        int largePageQueryCount = QueryCountInspector.getCount();
+
+        assertThat(largePageQueryCount).isEqualTo(smallPageQueryCount);
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldServeSmallerPayloadThanEntities_whenTimelineIsRequested() throws Exception {
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        userService.followUser(userJane.getId());
+        createTaggedPosts(userJane, 20);
+
+        MvcResult result = getTimelinePage(20);
+        List<Long> postIds = getPostIds(result);
+
+        assertThat(postIds).hasSize(20);
+        assertThat(result.getResponse().getContentAsByteArray().length).isLessThan(getEntityPayloadSize(postIds));
+    }
+
+    @Test
+    @WithMockAuthUser
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldKeepTimelineQueriesAndPayloadBounded_whenFiveHundredPostsAreFollowed() throws Exception {
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        userService.followUser(userJane.getId());
+        createTaggedPosts(userJane, 500);
+        getTimelinePage(10);
+
+        List<Integer> queryCounts = new ArrayList<>();
+        for (int size : new int[] { 10, 50, 100 }) {
+            QueryCountInspector.reset();
+            MvcResult result = getTimelinePage(size);
+            int queryCount = QueryCountInspector.getCount();
+            int payloadSize = result.getResponse().getContentAsByteArray().length;
+            int entityPayloadSize = getEntityPayloadSize(getPostIds(result));
+
+            assertThat(getPostIds(result)).hasSize(size);
+            assertThat(queryCount).isLessThanOrEqualTo(10);
+            assertThat(payloadSize).isLessThan(entityPayloadSize);
+            queryCounts.add(queryCount);
+        }
+        assertThat(queryCounts).containsOnly(queryCounts.get(0));
+    }
+
+    private void createTaggedPosts(User author, int count) {
+        Tag tag = tagRepository.save(Tag.builder().name("TimelineTag").tagUseCounter(count).build());
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Post post = MockResourceRepo.getPostTwo();
+            post.setContent("Timeline Post " + i);
+            post.setAuthor(author);
+            post.setDateCreated(new Date(1_000_000L + i * 1000L));
+            post.getPostTags().add(tag);
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+    }
+
+    private MvcResult getTimelinePage(int size) throws Exception {
+        return getTimelinePage(1, size);
+    }
+
+    private MvcResult getTimelinePage(int page, int size) throws Exception {
+        return mockMvc.perform(get(API_URL_PREFIX + "/")
+                        .param("page", String.valueOf(page))
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private List<Long> getPostIds(MvcResult result) throws Exception {
+        return getPostIds(result, "$[*].post.id");
+    }
+
+    private List<Long> getPostIds(MvcResult result, String idPath) throws Exception {
+        List<Number> postIds = JsonPath.read(result.getResponse().getContentAsString(), idPath);
+        return postIds.stream().map(Number::longValue).toList();
+    }
+
+    private int getEntityPayloadSize(List<Long> postIds) {
+        return transactionTemplate.execute(status -> objectMapper.valueToTree(
+                postRepository.findAllById(postIds).stream()
+                        .map(post -> Map.<String, Object>of("post", post, "likedByAuthUser", false))
+                        .toList())
+                .toString().getBytes(StandardCharsets.UTF_8).length);
+    }
+}
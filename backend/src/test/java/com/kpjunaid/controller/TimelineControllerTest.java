@@ -6,6 +6,7 @@ import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.mapper.ReadModelMapper;
 import com.kpjunaid.response.PostResponse;
 import com.kpjunaid.service.PostService;
 import com.kpjunaid.service.TagService;
@@ -32,6 +33,9 @@ class TimelineControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    ReadModelMapper readModelMapper;
+
     @MockBean
     PostService postService;
 
@@ -61,8 +65,8 @@ class TimelineControllerTest {
     void shouldReturnListOfTimelinePosts() throws Exception {
         when(postService.getTimelinePostsPaginate(0, 5))
                 .thenReturn(List.of(
-                        new PostResponse(POST_ONE, false),
-                        new PostResponse(POST_TWO, false)
+                        new PostResponse(readModelMapper.postToPostSummary(POST_ONE), false),
+                        new PostResponse(readModelMapper.postToPostSummary(POST_TWO), false)
                 ));
 
         mockMvc.perform(get(API_URL_PREFIX + "/")
@@ -82,4 +86,17 @@ class TimelineControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockAuthUser
+    void shouldReturnTagSuggestions_whenPrefixIsGiven() throws Exception {
+        when(tagService.getTagSuggestions("Tag"))
+                .thenReturn(List.of(TAG_ONE.getName(), TAG_TWO.getName()));
+
+        mockMvc.perform(get(API_URL_PREFIX + "/tags/suggest")
+                        .param("prefix", "Tag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]").value(TAG_ONE.getName()));
+    }
+}
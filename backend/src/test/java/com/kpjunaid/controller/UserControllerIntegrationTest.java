@@ -1,6 +1,7 @@
 package com.kpjunaid.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.kpjunaid.common.AppConstants;
 import com.kpjunaid.common.UserPrincipal;
 import com.kpjunaid.dto.*;
@@ -12,11 +13,13 @@ import com.kpjunaid.service.JwtTokenService;
 import com.kpjunaid.service.PostService;
 import com.kpjunaid.service.UserService;
 import com.kpjunaid.shared.MockResourceRepo;
+import com.kpjunaid.shared.QueryCountInspector;
 import com.kpjunaid.shared.WithMockAuthUser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,6 +28,14 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
@@ -58,6 +69,9 @@ class UserControllerIntegrationTest {
     @Autowired
     PostRepository postRepository;
 
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
     private final ObjectMapper mapper = new ObjectMapper();
     private final String API_URL_PREFIX = "/api/v1";
     private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
@@ -342,4 +356,92 @@ class UserControllerIntegrationTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockAuthUser
+    void shouldLoadUserPostsWithConstantQueryCount_whenPageSizeGrows() throws Exception {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        createPosts(userJohn, 20);
+        getUserPostsPage(userJohn, 2);
+
+        QueryCountInspector.reset();
+        getUserPostsPage(userJohn, 2);
+        int smallPageQueryCount = QueryCountInspector.getCount();
+
+        QueryCountInspector.reset();
+        getUserPostsPage(userJohn, 20);
+        int largePageQueryCount = QueryCountInspector.getCount();
+
+        assertThat(largePageQueryCount).isEqualTo(smallPageQueryCount);
+    }
+
+    @Test
+    @WithMockAuthUser
+    void shouldServeSmallerPayloadThanEntities_whenUserPostsAreRequested() throws Exception {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        createPosts(userJohn, 20);
+
+        MvcResult result = getUserPostsPage(userJohn, 20);
+        List<Long> postIds = getPostIds(result);
+
+        assertThat(postIds).hasSize(20);
+        assertThat(result.getResponse().getContentAsByteArray().length).isLessThan(getEntityPayloadSize(postIds));
+    }
+
+    @Test
+    @WithMockAuthUser
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldKeepUserPostsQueriesAndPayloadBounded_whenUserHasFiveHundredPosts() throws Exception {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        createPosts(userJohn, 500);
+        getUserPostsPage(userJohn, 10);
+
+        List<Integer> queryCounts = new ArrayList<>();
+        for (int size : new int[] { 10, 50, 100 }) {
+            QueryCountInspector.reset();
+            MvcResult result = getUserPostsPage(userJohn, size);
+            int queryCount = QueryCountInspector.getCount();
+            int payloadSize = result.getResponse().getContentAsByteArray().length;
+            int entityPayloadSize = getEntityPayloadSize(getPostIds(result));
+
+            assertThat(getPostIds(result)).hasSize(size);
+            assertThat(queryCount).isLessThanOrEqualTo(10);
+            assertThat(payloadSize).isLessThan(entityPayloadSize);
+            queryCounts.add(queryCount);
+        }
+        assertThat(queryCounts).containsOnly(queryCounts.get(0));
+    }
+
+    private void createPosts(User author, int count) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Post post = MockResourceRepo.getPostOne();
+            post.setContent("User Post " + i);
+            post.setAuthor(author);
+            post.setDateCreated(new Date(1_000_000L + i * 1000L));
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+    }
+
+    private MvcResult getUserPostsPage(User author, int size) throws Exception {
+        return mockMvc.perform(get(API_URL_PREFIX + "/users/{userId}/posts", author.getId())
+                        .param("page", "1")
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private List<Long> getPostIds(MvcResult result) throws Exception {
+        List<Number> postIds = JsonPath.read(result.getResponse().getContentAsString(), "$[*].post.id");
+        return postIds.stream().map(Number::longValue).toList();
+    }
+
+    private int getEntityPayloadSize(List<Long> postIds) {
+        return transactionTemplate.execute(status -> mapper.valueToTree(
+                postRepository.findAllById(postIds).stream()
+                        .map(post -> Map.<String, Object>of("post", post, "likedByAuthUser", false))
+                        .toList())
+                .toString().getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -8,6 +8,7 @@ import com.kpjunaid.shared.WithMockAuthUser;
 import com.kpjunaid.dto.*;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.mapper.ReadModelMapper;
 import com.kpjunaid.response.PostResponse;
 import com.kpjunaid.response.UserResponse;
 import com.kpjunaid.service.JwtTokenService;
@@ -43,6 +44,9 @@ class UserControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    ReadModelMapper readModelMapper;
+
     @MockBean
     UserService userService;
 
@@ -267,8 +271,8 @@ class UserControllerTest {
     @Test
     @WithMockAuthUser
     void shouldReturnUserAccount_whenUserIdIsGiven() throws Exception {
-        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(userService.getUserById(USER_JOHN.getId())).thenReturn(USER_JOHN);
+        when(userService.getUserResponseById(USER_JOHN.getId()))
+                .thenReturn(UserResponse.builder().user(USER_JOHN).followedByAuthUser(false).build());
 
         mockMvc.perform(get(API_URL_PREFIX + "/users/{userId}", USER_JOHN.getId()))
                 .andExpect(status().isOk())
@@ -282,8 +286,8 @@ class UserControllerTest {
         when(postService.getPostsByUserPaginate(USER_JOHN, 0, 5))
                 .thenReturn(
                         List.of(
-                                new PostResponse(POST_ONE, false),
-                                new PostResponse(POST_TWO, false)
+                                new PostResponse(readModelMapper.postToPostSummary(POST_ONE), false),
+                                new PostResponse(readModelMapper.postToPostSummary(POST_TWO), false)
                         )
                 );
 
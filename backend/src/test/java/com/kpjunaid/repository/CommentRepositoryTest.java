@@ -3,6 +3,7 @@ package com.kpjunaid.repository;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.projection.CommentSummaryProjection;
 import com.kpjunaid.shared.MockResourceRepo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,10 +56,50 @@ class CommentRepositoryTest {
     @Test
     void shouldReturnListComments_whenPostIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post targetPost = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post targetPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         List<Comment> returnedCommentList = commentRepository.findByPost(targetPost,  PageRequest.of(0, 5));
 
         assertThat(returnedCommentList.size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSeekPastTiedDates_whenCommentSummaryCursorIsGiven() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Post targetPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+        Date tiedDate = new Date(1_000_000L);
+        List<Long> tiedCommentIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Comment comment = MockResourceRepo.getCommentOne();
+            comment.setAuthor(userJohn);
+            comment.setPost(targetPost);
+            comment.setDateCreated(tiedDate);
+            tiedCommentIds.add(commentRepository.save(comment).getId());
+        }
+
+        List<CommentSummaryProjection> firstPage = commentRepository.findCommentSummariesByPostBefore(
+                targetPost, tiedDate, tiedCommentIds.get(2), PageRequest.of(0, 1));
+        CommentSummaryProjection lastSeen = firstPage.get(0);
+        List<CommentSummaryProjection> secondPage = commentRepository.findCommentSummariesByPostBefore(
+                targetPost, lastSeen.getDateCreated(), lastSeen.getId(), PageRequest.of(0, 5));
+
+        assertThat(firstPage).extracting(CommentSummaryProjection::getId).containsExactly(tiedCommentIds.get(1));
+        assertThat(secondPage).extracting(CommentSummaryProjection::getId).containsExactly(tiedCommentIds.get(0));
+    }
+
+    @Test
+    void shouldInsertLikeOnce_whenCommentIsLikedTwice() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Post targetPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+        Comment targetComment = commentRepository.findByPost(targetPost, PageRequest.of(0, 5)).get(0);
+
+        int firstInsert = commentRepository.insertCommentLike(targetComment.getId(), userJohn.getId());
+        int secondInsert = commentRepository.insertCommentLike(targetComment.getId(), userJohn.getId());
+
+        assertThat(firstInsert).isEqualTo(1);
+        assertThat(secondInsert).isEqualTo(0);
+        assertThat(commentRepository.findCommentIdsLikedByUser(List.of(targetComment.getId()), userJohn.getId()))
+                .containsExactly(targetComment.getId());
+        assertThat(commentRepository.deleteCommentLike(targetComment.getId(), userJohn.getId())).isEqualTo(1);
+    }
+}
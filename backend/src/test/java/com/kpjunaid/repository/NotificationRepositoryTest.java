@@ -5,7 +5,11 @@ import com.kpjunaid.entity.Notification;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.projection.NotificationRetentionProjection;
+import com.kpjunaid.projection.NotificationSummaryProjection;
 import com.kpjunaid.shared.MockResourceRepo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,12 +17,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class NotificationRepositoryTest {
     @Autowired
     NotificationRepository notificationRepository;
@@ -32,6 +39,9 @@ class NotificationRepositoryTest {
     @Autowired
     CommentRepository commentRepository;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
     private final User USER_JANE = MockResourceRepo.getMockUserJane();
     private final Post POST_ONE = MockResourceRepo.getPostOne();
@@ -71,7 +81,7 @@ class NotificationRepositoryTest {
     @Test
     void shouldReturnOptionalOfNotification_whenReceiverOwningPostAndTypeIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post owningPost = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         Optional<Notification> returnedNotification = notificationRepository
                 .findByReceiverAndOwningPostAndType(userJohn, owningPost, NotificationType.POST_LIKE.name());
@@ -82,34 +92,16 @@ class NotificationRepositoryTest {
     @Test
     void shouldReturnListOfNotification_whenReceiverIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        List<Notification> returnedNotificationList = notificationRepository
-                .findNotificationsByReceiver(userJohn, PageRequest.of(0, 5));
+        List<NotificationSummaryProjection> returnedNotificationList = notificationRepository
+                .findNotificationSummariesByReceiver(userJohn, PageRequest.of(0, 5));
 
         assertThat(returnedNotificationList.size()).isEqualTo(1);
     }
 
-    @Test
-    void shouldReturnListOfUnseenNotification_whenReceiverIsGiven() {
-        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        List<Notification> returnedNotificationList = notificationRepository
-                .findNotificationsByReceiverAndIsSeenIsFalse(userJohn);
-
-        assertThat(returnedNotificationList.get(0).getIsSeen()).isFalse();
-    }
-
-    @Test
-    void shouldReturnListOfUnreadNotification_whenReceiverIsGiven() {
-        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        List<Notification> returnedNotificationList = notificationRepository
-                .findNotificationsByReceiverAndIsReadIsFalse(userJohn);
-
-        assertThat(returnedNotificationList.get(0).getIsRead()).isFalse();
-    }
-
     @Test
     void shouldDeleteNotification_whenOwningPostIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post owningPost = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         notificationRepository.deleteNotificationByOwningPost(owningPost);
 
@@ -122,7 +114,7 @@ class NotificationRepositoryTest {
     @Test
     void shouldDeleteNotification_whenOwningCommentIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post owningPost = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
         Comment owningComment = commentRepository.findByPost(owningPost, PageRequest.of(0, 5)).get(0);
 
         notificationRepository.deleteNotificationByOwningComment(owningComment);
@@ -132,4 +124,154 @@ class NotificationRepositoryTest {
 
         assertThat(deletedNotification.isPresent()).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRecordActorOnce_whenSameActorIsAddedTwice() {
+        Long notificationId = NOTIFICATION_ONE.getId();
+        Long actorId = USER_JANE.getId();
+
+        assertThat(notificationRepository.insertNotificationActor(notificationId, actorId)).isEqualTo(1);
+        assertThat(notificationRepository.insertNotificationActor(notificationId, actorId)).isEqualTo(0);
+        assertThat(notificationRepository.deleteNotificationActor(notificationId, actorId)).isEqualTo(1);
+        assertThat(notificationRepository.deleteNotificationActor(notificationId, actorId)).isEqualTo(0);
+    }
+
+    @Test
+    void shouldDeleteNotificationWithActors_whenRetentionDeletesByIds() {
+        Long notificationId = NOTIFICATION_ONE.getId();
+        notificationRepository.insertNotificationActor(notificationId, USER_JANE.getId());
+
+        notificationRepository.deleteNotificationActorsByNotificationIdIn(List.of(notificationId));
+        int deletedCount = notificationRepository.deleteNotificationsByIdIn(List.of(notificationId));
+
+        assertThat(deletedCount).isEqualTo(1);
+        assertThat(notificationRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldMarkAllSeenInOneStatement_whenBacklogGrows() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+
+        long smallBacklogStatements = countStatements(() ->
+                assertThat(notificationRepository.markAllSeenByReceiver(userJohn, new Date())).isEqualTo(1));
+        addUnseenNotifications(userJohn, 50);
+        long largeBacklogStatements = countStatements(() ->
+                assertThat(notificationRepository.markAllSeenByReceiver(userJohn, new Date())).isEqualTo(50));
+
+        assertThat(smallBacklogStatements).isEqualTo(1);
+        assertThat(largeBacklogStatements).isEqualTo(smallBacklogStatements);
+        assertThat(notificationRepository.markAllSeenByReceiver(userJohn, new Date())).isZero();
+    }
+
+    @Test
+    void shouldMarkAllReadInOneStatement_whenBacklogGrows() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+
+        long smallBacklogStatements = countStatements(() ->
+                assertThat(notificationRepository.markAllReadByReceiver(userJohn, new Date())).isEqualTo(1));
+        addUnseenNotifications(userJohn, 50);
+        long largeBacklogStatements = countStatements(() ->
+                assertThat(notificationRepository.markAllReadByReceiver(userJohn, new Date())).isEqualTo(50));
+
+        assertThat(smallBacklogStatements).isEqualTo(1);
+        assertThat(largeBacklogStatements).isEqualTo(smallBacklogStatements);
+        assertThat(notificationRepository.markAllReadByReceiver(userJohn, new Date())).isZero();
+    }
+
+    @Test
+    void shouldReturnOnlyReadNotificationsOlderThanCutoff_whenRetentionRuns() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Date cutoff = new Date();
+        addUnseenNotifications(userJohn, 3);
+        Notification expiredNotification = notificationRepository.findAll().get(0);
+        expiredNotification.setDateUpdated(new Date(cutoff.getTime() - 86400000L));
+        notificationRepository.saveAndFlush(expiredNotification);
+        notificationRepository.markAllReadByReceiver(userJohn, new Date());
+
+        List<Long> expiredIds = notificationRepository.findReadNotificationIdsBefore(cutoff, PageRequest.of(0, 10));
+
+        assertThat(expiredIds).containsExactly(expiredNotification.getId());
+        assertThat(notificationRepository.deleteNotificationsByIdIn(expiredIds)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnNotificationsBeyondCap_whenReceiverHistoryIsCompacted() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+        for (int i = 0; i < 30; i++) {
+            notificationRepository.save(Notification.builder()
+                    .type(NotificationType.POST_COMMENT.name())
+                    .receiver(userJane)
+                    .owningPost(owningPost)
+                    .isSeen(i % 2 == 0)
+                    .isRead(false)
+                    .dateCreated(new Date(i * 1000L))
+                    .dateUpdated(new Date(i * 1000L))
+                    .build());
+        }
+        notificationRepository.flush();
+
+        List<Long> receiverIds = notificationRepository.findReceiverIdsWithMoreNotificationsThan(10L, PageRequest.of(0, 10));
+        NotificationRetentionProjection newestToDelete = notificationRepository
+                .findRetentionCandidatesByReceiverId(userJane.getId(), PageRequest.of(10, 1)).get(0);
+        List<NotificationRetentionProjection> candidates = notificationRepository.findRetentionCandidatesByReceiverIdFrom(
+                userJane.getId(), newestToDelete.getDateUpdated(), newestToDelete.getId(), PageRequest.of(0, 100));
+
+        assertThat(receiverIds).containsExactly(userJane.getId());
+        assertThat(newestToDelete.getDateUpdated().getTime()).isEqualTo(19000L);
+        assertThat(candidates).hasSize(20);
+        assertThat(candidates).allMatch(candidate -> candidate.getDateUpdated().getTime() <= 19000L);
+    }
+
+    private void addUnseenNotifications(User receiver, int count) {
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(receiver.getId()), PageRequest.of(0, 5)).get(0);
+        for (int i = 0; i < count; i++) {
+            notificationRepository.save(Notification.builder()
+                    .type(NotificationType.POST_COMMENT.name())
+                    .receiver(receiver)
+                    .owningPost(owningPost)
+                    .isSeen(false)
+                    .isRead(false)
+                    .dateCreated(new Date())
+                    .dateUpdated(new Date())
+                    .build());
+        }
+        notificationRepository.flush();
+    }
+
+    private long countStatements(Runnable action) {
+        notificationRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void shouldSeekPastTiedUpdateDates_whenNotificationSummaryCursorIsGiven() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Post owningPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+        Date tiedDate = new Date(1_000_000L);
+        List<Long> tiedNotificationIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Notification notification = MockResourceRepo.getNotificationOne();
+            notification.setReceiver(userJohn);
+            notification.setOwningPost(owningPost);
+            notification.setType(NotificationType.POST_COMMENT.name());
+            notification.setDateUpdated(tiedDate);
+            tiedNotificationIds.add(notificationRepository.save(notification).getId());
+        }
+
+        List<NotificationSummaryProjection> firstPage = notificationRepository.findNotificationSummariesByReceiverBefore(
+                userJohn, tiedDate, tiedNotificationIds.get(2), PageRequest.of(0, 1));
+        NotificationSummaryProjection lastSeen = firstPage.get(0);
+        List<NotificationSummaryProjection> secondPage = notificationRepository.findNotificationSummariesByReceiverBefore(
+                userJohn, lastSeen.getDateUpdated(), lastSeen.getId(), PageRequest.of(0, 5));
+
+        assertThat(firstPage).extracting(NotificationSummaryProjection::getId)
+                .containsExactly(tiedNotificationIds.get(1));
+        assertThat(secondPage).extracting(NotificationSummaryProjection::getId)
+                .containsExactly(tiedNotificationIds.get(0));
+    }
+}
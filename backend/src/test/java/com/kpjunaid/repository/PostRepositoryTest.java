@@ -3,6 +3,7 @@ package com.kpjunaid.repository;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.projection.PostSummaryProjection;
 import com.kpjunaid.shared.MockResourceRepo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -71,14 +74,6 @@ class PostRepositoryTest {
         userRepository.deleteAll();
     }
 
-    @Test
-    void shouldReturnListOfPosts_whenUserIsGiven() {
-        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        List<Post> foundPosts = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5));
-
-        assertThat(foundPosts.size()).isEqualTo(2);
-    }
-
     @Test
     void shouldReturnListOfPosts_whenFollowingAndOwnUserIdIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
@@ -90,7 +85,7 @@ class PostRepositoryTest {
     @Test
     void shouldReturnListOfPostShares_whenSharedPostIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
-        Post sharedPost = postRepository.findPostsByAuthor(userJohn, PageRequest.of(0, 5)).get(0);
+        Post sharedPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
 
         List<Post> foundPostShares = postRepository.findPostsBySharedPost(sharedPost,  PageRequest.of(0, 5));
 
@@ -106,4 +101,63 @@ class PostRepositoryTest {
 
         assertThat(foundPosts.size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnLikedPostIds_whenPostIdsAndLikerAreGiven() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        List<Post> johnPosts = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5));
+        Post likedPost = johnPosts.get(0);
+        likedPost.getLikeList().add(userJane);
+        postRepository.save(likedPost);
+
+        List<Long> likedPostIds = postRepository.findPostIdsLikedByUser(
+                List.of(johnPosts.get(0).getId(), johnPosts.get(1).getId()),
+                userJane.getId()
+        );
+
+        assertThat(likedPostIds).containsExactly(likedPost.getId());
+    }
+
+    @Test
+    void shouldInsertLikeOnceAndAdjustCounter_whenPostIsLikedTwice() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        Post targetPost = postRepository.findPostsByAuthorIdIn(List.of(userJohn.getId()), PageRequest.of(0, 5)).get(0);
+
+        int firstInsert = postRepository.insertPostLike(targetPost.getId(), userJane.getId());
+        int secondInsert = postRepository.insertPostLike(targetPost.getId(), userJane.getId());
+
+        assertThat(firstInsert).isEqualTo(1);
+        assertThat(secondInsert).isEqualTo(0);
+        assertThat(postRepository.findPostIdsLikedByUser(List.of(targetPost.getId()), userJane.getId()))
+                .containsExactly(targetPost.getId());
+
+        int deleted = postRepository.deletePostLike(targetPost.getId(), userJane.getId());
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(postRepository.findPostIdsLikedByUser(List.of(targetPost.getId()), userJane.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldSeekPastTiedDates_whenPostSummaryCursorIsGiven() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        Date tiedDate = new Date(1_000_000L);
+        List<Long> tiedPostIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Post post = MockResourceRepo.getPostOne();
+            post.setAuthor(userJohn);
+            post.setDateCreated(tiedDate);
+            tiedPostIds.add(postRepository.save(post).getId());
+        }
+
+        List<PostSummaryProjection> firstPage = postRepository.findPostSummariesByAuthorIdBefore(
+                userJohn.getId(), tiedDate, tiedPostIds.get(2), PageRequest.of(0, 1));
+        PostSummaryProjection lastSeen = firstPage.get(0);
+        List<PostSummaryProjection> secondPage = postRepository.findPostSummariesByAuthorIdBefore(
+                userJohn.getId(), lastSeen.getDateCreated(), lastSeen.getId(), PageRequest.of(0, 5));
+
+        assertThat(firstPage).extracting(PostSummaryProjection::getId).containsExactly(tiedPostIds.get(1));
+        assertThat(secondPage).extracting(PostSummaryProjection::getId).containsExactly(tiedPostIds.get(0));
+    }
+}
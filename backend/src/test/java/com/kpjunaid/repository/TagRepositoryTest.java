@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,4 +38,11 @@ class TagRepositoryTest {
 
         assertThat(returnedTag.isPresent()).isTrue();
     }
+
+    @Test
+    void shouldReturnOnlyExistingTags_whenNamesAreGiven() {
+        List<Tag> returnedTags = tagRepository.findTagsByNameIn(List.of("New Tag", "Missing Tag"));
+
+        assertThat(returnedTags).extracting(Tag::getName).containsExactly("New Tag");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.kpjunaid.repository;
+
+import com.kpjunaid.entity.TimelineEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TimelineEntryRepositoryTest {
+    @Autowired
+    TimelineEntryRepository timelineEntryRepository;
+
+    @AfterEach
+    void tearDown() {
+        timelineEntryRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSeekPastTiedDates_whenTimelineCursorIsGiven() {
+        Date tiedDate = new Date(1_000_000L);
+        timelineEntryRepository.saveAll(List.of(
+                TimelineEntry.builder().ownerId(1L).postId(30L).authorId(2L).dateCreated(new Date(2_000_000L)).build(),
+                TimelineEntry.builder().ownerId(1L).postId(12L).authorId(2L).dateCreated(tiedDate).build(),
+                TimelineEntry.builder().ownerId(1L).postId(11L).authorId(3L).dateCreated(tiedDate).build(),
+                TimelineEntry.builder().ownerId(1L).postId(10L).authorId(2L).dateCreated(tiedDate).build(),
+                TimelineEntry.builder().ownerId(4L).postId(9L).authorId(2L).dateCreated(tiedDate).build()));
+
+        List<TimelineEntry> firstPage = timelineEntryRepository.findTimelineEntriesByOwnerIdBefore(
+                1L, new Date(2_000_000L), 30L, PageRequest.of(0, 2));
+        TimelineEntry lastSeen = firstPage.get(firstPage.size() - 1);
+        List<TimelineEntry> secondPage = timelineEntryRepository.findTimelineEntriesByOwnerIdBefore(
+                1L, lastSeen.getDateCreated(), lastSeen.getPostId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage).extracting(TimelineEntry::getPostId).containsExactly(12L, 11L);
+        assertThat(secondPage).extracting(TimelineEntry::getPostId).containsExactly(10L);
+    }
+}
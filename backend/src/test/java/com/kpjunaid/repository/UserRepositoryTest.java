@@ -3,14 +3,19 @@ package com.kpjunaid.repository;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.service.UserSearchServiceImpl;
 import com.kpjunaid.shared.MockResourceRepo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +32,9 @@ class UserRepositoryTest {
     @Autowired
     CommentRepository commentRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     private final User USER_JOHN = MockResourceRepo.getMockUserJohn();
     private final User USER_JANE = MockResourceRepo.getMockUserJane();
     private final Post POST_ONE = MockResourceRepo.getPostOne();
@@ -96,6 +104,20 @@ class UserRepositoryTest {
         assertThat(janeFollowerUsers.size()).isEqualTo(1);
     }
 
+    @Test
+    void shouldInsertFollowOnce_whenSameFollowIsInsertedTwice() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+
+        int firstInsert = userRepository.insertFollow(userJane.getId(), userJohn.getId());
+        int secondInsert = userRepository.insertFollow(userJane.getId(), userJohn.getId());
+
+        assertThat(firstInsert).isEqualTo(1);
+        assertThat(secondInsert).isEqualTo(0);
+        assertThat(userRepository.findFollowingIdsByUserId(userJohn.getId())).containsExactly(userJane.getId());
+        assertThat(userRepository.deleteFollow(userJane.getId(), userJohn.getId())).isEqualTo(1);
+    }
+
     @Test
     void shouldReturnListOfPostLikerUsers_whenPostIsGiven() {
         User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
@@ -127,4 +149,102 @@ class UserRepositoryTest {
 
         assertThat(foundUsers.size()).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldSearchUsersFasterThanNameLikeQuery_whenTrigramIndexIsUsed() {
+        int userCount = 200_000;
+        List<Object[]> rows = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            rows.add(new Object[]{"bench" + i + "@dom.com", "User" + Integer.toString(i, 36), "Member" + (i % 1000)});
+        }
+        jdbcTemplate.batchUpdate("insert into users (email, password, first_name, last_name, role) " +
+                "values (?, '@P4ssword', ?, ?, 'ROLE_USER')", rows);
+        UserSearchServiceImpl userSearchService = new UserSearchServiceImpl(userRepository);
+        userSearchService.rebuildIndex();
+
+        String key = "User" + Integer.toString(userCount / 2, 36);
+        List<Long> likeUserIds = userRepository.findUsersByName(key, PageRequest.of(0, 5)).stream()
+                .map(User::getId)
+                .toList();
+        assertThat(userSearchService.searchUserIds(key, 0, 5)).containsExactlyElementsOf(likeUserIds);
+
+        int searches = 50;
+        measureIndexedSearch(userSearchService, key, searches);
+        measureLikeQuery(key, searches);
+        long indexedNanos = measureIndexedSearch(userSearchService, key, searches);
+        long likeNanos = measureLikeQuery(key, searches);
+
+        assertThat(indexedNanos * 10).isLessThan(likeNanos);
+        jdbcTemplate.update("delete from users where email like 'bench%'");
+    }
+
+    @Test
+    void shouldPageFollowersWithoutSkips_whenFollowerNamesTie() {
+        User userJane = userRepository.findByEmail(USER_JANE.getEmail()).get();
+        List<User> followers = createUsersWithTiedNames();
+        followers.forEach(follower -> userRepository.insertFollow(userJane.getId(), follower.getId()));
+
+        List<User> pagedFollowers = new ArrayList<>(userRepository.findUsersByFollowingUsers(userJane, PageRequest.of(0, 2,
+                Sort.by(Sort.Direction.ASC, "firstName", "lastName", "id"))));
+        List<User> nextPage = pagedFollowers;
+        while (nextPage.size() == 2) {
+            User lastSeen = nextPage.get(nextPage.size() - 1);
+            nextPage = userRepository.findFollowerUsersAfter(userJane, lastSeen.getFirstName(), lastSeen.getLastName(),
+                    lastSeen.getId(), PageRequest.of(0, 2));
+            pagedFollowers.addAll(nextPage);
+        }
+
+        assertThat(pagedFollowers).extracting(User::getId)
+                .containsExactlyElementsOf(followers.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldPageFollowingWithoutSkips_whenFollowedNamesTie() {
+        User userJohn = userRepository.findByEmail(USER_JOHN.getEmail()).get();
+        List<User> followedUsers = createUsersWithTiedNames();
+        followedUsers.forEach(followed -> userRepository.insertFollow(followed.getId(), userJohn.getId()));
+
+        List<User> pagedFollowing = new ArrayList<>(userRepository.findUsersByFollowerUsers(userJohn, PageRequest.of(0, 2,
+                Sort.by(Sort.Direction.ASC, "firstName", "lastName", "id"))));
+        List<User> nextPage = pagedFollowing;
+        while (nextPage.size() == 2) {
+            User lastSeen = nextPage.get(nextPage.size() - 1);
+            nextPage = userRepository.findFollowingUsersAfter(userJohn, lastSeen.getFirstName(), lastSeen.getLastName(),
+                    lastSeen.getId(), PageRequest.of(0, 2));
+            pagedFollowing.addAll(nextPage);
+        }
+
+        assertThat(pagedFollowing).extracting(User::getId)
+                .containsExactlyElementsOf(followedUsers.stream().map(User::getId).toList());
+    }
+
+    private List<User> createUsersWithTiedNames() {
+        String[][] names = { {"Amy", "Lee"}, {"Amy", "Lee"}, {"Amy", "Lee"}, {"Amy", "Zed"}, {"Bob", "Lee"} };
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            User user = MockResourceRepo.getMockUserJane();
+            user.setEmail("tied.name" + i + "@dom.com");
+            user.setFirstName(names[i][0]);
+            user.setLastName(names[i][1]);
+            users.add(userRepository.save(user));
+        }
+        return users;
+    }
+
+    private long measureIndexedSearch(UserSearchServiceImpl userSearchService, String key, int searches) {
+        long start = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            assertThat(userSearchService.searchUserIds(key, 0, 5)).hasSize(1);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long measureLikeQuery(String key, int searches) {
+        long start = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            assertThat(userRepository.findUsersByName(key, PageRequest.of(0, 5))).hasSize(1);
+        }
+        return System.nanoTime() - start;
+    }
+}
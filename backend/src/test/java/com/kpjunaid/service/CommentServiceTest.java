@@ -1,12 +1,17 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.exception.InvalidOperationException;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.mapper.ReadModelMapperImpl;
 import com.kpjunaid.repository.CommentRepository;
 import com.kpjunaid.response.CommentResponse;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.shared.MockResource;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
@@ -14,14 +19,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -39,6 +47,15 @@ class CommentServiceTest {
     @Mock
     NotificationService notificationService;
 
+    @Mock
+    LikeService likeService;
+
+    @Mock
+    CounterService counterService;
+
+    @Spy
+    ReadModelMapper readModelMapper = new ReadModelMapperImpl();
+
     private final User USER_JOHN = MockResource.getMockUserJohn();
     private final User USER_JANE = MockResource.getMockUserJane();
     private final Post POST_ONE = MockResource.getPostOne();
@@ -110,33 +127,41 @@ class CommentServiceTest {
     void shouldLikePostComment_whenCommentIdIsGiven() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(commentRepository.findById(COMMENT_ONE.getId())).thenReturn(Optional.of(COMMENT_ONE));
-        when(commentRepository.save(any(Comment.class))).thenReturn(COMMENT_ONE);
+        when(likeService.addCommentLike(COMMENT_ONE.getId(), USER_JANE.getId())).thenReturn(true);
         doNothing().when(notificationService)
                 .sendNotification(USER_JOHN, USER_JANE, POST_ONE, COMMENT_ONE, NotificationType.COMMENT_LIKE.name());
 
-        Comment returnedComment = commentService.likeComment(COMMENT_ONE.getId());
+        commentService.likeComment(COMMENT_ONE.getId());
 
-        verify(commentRepository).save(any(Comment.class));
-        assertThat(returnedComment.getLikeCount()).isEqualTo(1);
-        assertThat(returnedComment.getLikeList().contains(USER_JANE)).isTrue();
+        verify(likeService).addCommentLike(COMMENT_ONE.getId(), USER_JANE.getId());
+        verify(commentRepository, never()).save(any(Comment.class));
+        verify(notificationService)
+                .sendNotification(USER_JOHN, USER_JANE, POST_ONE, COMMENT_ONE, NotificationType.COMMENT_LIKE.name());
     }
 
     @Test
-    void shouldUnlikePostComment_whenCommentIdIsGiven() {
-        COMMENT_ONE.getLikeList().add(USER_JANE);
-        COMMENT_ONE.setLikeCount(COMMENT_ONE.getLikeCount()+1);
+    void shouldThrowInvalidOperation_whenCommentIsAlreadyLiked() {
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
+        when(commentRepository.findById(COMMENT_ONE.getId())).thenReturn(Optional.of(COMMENT_ONE));
+        when(likeService.addCommentLike(COMMENT_ONE.getId(), USER_JANE.getId())).thenReturn(false);
 
+        assertThatThrownBy(() -> commentService.likeComment(COMMENT_ONE.getId()))
+                .isInstanceOf(InvalidOperationException.class);
+        verify(notificationService, never()).sendNotification(any(), any(), any(), any(), anyString());
+    }
+
+    @Test
+    void shouldUnlikePostComment_whenCommentIdIsGiven() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(commentRepository.findById(COMMENT_ONE.getId())).thenReturn(Optional.of(COMMENT_ONE));
-        when(commentRepository.save(any(Comment.class))).thenReturn(COMMENT_ONE);
+        when(likeService.removeCommentLike(COMMENT_ONE.getId(), USER_JANE.getId())).thenReturn(true);
         doNothing().when(notificationService)
                 .removeNotification(USER_JOHN, POST_ONE, NotificationType.COMMENT_LIKE.name());
 
-        Comment returnedComment = commentService.unlikeComment(COMMENT_ONE.getId());
+        commentService.unlikeComment(COMMENT_ONE.getId());
 
-        verify(commentRepository).save(any(Comment.class));
-        assertThat(returnedComment.getLikeCount()).isEqualTo(0);
-        assertThat(returnedComment.getLikeList().contains(USER_JOHN)).isFalse();
+        verify(likeService).removeCommentLike(COMMENT_ONE.getId(), USER_JANE.getId());
+        verify(commentRepository, never()).save(any(Comment.class));
     }
 
     @Test
@@ -148,14 +173,47 @@ class CommentServiceTest {
         COMMENT_ONE.setLikeCount(COMMENT_ONE.getLikeCount()+1);
 
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(commentRepository.findByPost(
-                POST_ONE,
-                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "dateCreated"))
-        )).thenReturn(List.of(COMMENT_ONE));
+        when(commentRepository.findCommentSummariesByPost(POST_ONE, PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getCommentSummary(COMMENT_ONE)));
+        when(likeService.getCommentIdsLikedByUser(List.of(COMMENT_ONE.getId()), USER_JOHN.getId()))
+                .thenReturn(Set.of(COMMENT_ONE.getId()));
 
         List<CommentResponse> returnedCommentList = commentService.getPostCommentsPaginate(POST_ONE, 0, 5);
 
         assertThat(returnedCommentList.size()).isEqualTo(1);
-        Assertions.assertThat(returnedCommentList.get(0).getComment()).isEqualTo(COMMENT_ONE);
+        Assertions.assertThat(returnedCommentList.get(0).getComment().getContent()).isEqualTo(COMMENT_ONE.getContent());
+        assertThat(returnedCommentList.get(0).getComment().getLikeCount()).isEqualTo(COMMENT_ONE.getLikeCount());
+        assertThat(returnedCommentList.get(0).getLikedByAuthUser()).isTrue();
+    }
+
+    @Test
+    void shouldReturnNextCursor_whenFirstCommentCursorPageIsFull() {
+        COMMENT_ONE.setDateCreated(new Date(1000L));
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(commentRepository.findCommentSummariesByPost(POST_ONE, PageRequest.of(0, 1)))
+                .thenReturn(List.of(MockResource.getCommentSummary(COMMENT_ONE)));
+
+        CursorPageResponse<CommentResponse> returnedPage = commentService.getPostCommentsByCursor(POST_ONE, null, 1);
+
+        assertThat(returnedPage.getContent()).hasSize(1);
+        assertThat(returnedPage.getNextCursor())
+                .isEqualTo(PageCursor.of(new Date(1000L), COMMENT_ONE.getId()).encode());
+    }
+
+    @Test
+    void shouldSeekPastCommentCursor_whenCursorIsGiven() {
+        Date cursorDate = new Date(2000L);
+        String cursor = PageCursor.of(cursorDate, 7L).encode();
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(commentRepository.findCommentSummariesByPostBefore(POST_ONE, cursorDate, 7L, PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getCommentSummary(COMMENT_ONE)));
+
+        CursorPageResponse<CommentResponse> returnedPage = commentService.getPostCommentsByCursor(POST_ONE, cursor, 5);
+
+        assertThat(returnedPage.getContent().get(0).getComment().getId()).isEqualTo(COMMENT_ONE.getId());
+        assertThat(returnedPage.getNextCursor()).isNull();
+        verify(commentRepository, never()).findCommentSummariesByPost(any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CounterServiceTest {
+    private static final String POST_LIKE_UPDATE_SQL =
+            "update posts set like_count = coalesce(like_count, 0) + ? where id = ?";
+
+    @InjectMocks
+    CounterServiceImpl counterService;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    private final Post POST_ONE = MockResource.getPostOne();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            runInTransaction(() -> action.accept(null), () -> {});
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldServePersistedValuePlusPendingDelta_whenIncrementsAreNotFlushed() {
+        POST_ONE.setLikeCount(10);
+
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+        counterService.increment(CounterType.POST_SHARE, POST_ONE.getId(), -1);
+        counterService.applyPendingCounts(POST_ONE);
+
+        assertThat(POST_ONE.getLikeCount()).isEqualTo(12);
+        assertThat(POST_ONE.getShareCount()).isEqualTo(-1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void shouldDeferIncrementUntilCommit_whenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+
+            assertThat(counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())).isEqualTo(0);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFlushAggregatedDeltaInOneBatchedUpdate_whenFlushRuns() {
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 1);
+
+        counterService.flushPendingCounts();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(POST_LIKE_UPDATE_SQL), argThat((List<Object[]> args) ->
+                args.size() == 1 && args.get(0)[0].equals(3L) && args.get(0)[1].equals(POST_ONE.getId())));
+        assertThat(counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())).isEqualTo(0);
+    }
+
+    @Test
+    void shouldKeepDeltaPending_whenFlushFails() {
+        when(jdbcTemplate.batchUpdate(eq(POST_LIKE_UPDATE_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database is unavailable"));
+
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 2);
+
+        assertThatThrownBy(() -> counterService.flushPendingCounts())
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropFlushedDeltaAsPartOfCommit_whenFlushCommits() {
+        List<Long> pendingDeltaAtCommit = new ArrayList<>();
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            runInTransaction(() -> action.accept(null), () -> pendingDeltaAtCommit.add(
+                    counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        counterService.increment(CounterType.POST_LIKE, POST_ONE.getId(), 2);
+        counterService.flushPendingCounts();
+
+        assertThat(pendingDeltaAtCommit).containsExactly(2L, 0L);
+        assertThat(counterService.getPendingDelta(CounterType.POST_LIKE, POST_ONE.getId())).isEqualTo(0);
+    }
+
+    private void runInTransaction(Runnable work, Runnable aroundCommit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            aroundCommit.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            aroundCommit.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } catch (RuntimeException e) {
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            throw e;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
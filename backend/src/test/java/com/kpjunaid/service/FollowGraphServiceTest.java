@@ -0,0 +1,95 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.User;
+import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FollowGraphServiceTest {
+    @InjectMocks
+    FollowGraphServiceImpl followGraphService;
+
+    @Mock
+    UserRepository userRepository;
+
+    private final User USER_JOHN = MockResource.getMockUserJohn();
+    private final User USER_JANE = MockResource.getMockUserJane();
+
+    @BeforeEach
+    void setUp() {
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldLoadSortedAdjacencyOnce_whenFollowingIsQueriedRepeatedly() {
+        when(userRepository.findFollowingIdsByUserId(USER_JOHN.getId())).thenReturn(List.of(9L, USER_JANE.getId(), 5L));
+
+        assertThat(followGraphService.isFollowing(USER_JOHN.getId(), USER_JANE.getId())).isTrue();
+        assertThat(followGraphService.isFollowing(USER_JOHN.getId(), 7L)).isFalse();
+        assertThat(followGraphService.getFollowingCount(USER_JOHN.getId())).isEqualTo(3);
+        assertThat(followGraphService.getFollowingIds(USER_JOHN.getId())).isSorted();
+
+        verify(userRepository, times(1)).findFollowingIdsByUserId(USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldReturnFollowedIdsOfPage_whenPageOfUserIdsIsGiven() {
+        when(userRepository.findFollowingIdsByUserId(USER_JOHN.getId())).thenReturn(List.of(USER_JANE.getId(), 5L));
+
+        Set<Long> followedIds = followGraphService.getFollowedIdsAmong(
+                USER_JOHN.getId(), List.of(USER_JANE.getId(), 4L, 5L));
+
+        assertThat(followedIds).containsExactlyInAnyOrder(USER_JANE.getId(), 5L);
+        verify(userRepository, times(1)).findFollowingIdsByUserId(USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldUpdateLoadedAdjacency_whenFollowIsAddedAndRemoved() {
+        when(userRepository.findFollowingIdsByUserId(USER_JOHN.getId())).thenReturn(List.of());
+        when(userRepository.findFollowerIdsByUserId(USER_JANE.getId())).thenReturn(List.of());
+        when(userRepository.insertFollow(USER_JANE.getId(), USER_JOHN.getId())).thenReturn(1);
+        when(userRepository.deleteFollow(USER_JANE.getId(), USER_JOHN.getId())).thenReturn(1);
+
+        assertThat(followGraphService.isFollowing(USER_JOHN.getId(), USER_JANE.getId())).isFalse();
+        assertThat(followGraphService.getFollowerCount(USER_JANE.getId())).isEqualTo(0);
+
+        assertThat(followGraphService.addFollow(USER_JOHN.getId(), USER_JANE.getId())).isTrue();
+        assertThat(followGraphService.isFollowing(USER_JOHN.getId(), USER_JANE.getId())).isTrue();
+        assertThat(followGraphService.getFollowerIds(USER_JANE.getId())).containsExactly(USER_JOHN.getId());
+
+        assertThat(followGraphService.removeFollow(USER_JOHN.getId(), USER_JANE.getId())).isTrue();
+        assertThat(followGraphService.isFollowing(USER_JOHN.getId(), USER_JANE.getId())).isFalse();
+
+        assertThat(followGraphService.getFollowerCount(USER_JANE.getId())).isEqualTo(0);
+
+        verify(userRepository, times(1)).findFollowingIdsByUserId(USER_JOHN.getId());
+        verify(userRepository, times(1)).findFollowerIdsByUserId(USER_JANE.getId());
+    }
+
+    @Test
+    void shouldLeaveAdjacencyUntouched_whenFollowAlreadyExists() {
+        when(userRepository.insertFollow(USER_JANE.getId(), USER_JOHN.getId())).thenReturn(0);
+
+        assertThat(followGraphService.addFollow(USER_JOHN.getId(), USER_JANE.getId())).isFalse();
+
+        verify(userRepository, never()).findFollowingIdsByUserId(anyLong());
+    }
+}
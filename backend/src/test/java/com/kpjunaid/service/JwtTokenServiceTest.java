@@ -0,0 +1,138 @@
+package com.kpjunaid.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.UserPrincipal;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class JwtTokenServiceTest {
+    private static final String JWT_SECRET = "test-secret";
+
+    JwtTokenService jwtTokenService;
+
+    private final User USER_JOHN = MockResource.getMockUserJohn();
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenService = new JwtTokenService();
+        ReflectionTestUtils.setField(jwtTokenService, "jwtSecret", JWT_SECRET);
+        jwtTokenService.initJwtVerifier();
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldReturnSubjectAndAuthoritiesFromOneDecode_whenTokenIsValid() {
+        String token = jwtTokenService.generateToken(new UserPrincipal(USER_JOHN));
+
+        DecodedJWT decodedToken = jwtTokenService.verifyToken(token);
+        List<GrantedAuthority> authorities = jwtTokenService.getAuthoritiesFromToken(decodedToken);
+
+        assertThat(decodedToken.getSubject()).isEqualTo(USER_JOHN.getEmail());
+        assertThat(jwtTokenService.getUserIdFromToken(decodedToken)).isEqualTo(USER_JOHN.getId());
+        assertThat(jwtTokenService.isTokenValid(decodedToken.getSubject(), decodedToken)).isTrue();
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).contains(USER_JOHN.getRole());
+    }
+
+    @Test
+    void shouldSkipSignatureVerification_whenSameTokenIsVerifiedAgain() {
+        String token = jwtTokenService.generateToken(new UserPrincipal(USER_JOHN));
+
+        DecodedJWT firstDecode = jwtTokenService.verifyToken(token);
+        DecodedJWT secondDecode = jwtTokenService.verifyToken(token);
+
+        assertThat(secondDecode).isSameAs(firstDecode);
+    }
+
+    @Test
+    void shouldRejectToken_whenPayloadIsTamperedWithCachedSignature() {
+        String token = jwtTokenService.generateToken(new UserPrincipal(USER_JOHN));
+        jwtTokenService.verifyToken(token);
+
+        String forgedPayload = JWT.create()
+                .withSubject("someone.else@example.com")
+                .sign(Algorithm.HMAC512("other-secret".getBytes()))
+                .split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String forgedToken = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtTokenService.verifyToken(forgedToken))
+                .isInstanceOf(JWTVerificationException.class);
+    }
+
+    @Test
+    void shouldRejectToken_whenTokenIsExpired() {
+        String expiredToken = JWT.create()
+                .withSubject(USER_JOHN.getEmail())
+                .withArrayClaim(AppConstants.AUTHORITIES, new String[] { USER_JOHN.getRole() })
+                .withExpiresAt(new Date(System.currentTimeMillis() - 1000))
+                .sign(Algorithm.HMAC512(JWT_SECRET.getBytes()));
+
+        assertThatThrownBy(() -> jwtTokenService.verifyToken(expiredToken))
+                .isInstanceOf(TokenExpiredException.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldAuthenticateRequestsFasterWithCachedVerifier_whenSameTokenIsReused() {
+        String token = jwtTokenService.generateToken(new UserPrincipal(USER_JOHN));
+        int requests = 200_000;
+        measureRequestAuthentication(token, requests, true);
+        measureRequestAuthentication(token, requests, false);
+
+        long perRequestVerifierNanos = measureRequestAuthentication(token, requests, true);
+        long cachedVerifierNanos = measureRequestAuthentication(token, requests, false);
+
+        assertThat(cachedVerifierNanos * 5).isLessThan(perRequestVerifierNanos);
+    }
+
+    private long measureRequestAuthentication(String token, int requests, boolean buildVerifierPerRequest) {
+        int authenticated = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            if (buildVerifierPerRequest) {
+                String subject = newVerifier().verify(token).getSubject();
+                boolean valid = !newVerifier().verify(token).getExpiresAt().before(new Date());
+                String[] claims = newVerifier().verify(token).getClaim(AppConstants.AUTHORITIES).asArray(String.class);
+                if (subject != null && valid && claims.length > 0) {
+                    authenticated++;
+                }
+            } else {
+                DecodedJWT decodedToken = jwtTokenService.verifyToken(token);
+                if (jwtTokenService.isTokenValid(decodedToken.getSubject(), decodedToken)
+                        && !jwtTokenService.getAuthoritiesFromToken(decodedToken).isEmpty()) {
+                    authenticated++;
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        assertThat(authenticated).isEqualTo(requests);
+        return elapsedNanos;
+    }
+
+    private JWTVerifier newVerifier() {
+        return JWT.require(Algorithm.HMAC512(JWT_SECRET.getBytes())).build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.projection.UnseenCountProjection;
+import com.kpjunaid.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationCountServiceTest {
+    private static final Long USER_ID = 1L;
+
+    @InjectMocks
+    NotificationCountServiceImpl notificationCountService;
+
+    @Mock
+    NotificationRepository notificationRepository;
+
+    @BeforeEach
+    void setUp() {
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldCountFromDatabaseOnce_whenUnseenCountIsReadRepeatedly() {
+        when(notificationRepository.countUnseenByReceiverId(USER_ID)).thenReturn(2L);
+
+        notificationCountService.getUnseenCount(USER_ID);
+        notificationCountService.adjustUnseenCount(USER_ID, 1);
+        notificationCountService.adjustUnseenCounts(List.of(USER_ID, USER_ID), -1);
+        notificationCountService.adjustUnseenCount(USER_ID, 1);
+
+        assertThat(notificationCountService.getUnseenCount(USER_ID)).isEqualTo(2L);
+        verify(notificationRepository, times(1)).countUnseenByReceiverId(USER_ID);
+    }
+
+    @Test
+    void shouldNotGoBelowZero_whenCountIsResetOrOverDecremented() {
+        when(notificationRepository.countUnseenByReceiverId(USER_ID)).thenReturn(1L);
+        notificationCountService.getUnseenCount(USER_ID);
+
+        notificationCountService.adjustUnseenCount(USER_ID, -3);
+        assertThat(notificationCountService.getUnseenCount(USER_ID)).isEqualTo(0L);
+
+        notificationCountService.adjustUnseenCount(USER_ID, 2);
+        notificationCountService.resetUnseenCount(USER_ID);
+        assertThat(notificationCountService.getUnseenCount(USER_ID)).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldCorrectDrift_whenCountsAreReconciled() {
+        when(notificationRepository.countUnseenByReceiverId(USER_ID)).thenReturn(5L);
+        when(notificationRepository.countUnseenByReceiverId(2L)).thenReturn(1L);
+        notificationCountService.getUnseenCount(USER_ID);
+        notificationCountService.getUnseenCount(2L);
+        UnseenCountProjection persistedCount = mock(UnseenCountProjection.class);
+        when(persistedCount.getReceiverId()).thenReturn(USER_ID);
+        when(persistedCount.getUnseenCount()).thenReturn(3L);
+        when(notificationRepository.countUnseenByReceiverIds(anyCollection())).thenReturn(List.of(persistedCount));
+
+        notificationCountService.reconcileUnseenCounts();
+
+        assertThat(notificationCountService.getUnseenCount(USER_ID)).isEqualTo(3L);
+        assertThat(notificationCountService.getUnseenCount(2L)).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,220 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.Notification;
+import com.kpjunaid.entity.NotificationOutboxEvent;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.repository.CommentRepository;
+import com.kpjunaid.repository.NotificationOutboxRepository;
+import com.kpjunaid.repository.NotificationRepository;
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.shared.MockResource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class NotificationOutboxServiceTest {
+    @InjectMocks
+    NotificationOutboxServiceImpl notificationOutboxService;
+
+    @Mock
+    NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    NotificationRepository notificationRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    PostRepository postRepository;
+
+    @Mock
+    CommentRepository commentRepository;
+
+    @Mock
+    NotificationCountService notificationCountService;
+
+    @Mock
+    NotificationStreamService notificationStreamService;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    MeterRegistry meterRegistry;
+
+    private final User USER_JOHN = MockResource.getMockUserJohn();
+    private final User USER_JANE = MockResource.getMockUserJane();
+    private final Post POST_ONE = MockResource.getPostOne();
+    private final Notification NOTIFICATION_ONE = MockResource.getNotificationOne();
+    private final Set<List<Long>> notificationActors = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<Integer> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(USER_JOHN.getId(), USER_JANE.getId()));
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of(POST_ONE.getId()));
+        when(notificationRepository.insertNotificationActor(any(), any())).thenAnswer(invocation ->
+                notificationActors.add(Arrays.<Long>asList(invocation.getArgument(0), invocation.getArgument(1))) ? 1 : 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldRecordCompactEvent_whenNotificationIsSent() {
+        notificationOutboxService.recordEvent(USER_JOHN, USER_JANE, POST_ONE, null, NotificationType.POST_LIKE.name());
+
+        verify(notificationOutboxRepository).save(argThat(event -> event.getReceiverId().equals(USER_JOHN.getId())
+                && event.getSenderId().equals(USER_JANE.getId())
+                && event.getOwningPostId().equals(POST_ONE.getId())
+                && event.getOwningCommentId() == null
+                && event.getType().equals(NotificationType.POST_LIKE.name())));
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void shouldCoalesceDuplicateEventsAndInsertInBulk_whenBatchIsProcessed() {
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of(
+                getEvent(1L, NotificationType.POST_LIKE.name()),
+                getEvent(2L, NotificationType.POST_LIKE.name()),
+                getEvent(3L, NotificationType.POST_COMMENT.name())
+        ));
+
+        int processedCount = notificationOutboxService.processNextBatch();
+
+        assertThat(processedCount).isEqualTo(3);
+        verify(notificationRepository).saveAll(argThat((List<Notification> notifications) -> notifications.size() == 2
+                && notifications.get(0).getActorCount() == 1
+                && notifications.get(0).getRecentActorIds().equals(List.of(USER_JANE.getId()))));
+        verify(notificationRepository, times(2)).insertNotificationActor(isNull(), eq(USER_JANE.getId()));
+        verify(notificationCountService, times(2)).adjustUnseenCount(USER_JOHN.getId(), 1);
+        verify(notificationStreamService, times(2)).publish(eq(USER_JOHN.getId()), any());
+        verify(notificationOutboxRepository).deleteEventsByIdIn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void shouldUpdateExistingNotification_whenEventMatchesMaterializedNotification() {
+        NOTIFICATION_ONE.setIsSeen(true);
+        NOTIFICATION_ONE.setIsRead(true);
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(getEvent(1L, NotificationType.POST_LIKE.name())));
+        when(notificationRepository.findNotificationsByReceiverIdsAndOwningPostIds(anyCollection(), anyCollection()))
+                .thenReturn(List.of(NOTIFICATION_ONE));
+
+        notificationOutboxService.processNextBatch();
+
+        verify(notificationRepository).saveAll(List.of(NOTIFICATION_ONE));
+        verify(notificationCountService).adjustUnseenCount(USER_JOHN.getId(), 1);
+        assertThat(NOTIFICATION_ONE.getIsSeen()).isFalse();
+        assertThat(NOTIFICATION_ONE.getIsRead()).isFalse();
+    }
+
+    @Test
+    void shouldCountDistinctActorsAndKeepRecentWindow_whenEventsAreAggregated() {
+        List<Long> senderIds = List.of(3L, 4L, 5L, 6L, 7L, 3L);
+        List<NotificationOutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < senderIds.size(); i++) {
+            NotificationOutboxEvent event = getEvent((long) i + 1, NotificationType.POST_LIKE.name());
+            event.setSenderId(senderIds.get(i));
+            events.add(event);
+        }
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L));
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class))).thenReturn(events);
+        when(notificationRepository.findNotificationsByReceiverIdsAndOwningPostIds(anyCollection(), anyCollection()))
+                .thenReturn(List.of(NOTIFICATION_ONE));
+
+        notificationOutboxService.processNextBatch();
+
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(6);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).containsExactly(3L, 7L, 6L, 5L, 4L);
+        verify(notificationStreamService).publish(eq(USER_JOHN.getId()), argThat(event -> event.getActorCount() == 6));
+    }
+
+    @Test
+    void shouldNotCountActorAgain_whenActorHasLeftRecentWindow() {
+        NOTIFICATION_ONE.setActorCount(6);
+        NOTIFICATION_ONE.setRecentActorIds(List.of(3L, 4L, 5L, 6L, 7L));
+        notificationActors.add(List.of(NOTIFICATION_ONE.getId(), USER_JANE.getId()));
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(getEvent(1L, NotificationType.POST_LIKE.name())));
+        when(notificationRepository.findNotificationsByReceiverIdsAndOwningPostIds(anyCollection(), anyCollection()))
+                .thenReturn(List.of(NOTIFICATION_ONE));
+
+        notificationOutboxService.processNextBatch();
+
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(6);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).containsExactly(USER_JANE.getId(), 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void shouldNotCountLegacySenderTwice_whenSenderActsAgain() {
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(getEvent(1L, NotificationType.POST_LIKE.name())));
+        when(notificationRepository.findNotificationsByReceiverIdsAndOwningPostIds(anyCollection(), anyCollection()))
+                .thenReturn(List.of(NOTIFICATION_ONE));
+
+        notificationOutboxService.processNextBatch();
+
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(1);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).containsExactly(USER_JANE.getId());
+        assertThat(notificationActors).containsExactly(List.of(NOTIFICATION_ONE.getId(), USER_JANE.getId()));
+    }
+
+    @Test
+    void shouldDropEvent_whenOwningPostNoLongerExists() {
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of());
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class)))
+                .thenReturn(List.of(getEvent(1L, NotificationType.POST_LIKE.name())));
+
+        int processedCount = notificationOutboxService.processNextBatch();
+
+        assertThat(processedCount).isEqualTo(1);
+        verify(notificationRepository, never()).saveAll(anyList());
+        verify(notificationOutboxRepository).deleteEventsByIdIn(List.of(1L));
+        verifyNoInteractions(notificationCountService, notificationStreamService);
+    }
+
+    @Test
+    void shouldStopDraining_whenOutboxIsEmpty() {
+        when(notificationOutboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of());
+
+        notificationOutboxService.drainOutbox();
+
+        verify(notificationOutboxRepository, times(1)).findNextBatch(any(Pageable.class));
+        verify(notificationOutboxRepository, never()).deleteEventsByIdIn(anyCollection());
+        verify(notificationOutboxRepository).findOldestEventDate();
+    }
+
+    private NotificationOutboxEvent getEvent(Long id, String type) {
+        return NotificationOutboxEvent.builder()
+                .id(id)
+                .type(type)
+                .receiverId(USER_JOHN.getId())
+                .senderId(USER_JANE.getId())
+                .owningPostId(POST_ONE.getId())
+                .dateCreated(new Date())
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.NotificationRetentionProjection;
+import com.kpjunaid.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class NotificationRetentionServiceTest {
+    @InjectMocks
+    NotificationRetentionServiceImpl notificationRetentionService;
+
+    @Mock
+    NotificationRepository notificationRepository;
+
+    @Mock
+    NotificationCountService notificationCountService;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    Environment environment;
+
+    @Spy
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<Integer> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldDeleteExpiredReadNotificationsInBoundedBatches_whenBacklogExceedsOneBatch() {
+        List<Long> fullBatch = LongStream.rangeClosed(1, AppConstants.NOTIFICATION_RETENTION_BATCH_SIZE).boxed().toList();
+        when(notificationRepository.findReadNotificationIdsBefore(any(Date.class), any(Pageable.class)))
+                .thenReturn(fullBatch, List.of(5000L), List.of());
+        when(notificationRepository.deleteNotificationsByIdIn(fullBatch)).thenReturn(fullBatch.size());
+        when(notificationRepository.deleteNotificationsByIdIn(List.of(5000L))).thenReturn(1);
+
+        int reclaimedCount = notificationRetentionService.purgeExpiredNotifications();
+
+        assertThat(reclaimedCount).isEqualTo(fullBatch.size() + 1);
+        verify(notificationRepository, times(2)).findReadNotificationIdsBefore(any(Date.class), any(Pageable.class));
+        assertThat(meterRegistry.counter("notification.retention.reclaimed", "reason", "expired").count())
+                .isEqualTo(fullBatch.size() + 1);
+        assertThat(meterRegistry.timer("notification.retention.batch", "reason", "expired").count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldUseConfiguredReadMaxAge_whenPropertyIsSet() {
+        when(environment.getProperty("notification.retention.read-max-age-days", Long.class)).thenReturn(30L);
+        when(notificationRepository.findReadNotificationIdsBefore(any(Date.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        long expectedCutoff = System.currentTimeMillis() - 30 * 86400000L;
+
+        notificationRetentionService.purgeExpiredNotifications();
+
+        verify(notificationRepository).findReadNotificationIdsBefore(
+                argThat(cutoff -> Math.abs(cutoff.getTime() - expectedCutoff) < 60000L), any(Pageable.class));
+    }
+
+    @Test
+    void shouldDeleteHistoryBeyondCapAndAdjustUnseenCount_whenReceiverExceedsCap() {
+        NotificationRetentionProjection newestToDelete = getCandidate(11L, true);
+        List<NotificationRetentionProjection> candidates = List.of(
+                newestToDelete, getCandidate(10L, false), getCandidate(9L, false));
+        when(environment.getProperty("notification.retention.max-per-receiver", Integer.class)).thenReturn(10);
+        when(notificationRepository.findReceiverIdsWithMoreNotificationsThan(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(1L));
+        when(notificationRepository.findRetentionCandidatesByReceiverId(eq(1L), argThat(page -> page.getOffset() == 10)))
+                .thenReturn(List.of(newestToDelete));
+        when(notificationRepository.findRetentionCandidatesByReceiverIdFrom(
+                eq(1L), eq(newestToDelete.getDateUpdated()), eq(11L), any(Pageable.class)))
+                .thenReturn(candidates);
+        when(notificationRepository.deleteNotificationsByIdIn(List.of(11L, 10L, 9L))).thenReturn(3);
+
+        int reclaimedCount = notificationRetentionService.compactReceiverHistories();
+
+        assertThat(reclaimedCount).isEqualTo(3);
+        verify(notificationCountService).adjustUnseenCount(1L, -2L);
+        assertThat(meterRegistry.counter("notification.retention.reclaimed", "reason", "compacted").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotDeleteAnything_whenNoReceiverExceedsCap() {
+        when(notificationRepository.findReceiverIdsWithMoreNotificationsThan(
+                eq((long) AppConstants.NOTIFICATION_RETENTION_DEFAULT_MAX_PER_RECEIVER), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        int reclaimedCount = notificationRetentionService.compactReceiverHistories();
+
+        assertThat(reclaimedCount).isEqualTo(0);
+        verify(notificationRepository, never()).deleteNotificationsByIdIn(anyCollection());
+        verifyNoInteractions(notificationCountService);
+    }
+
+    private NotificationRetentionProjection getCandidate(Long id, Boolean isSeen) {
+        Date dateUpdated = new Date(id * 1000L);
+        return new NotificationRetentionProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Boolean getIsSeen() {
+                return isSeen;
+            }
+
+            @Override
+            public Date getDateUpdated() {
+                return dateUpdated;
+            }
+        };
+    }
+}
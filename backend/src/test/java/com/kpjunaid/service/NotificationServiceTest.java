@@ -1,22 +1,27 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Notification;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
 import com.kpjunaid.enumeration.NotificationType;
-import com.kpjunaid.exception.NotificationNotFoundException;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.mapper.ReadModelMapperImpl;
 import com.kpjunaid.repository.NotificationRepository;
+import com.kpjunaid.response.CursorPageResponse;
+import com.kpjunaid.response.NotificationSummaryResponse;
 import com.kpjunaid.shared.MockResource;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +40,21 @@ class NotificationServiceTest {
     @Mock
     UserService userService;
 
+    @Mock
+    NotificationCountService notificationCountService;
+
+    @Mock
+    NotificationStreamService notificationStreamService;
+
+    @Mock
+    NotificationOutboxService notificationOutboxService;
+
+    @Mock
+    CounterService counterService;
+
+    @Spy
+    ReadModelMapper readModelMapper = new ReadModelMapperImpl();
+
     private final User USER_JOHN = MockResource.getMockUserJohn();
     private final User USER_JANE = MockResource.getMockUserJane();
     private final Post POST_ONE = MockResource.getPostOne();
@@ -75,10 +95,7 @@ class NotificationServiceTest {
     }
 
     @Test
-    void shouldCreateAndSendNewNotification_whenAllArgumentsAreGiven() {
-        when(notificationRepository.findByReceiverAndOwningPostAndType(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name()))
-                .thenThrow(NotificationNotFoundException.class);
-
+    void shouldRecordOutboxEventOnly_whenNotificationIsSent() {
         notificationService.sendNotification(
                 USER_JOHN,
                 USER_JANE,
@@ -87,32 +104,54 @@ class NotificationServiceTest {
                 NotificationType.POST_LIKE.name()
         );
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutboxService).recordEvent(USER_JOHN, USER_JANE, POST_ONE, null, NotificationType.POST_LIKE.name());
+        verifyNoInteractions(notificationRepository, notificationCountService, notificationStreamService);
     }
 
     @Test
-    void shouldUpdateAndSendExistingNotification_whenRequiredArgumentsAreGiven() {
+    void shouldRemoveAnExistingNotification_whenReceiverOwningPostAndTypeAreGiven() {
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(notificationRepository.findByReceiverAndOwningPostAndType(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name()))
                 .thenReturn(Optional.of(NOTIFICATION_ONE));
+        when(notificationRepository.deleteNotificationActor(NOTIFICATION_ONE.getId(), USER_JANE.getId())).thenReturn(1);
 
-        notificationService.sendNotification(
+        notificationService.removeNotification(
                 USER_JOHN,
-                USER_JANE,
                 POST_ONE,
-                null,
                 NotificationType.POST_LIKE.name()
         );
 
         verify(notificationRepository).save(any(Notification.class));
-        assertThat(NOTIFICATION_ONE.getIsSeen()).isFalse();
-        assertThat(NOTIFICATION_ONE.getIsRead()).isFalse();
+        assertThat(NOTIFICATION_ONE.getSender()).isNull();
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(0);
     }
 
     @Test
-    void shouldRemoveAnExistingNotification_whenReceiverOwningPostAndTypeAreGiven() {
+    void shouldOnlyDiscardPendingEvent_whenNotificationIsNotMaterializedYet() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
+        when(notificationOutboxService.discardPendingEvents(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name(), USER_JANE))
+                .thenReturn(1);
+
+        notificationService.removeNotification(
+                USER_JOHN,
+                POST_ONE,
+                NotificationType.POST_LIKE.name()
+        );
+
+        verify(notificationRepository, never()).findByReceiverAndOwningPostAndType(any(), any(), any());
+        verify(notificationRepository, never()).save(any(Notification.class));
+    }
+
+    @Test
+    void shouldHandOverToPreviousActor_whenLatestActorIsRemoved() {
+        NOTIFICATION_ONE.setSender(USER_JOHN);
+        NOTIFICATION_ONE.setActorCount(2);
+        NOTIFICATION_ONE.setRecentActorIds(List.of(USER_JOHN.getId(), USER_JANE.getId()));
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(userService.getUserById(USER_JANE.getId())).thenReturn(USER_JANE);
         when(notificationRepository.findByReceiverAndOwningPostAndType(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name()))
                 .thenReturn(Optional.of(NOTIFICATION_ONE));
+        when(notificationRepository.deleteNotificationActor(NOTIFICATION_ONE.getId(), USER_JOHN.getId())).thenReturn(1);
 
         notificationService.removeNotification(
                 USER_JOHN,
@@ -120,47 +159,121 @@ class NotificationServiceTest {
                 NotificationType.POST_LIKE.name()
         );
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationRepository).save(NOTIFICATION_ONE);
+        assertThat(NOTIFICATION_ONE.getSender()).isEqualTo(USER_JANE);
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(1);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).containsExactly(USER_JANE.getId());
+    }
+
+    @Test
+    void shouldBackfillSenderAsActor_whenLegacyNotificationSenderIsRemoved() {
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
+        when(notificationRepository.findByReceiverAndOwningPostAndType(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name()))
+                .thenReturn(Optional.of(NOTIFICATION_ONE));
+        when(notificationRepository.deleteNotificationActor(NOTIFICATION_ONE.getId(), USER_JANE.getId())).thenReturn(1);
+
+        notificationService.removeNotification(
+                USER_JOHN,
+                POST_ONE,
+                NotificationType.POST_LIKE.name()
+        );
+
+        verify(notificationRepository).insertNotificationActor(NOTIFICATION_ONE.getId(), USER_JANE.getId());
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(0);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).isEmpty();
         assertThat(NOTIFICATION_ONE.getSender()).isNull();
     }
 
     @Test
-    void shouldReturnListOfNotificationsForAuthUser() {
+    void shouldKeepActorCount_whenRemovedUserIsNotRecordedActor() {
+        NOTIFICATION_ONE.setActorCount(3);
+        NOTIFICATION_ONE.setRecentActorIds(List.of(USER_JANE.getId()));
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(notificationRepository.findNotificationsByReceiver(
+        when(notificationRepository.findByReceiverAndOwningPostAndType(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name()))
+                .thenReturn(Optional.of(NOTIFICATION_ONE));
+
+        notificationService.removeNotification(
                 USER_JOHN,
-                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "dateUpdated"))
-        )).thenReturn(List.of(NOTIFICATION_ONE));
+                POST_ONE,
+                NotificationType.POST_LIKE.name()
+        );
+
+        assertThat(NOTIFICATION_ONE.getActorCount()).isEqualTo(3);
+        assertThat(NOTIFICATION_ONE.getRecentActorIds()).containsExactly(USER_JANE.getId());
+    }
 
-        List<Notification> returnedNotificationList = notificationService.getNotificationsForAuthUserPaginate(0, 5);
+    @Test
+    void shouldReturnListOfNotificationsForAuthUser() {
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(notificationRepository.findNotificationSummariesByReceiver(USER_JOHN, PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getNotificationSummary(NOTIFICATION_ONE)));
+
+        List<NotificationSummaryResponse> returnedNotificationList =
+                notificationService.getNotificationsForAuthUserPaginate(0, 5);
 
         assertThat(returnedNotificationList.size()).isEqualTo(1);
+        assertThat(returnedNotificationList.get(0).getSender().getFirstName()).isEqualTo(USER_JANE.getFirstName());
+        assertThat(returnedNotificationList.get(0).getOwningPost().getId()).isEqualTo(POST_ONE.getId());
+        assertThat(returnedNotificationList.get(0).getOwningComment()).isNull();
+    }
+
+    @Test
+    void shouldReturnNextCursorFromDateUpdated_whenFirstNotificationCursorPageIsFull() {
+        NOTIFICATION_ONE.setDateCreated(new Date(1000L));
+        NOTIFICATION_ONE.setDateUpdated(new Date(4000L));
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(notificationRepository.findNotificationSummariesByReceiver(USER_JOHN, PageRequest.of(0, 1)))
+                .thenReturn(List.of(MockResource.getNotificationSummary(NOTIFICATION_ONE)));
+
+        CursorPageResponse<NotificationSummaryResponse> returnedPage =
+                notificationService.getNotificationsForAuthUserByCursor(null, 1);
+
+        assertThat(returnedPage.getContent()).hasSize(1);
+        assertThat(returnedPage.getNextCursor())
+                .isEqualTo(PageCursor.of(new Date(4000L), NOTIFICATION_ONE.getId()).encode());
+    }
+
+    @Test
+    void shouldSeekPastNotificationCursor_whenCursorIsGiven() {
+        Date cursorDate = new Date(2000L);
+        String cursor = PageCursor.of(cursorDate, 7L).encode();
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(notificationRepository.findNotificationSummariesByReceiverBefore(
+                USER_JOHN, cursorDate, 7L, PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getNotificationSummary(NOTIFICATION_ONE)));
+
+        CursorPageResponse<NotificationSummaryResponse> returnedPage =
+                notificationService.getNotificationsForAuthUserByCursor(cursor, 5);
+
+        assertThat(returnedPage.getContent().get(0).getId()).isEqualTo(NOTIFICATION_ONE.getId());
+        assertThat(returnedPage.getNextCursor()).isNull();
+        verify(notificationRepository, never()).findNotificationSummariesByReceiver(any(), any());
     }
 
     @Test
     void shouldMarkAllUnseenNotificationsAsSeen() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(notificationRepository.findNotificationsByReceiverAndIsSeenIsFalse(
-                USER_JOHN)).thenReturn(List.of(NOTIFICATION_ONE));
+        when(notificationRepository.markAllSeenByReceiver(eq(USER_JOHN), any(Date.class))).thenReturn(3);
 
-        notificationService.markAllSeen();
+        int markedCount = notificationService.markAllSeen();
 
-        verify(notificationRepository, times(1)).save(any(Notification.class));
-        assertThat(NOTIFICATION_ONE.getIsSeen()).isTrue();
-        assertThat(NOTIFICATION_ONE.getIsSeen()).isTrue();
+        assertThat(markedCount).isEqualTo(3);
+        verify(notificationCountService).adjustUnseenCount(USER_JOHN.getId(), -3);
+        verify(notificationRepository, never()).save(any(Notification.class));
     }
 
     @Test
     void shouldMarkAllUnreadNotificationsAsRead() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(notificationRepository.findNotificationsByReceiverAndIsReadIsFalse(
-                USER_JOHN)).thenReturn(List.of(NOTIFICATION_ONE));
+        when(notificationRepository.markAllReadByReceiver(eq(USER_JOHN), any(Date.class))).thenReturn(3);
 
-        notificationService.markAllRead();
+        int markedCount = notificationService.markAllRead();
 
-        verify(notificationRepository, times(1)).save(any(Notification.class));
-        assertThat(NOTIFICATION_ONE.getIsRead()).isTrue();
-        assertThat(NOTIFICATION_ONE.getIsRead()).isTrue();
+        assertThat(markedCount).isEqualTo(3);
+        verify(notificationCountService).resetUnseenCount(USER_JOHN.getId());
+        verify(notificationRepository, never()).save(any(Notification.class));
     }
 
     @Test
@@ -176,11 +289,15 @@ class NotificationServiceTest {
 
     @Test
     void shouldDeleteNotification_whenOwningPostGiven() {
+        when(notificationRepository.findUnseenReceiverIdsByOwningPost(POST_ONE))
+                .thenReturn(List.of(USER_JOHN.getId(), USER_JOHN.getId()));
         doNothing().when(notificationRepository).deleteNotificationByOwningPost(POST_ONE);
 
         notificationService.deleteNotificationByOwningPost(POST_ONE);
 
         verify(notificationRepository).deleteNotificationByOwningPost(POST_ONE);
+        verify(notificationOutboxService).discardPendingEventsByOwningPost(POST_ONE);
+        verify(notificationCountService).adjustUnseenCounts(List.of(USER_JOHN.getId(), USER_JOHN.getId()), -1);
     }
 
     @Test
@@ -190,5 +307,17 @@ class NotificationServiceTest {
         notificationService.deleteNotificationByOwningComment(COMMENT_ONE);
 
         verify(notificationRepository).deleteNotificationByOwningComment(COMMENT_ONE);
+        verify(notificationOutboxService).discardPendingEventsByOwningComment(COMMENT_ONE);
+    }
+
+    @Test
+    void shouldReturnUnseenCountOfAuthUser() {
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(notificationCountService.getUnseenCount(USER_JOHN.getId())).thenReturn(4L);
+
+        long unseenCount = notificationService.getUnseenCountForAuthUser();
+
+        assertThat(unseenCount).isEqualTo(4L);
+        verifyNoInteractions(notificationRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.response.NotificationEventResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationStreamServiceTest {
+    @InjectMocks
+    NotificationStreamServiceImpl notificationStreamService;
+
+    @Mock
+    Environment environment;
+
+    @BeforeEach
+    void setUp() {
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationStreamService.shutdown();
+    }
+
+    @Test
+    void shouldKeepNewestConnections_whenUserOpensTooManyStreams() {
+        List<SseEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < AppConstants.NOTIFICATION_STREAM_MAX_PER_USER + 2; i++) {
+            emitters.add(notificationStreamService.subscribe(1L));
+        }
+        notificationStreamService.subscribe(2L);
+
+        assertThat(emitters).doesNotHaveDuplicates();
+        assertThat(notificationStreamService.getSubscriberCount())
+                .isEqualTo(AppConstants.NOTIFICATION_STREAM_MAX_PER_USER + 1);
+    }
+
+    @Test
+    void shouldNotFail_whenEventIsPublishedToUserWithoutStreams() {
+        NotificationEventResponse event = NotificationEventResponse.builder()
+                .notificationId(1L)
+                .type("POST_LIKE")
+                .build();
+
+        assertThatCode(() -> notificationStreamService.publish(3L, event)).doesNotThrowAnyException();
+        assertThat(notificationStreamService.getSubscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PostSearchServiceTest {
+    @InjectMocks
+    PostSearchServiceImpl postSearchService;
+
+    @Mock
+    PostRepository postRepository;
+
+    @Mock
+    Environment environment;
+
+    @TempDir
+    Path indexDirectory;
+
+    @BeforeEach
+    void setUp() {
+        when(environment.getProperty("search.post.index-dir")).thenReturn(indexDirectory.toString());
+        postSearchService.loadSegments();
+
+        postSearchService.indexPost(1L, "Spring Boot makes Spring applications easy to run.");
+        postSearchService.indexPost(2L, "Angular talks to the Spring backend over REST.");
+        postSearchService.indexPost(3L, "Weekend hiking photos, no code today!");
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldRankPostsByBm25_whenTermsAreSearched() {
+        assertThat(postSearchService.searchPostIds("spring", 0, 5)).containsExactly(1L, 2L);
+        assertThat(postSearchService.searchPostIds("SPRING angular", 0, 5)).containsExactly(2L, 1L);
+        assertThat(postSearchService.searchPostIds("hiking", 0, 5)).containsExactly(3L);
+    }
+
+    @Test
+    void shouldReflectUpdatesAndDeletes_whenPostsChangeAcrossSegments() {
+        postSearchService.flushIndex();
+
+        postSearchService.indexPost(1L, "Now about hiking instead");
+        postSearchService.removePost(2L);
+
+        assertThat(postSearchService.searchPostIds("spring", 0, 5)).isEmpty();
+        assertThat(postSearchService.searchPostIds("hiking", 0, 5)).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void shouldRestoreIndexFromSegmentFiles_whenServiceRestarts() {
+        postSearchService.flushIndex();
+        postSearchService.removePost(3L);
+        postSearchService.indexPost(4L, "Spring cleaning");
+        postSearchService.flushIndex();
+
+        PostSearchServiceImpl restartedService = new PostSearchServiceImpl(postRepository, environment);
+        restartedService.loadSegments();
+
+        assertThat(restartedService.searchPostIds("spring", 0, 5))
+                .isEqualTo(postSearchService.searchPostIds("spring", 0, 5));
+        assertThat(restartedService.searchPostIds("hiking", 0, 5)).isEmpty();
+        assertThat(restartedService.searchPostIds("cleaning", 0, 5)).containsExactly(4L);
+    }
+
+    @Test
+    void shouldDropHardDeletedPosts_whenCatchingUpFromSegments() {
+        postSearchService.flushIndex();
+        PostSearchServiceImpl restartedService = new PostSearchServiceImpl(postRepository, environment);
+        restartedService.loadSegments();
+        when(postRepository.findPostContentsModifiedSince(any(Date.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+
+        restartedService.catchUpIndex();
+
+        assertThat(restartedService.searchPostIds("hiking", 0, 5)).isEmpty();
+        assertThat(restartedService.searchPostIds("spring", 0, 5)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldKeepLiveUpdate_whenCatchUpReadsOlderContent() {
+        postSearchService.flushIndex();
+        PostSearchServiceImpl restartedService = new PostSearchServiceImpl(postRepository, environment);
+        restartedService.loadSegments();
+        when(postRepository.findPostContentsModifiedSince(any(Date.class), eq(0L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    restartedService.indexPost(3L, "Rainy weekend, code all day");
+                    return List.of(MockResource.getPostContent(3L, "Weekend hiking photos, no code today!"));
+                });
+        when(postRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 3L));
+
+        restartedService.catchUpIndex();
+
+        assertThat(restartedService.searchPostIds("hiking", 0, 5)).isEmpty();
+        assertThat(restartedService.searchPostIds("rainy", 0, 5)).containsExactly(3L);
+    }
+}
@@ -1,13 +1,21 @@
 package com.kpjunaid.service;
 
+import com.kpjunaid.common.PageCursor;
 import com.kpjunaid.dto.TagDto;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.Tag;
+import com.kpjunaid.entity.TimelineEntry;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.CounterType;
 import com.kpjunaid.enumeration.NotificationType;
+import com.kpjunaid.mapper.ReadModelMapper;
+import com.kpjunaid.mapper.ReadModelMapperImpl;
+import com.kpjunaid.projection.PostTagProjection;
 import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.response.CursorPageResponse;
 import com.kpjunaid.response.PostResponse;
+import com.kpjunaid.response.PostSummaryResponse;
 import com.kpjunaid.shared.MockResource;
 import com.kpjunaid.util.FileNamingUtil;
 import com.kpjunaid.util.FileUploadUtil;
@@ -16,6 +24,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.stubbing.Answer;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.core.env.Environment;
@@ -25,12 +34,14 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @DataJpaTest
@@ -50,9 +61,27 @@ class PostServiceTest {
     @Mock
     TagService tagService;
 
+    @Mock
+    TrendingTagService trendingTagService;
+
     @Mock
     NotificationService notificationService;
 
+    @Mock
+    TimelineService timelineService;
+
+    @Mock
+    LikeService likeService;
+
+    @Mock
+    CounterService counterService;
+
+    @Mock
+    PostSearchService postSearchService;
+
+    @Spy
+    ReadModelMapper readModelMapper = new ReadModelMapperImpl();
+
     @Mock
     Environment environment;
 
@@ -94,21 +123,85 @@ class PostServiceTest {
         PostResponse returnedPostResponse = postService.getPostResponseById(POST_ONE.getId());
 
         assertThat(returnedPostResponse).isNotNull();
-        assertThat(returnedPostResponse.getPost()).isEqualTo(POST_ONE);
+        assertThat(returnedPostResponse.getPost().getId()).isEqualTo(POST_ONE.getId());
+        assertThat(returnedPostResponse.getPost().getAuthor().getFirstName()).isEqualTo(USER_JOHN.getFirstName());
         assertThat(returnedPostResponse.getLikedByAuthUser()).isFalse();
     }
 
     @Test
     void shouldReturnListOfTimelinePosts() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
-        when(postRepository.findPostsByAuthorIdIn(
-                List.of(USER_JOHN.getId()),
-                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "dateCreated"))
-        )).thenReturn(List.of(POST_ONE));
+        when(timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 0, 5)).thenReturn(List.of(POST_ONE.getId()));
+        when(postRepository.findPostSummariesByIdIn(List.of(POST_ONE.getId())))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE)));
 
         List<PostResponse> returnedPostList = postService.getTimelinePostsPaginate(0, 5);
 
         assertThat(returnedPostList.size()).isEqualTo(1);
+        verify(postRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldAssembleTimelineFromProjectionsInThreeQueries_whenPostsShareAndAreTagged() {
+        Post postTwo = MockResource.getPostTwo();
+        Post postOneShare = MockResource.getPostOneShare();
+        PostTagProjection postTwoTag = mock(PostTagProjection.class);
+        when(postTwoTag.getPostId()).thenReturn(postTwo.getId());
+        when(postTwoTag.getId()).thenReturn(TAG_ONE.getId());
+        when(postTwoTag.getName()).thenReturn(TAG_ONE.getName());
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 0, 5))
+                .thenReturn(List.of(postOneShare.getId(), postTwo.getId()));
+        when(postRepository.findPostSummariesByIdIn(List.of(postOneShare.getId(), postTwo.getId())))
+                .thenReturn(List.of(MockResource.getPostSummary(postTwo), MockResource.getPostSummary(postOneShare)));
+        when(postRepository.findPostSummariesByIdIn(List.of(POST_ONE.getId())))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE)));
+        when(postRepository.findPostTagsByPostIdIn(anyList())).thenReturn(List.of(postTwoTag));
+
+        List<PostResponse> returnedPostList = postService.getTimelinePostsPaginate(0, 5);
+
+        assertThat(returnedPostList).extracting(postResponse -> postResponse.getPost().getId())
+                .containsExactly(postOneShare.getId(), postTwo.getId());
+        assertThat(returnedPostList.get(0).getPost().getSharedPost().getId()).isEqualTo(POST_ONE.getId());
+        assertThat(returnedPostList.get(1).getPost().getPostTags()).extracting(tag -> tag.getName())
+                .containsExactly(TAG_ONE.getName());
+        verify(postRepository, times(2)).findPostSummariesByIdIn(anyList());
+        verify(postRepository, times(1)).findPostTagsByPostIdIn(anyList());
+        verify(counterService, times(3)).applyPendingCounts(any(PostSummaryResponse.class));
+    }
+
+    @Test
+    void shouldResolveLikedByAuthUserWithOneLookup_whenPageOfPostsIsGiven() {
+        Post postTwo = MockResource.getPostTwo();
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(postRepository.findPostSummariesByAuthorId(USER_JOHN.getId(), PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE), MockResource.getPostSummary(postTwo)));
+        when(likeService.getPostIdsLikedByUser(List.of(POST_ONE.getId(), postTwo.getId()), USER_JOHN.getId()))
+                .thenReturn(Set.of(postTwo.getId()));
+
+        List<PostResponse> returnedPostList = postService.getPostsByUserPaginate(USER_JOHN, 0, 5);
+
+        assertThat(returnedPostList.get(0).getLikedByAuthUser()).isFalse();
+        assertThat(returnedPostList.get(1).getLikedByAuthUser()).isTrue();
+        verify(userService, times(1)).getAuthenticatedUser();
+        verify(likeService, times(1)).getPostIdsLikedByUser(anyList(), eq(USER_JOHN.getId()));
+    }
+
+    @Test
+    void shouldReturnPostsInRankedOrder_whenSearchKeyIsGiven() {
+        Post postTwo = MockResource.getPostTwo();
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(postSearchService.searchPostIds("spring boot", 0, 5)).thenReturn(List.of(postTwo.getId(), POST_ONE.getId()));
+        when(postRepository.findPostSummariesByIdIn(List.of(postTwo.getId(), POST_ONE.getId())))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE), MockResource.getPostSummary(postTwo)));
+
+        List<PostResponse> returnedPostList = postService.getPostSearchResult("spring boot", 0, 5);
+
+        assertThat(returnedPostList).extracting(postResponse -> postResponse.getPost().getId())
+                .containsExactly(postTwo.getId(), POST_ONE.getId());
     }
 
     @Test
@@ -123,7 +216,7 @@ class PostServiceTest {
         List<PostResponse> returnedPostShareList = postService.getPostSharesPaginate(POST_ONE, 0, 5);
 
         assertThat(returnedPostShareList.size()).isEqualTo(1);
-        assertThat(returnedPostShareList.get(0).getPost().getSharedPost()).isEqualTo(POST_ONE);
+        assertThat(returnedPostShareList.get(0).getPost().getSharedPost().getId()).isEqualTo(POST_ONE.getId());
     }
 
     @Test
@@ -140,7 +233,55 @@ class PostServiceTest {
         List<PostResponse> returnedPostList = postService.getPostByTagPaginate(TAG_ONE, 0, 5);
 
         assertThat(returnedPostList.size()).isEqualTo(1);
-        assertThat(returnedPostList.get(0).getPost().getPostTags().get(0)).isEqualTo(TAG_ONE);
+        assertThat(returnedPostList.get(0).getPost().getPostTags().get(0).getName()).isEqualTo(TAG_ONE.getName());
+    }
+
+    @Test
+    void shouldReturnNextCursor_whenFirstCursorPageIsFull() {
+        POST_ONE.setDateCreated(new Date(1000L));
+
+        when(postRepository.findPostSummariesByAuthorId(USER_JOHN.getId(), PageRequest.of(0, 1)))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE)));
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+
+        CursorPageResponse<PostResponse> returnedPage = postService.getPostsByUserByCursor(USER_JOHN, null, 1);
+
+        assertThat(returnedPage.getContent().size()).isEqualTo(1);
+        assertThat(returnedPage.getNextCursor()).isEqualTo(PageCursor.of(new Date(1000L), POST_ONE.getId()).encode());
+    }
+
+    @Test
+    void shouldSeekPastCursor_whenCursorIsGiven() {
+        Date cursorDate = new Date(2000L);
+        String cursor = PageCursor.of(cursorDate, 7L).encode();
+
+        when(postRepository.findPostSummariesByAuthorIdBefore(USER_JOHN.getId(), cursorDate, 7L, PageRequest.of(0, 5)))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE)));
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+
+        CursorPageResponse<PostResponse> returnedPage = postService.getPostsByUserByCursor(USER_JOHN, cursor, 5);
+
+        assertThat(returnedPage.getContent().get(0).getPost().getId()).isEqualTo(POST_ONE.getId());
+        assertThat(returnedPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldDeriveNextCursorFromTimelineEntries_whenLastTimelinePostIsGone() {
+        POST_ONE.setDateCreated(new Date(3000L));
+        TimelineEntry presentEntry = TimelineEntry.builder()
+                .postId(POST_ONE.getId()).dateCreated(POST_ONE.getDateCreated()).build();
+        TimelineEntry vanishedEntry = TimelineEntry.builder().postId(99L).dateCreated(new Date(1000L)).build();
+
+        when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
+        when(timelineService.getTimelineEntriesByCursor(USER_JOHN.getId(), null, 2))
+                .thenReturn(List.of(presentEntry, vanishedEntry));
+        when(postRepository.findPostSummariesByIdIn(List.of(POST_ONE.getId(), 99L)))
+                .thenReturn(List.of(MockResource.getPostSummary(POST_ONE)));
+
+        CursorPageResponse<PostResponse> returnedPage = postService.getTimelinePostsByCursor(null, 2);
+
+        assertThat(returnedPage.getContent()).hasSize(1);
+        assertThat(returnedPage.getNextCursor()).isEqualTo(PageCursor.of(new Date(1000L), 99L).encode());
     }
 
     @Test
@@ -165,12 +306,14 @@ class PostServiceTest {
         when(fileNamingUtil.nameFile(postPhoto)).thenReturn(fileName);
         when(environment.getProperty(backendProperty)).thenReturn(backendUrl);
         doNothing().when(fileUploadUtil).saveNewFile(uploadDir, fileName, postPhoto);
-        when(tagService.getTagByName(anyString())).thenReturn(TAG_ONE);
+        when(tagService.resolveTags(List.of("New Tag"))).thenReturn(Map.of("New Tag", TAG_ONE));
         when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
 
         Post returnedPost = postService.createNewPost("New Post", postPhoto, List.of(tagDto));
 
         verify(postRepository).save(any(Post.class));
+        verify(tagService).adjustTagUseCounters(List.of(TAG_ONE), 1);
+        verify(timelineService).fanOutPost(POST_ONE);
         assertThat(returnedPost.getAuthor()).isEqualTo(USER_JOHN);
         assertThat(returnedPost.getPostTags().get(0).getName()).isEqualTo(TAG_ONE.getName());
     }
@@ -184,8 +327,6 @@ class PostServiceTest {
         String backendProperty = "app.root.backend";
         String backendUrl = "backend-url";
 
-        POST_ONE.getPostTags().add(TAG_ONE);
-
         TagDto tagDto = TagDto.builder()
                 .tagName(TAG_ONE.getName())
                 .action("add")
@@ -198,17 +339,38 @@ class PostServiceTest {
         when(fileNamingUtil.nameFile(postPhoto)).thenReturn(fileName);
         when(environment.getProperty(backendProperty)).thenReturn(backendUrl);
         doNothing().when(fileUploadUtil).saveNewFile(uploadDir, fileName, postPhoto);
-        when(tagService.getTagByName(anyString())).thenReturn(TAG_ONE);
-        when(tagService.increaseTagUseCounter(anyString())).thenReturn(TAG_ONE);
+        when(tagService.resolveTags(List.of(TAG_ONE.getName()))).thenReturn(Map.of(TAG_ONE.getName(), TAG_ONE));
         when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
 
         Post returnedPost = postService.updatePost(POST_ONE.getId(), "Updated Post", postPhoto, List.of(tagDto));
 
         verify(postRepository).save(any(Post.class));
+        verify(tagService).adjustTagUseCounters(List.of(TAG_ONE), 1);
+        verify(trendingTagService).recordTagUse(TAG_ONE.getId());
         assertThat(returnedPost.getAuthor()).isEqualTo(USER_JOHN);
         assertThat(returnedPost.getContent()).isEqualTo("Updated Post");
     }
 
+    @Test
+    void shouldNotCountTagAgain_whenPostAlreadyHasAddedTag() {
+        POST_ONE.getPostTags().add(TAG_ONE);
+
+        TagDto tagDto = TagDto.builder()
+                .tagName(TAG_ONE.getName())
+                .action("add")
+                .build();
+
+        when(postRepository.findById(POST_ONE.getId())).thenReturn(Optional.of(POST_ONE));
+        when(tagService.resolveTags(List.of(TAG_ONE.getName()))).thenReturn(Map.of(TAG_ONE.getName(), TAG_ONE));
+        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
+
+        Post returnedPost = postService.updatePost(POST_ONE.getId(), null, null, List.of(tagDto));
+
+        verify(tagService).adjustTagUseCounters(List.of(), 1);
+        verify(trendingTagService, never()).recordTagUse(anyLong());
+        assertThat(returnedPost.getPostTags()).containsExactly(TAG_ONE);
+    }
+
     @Test
     void shouldDeletePost_whenPostIdIsGiven() throws IOException {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JOHN);
@@ -218,6 +380,7 @@ class PostServiceTest {
         postService.deletePost(POST_ONE.getId());
 
         verify(postRepository, times(1)).deleteById(POST_ONE.getId());
+        verify(timelineService).removePost(POST_ONE.getId());
     }
 
     @Test
@@ -245,33 +408,31 @@ class PostServiceTest {
     void shouldLikePost_whenPostIdIsGiven() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(postRepository.findById(POST_ONE.getId())).thenReturn(Optional.of(POST_ONE));
-        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
+        when(likeService.addPostLike(POST_ONE.getId(), USER_JANE.getId())).thenReturn(true);
         doNothing().when(notificationService)
                 .sendNotification(USER_JOHN, USER_JANE, POST_ONE, null, NotificationType.POST_LIKE.name());
 
         postService.likePost(POST_ONE.getId());
 
-        verify(postRepository).save(any(Post.class));
-        assertThat(POST_ONE.getLikeCount()).isEqualTo(1);
-        assertThat(POST_ONE.getLikeList().get(0)).isEqualTo(USER_JANE);
+        verify(likeService).addPostLike(POST_ONE.getId(), USER_JANE.getId());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(notificationService)
+                .sendNotification(USER_JOHN, USER_JANE, POST_ONE, null, NotificationType.POST_LIKE.name());
     }
 
     @Test
     void shouldUnlikePost_whenPostIdIsGiven() {
-        POST_ONE.getLikeList().add(USER_JANE);
-        POST_ONE.setLikeCount(POST_ONE.getLikeCount()+1);
-
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(postRepository.findById(POST_ONE.getId())).thenReturn(Optional.of(POST_ONE));
-        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
+        when(likeService.removePostLike(POST_ONE.getId(), USER_JANE.getId())).thenReturn(true);
         doNothing().when(notificationService)
                 .removeNotification(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name());
 
         postService.unlikePost(POST_ONE.getId());
 
-        verify(postRepository).save(any(Post.class));
-        assertThat(POST_ONE.getLikeCount()).isEqualTo(0);
-        assertThat(POST_ONE.getLikeList().size()).isEqualTo(0);
+        verify(likeService).removePostLike(POST_ONE.getId(), USER_JANE.getId());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(notificationService).removeNotification(USER_JOHN, POST_ONE, NotificationType.POST_LIKE.name());
     }
 
     @Test
@@ -283,14 +444,12 @@ class PostServiceTest {
             return COMMENT_ONE;
         });
 
-        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
         doNothing().when(notificationService)
                 .sendNotification(USER_JOHN, USER_JANE, POST_ONE, COMMENT_ONE, NotificationType.POST_COMMENT.name());
 
         postService.createPostComment(POST_ONE.getId(), COMMENT_ONE.getContent());
 
-        verify(postRepository).save(any(Post.class));
-        assertThat(POST_ONE.getCommentCount()).isEqualTo(1);
+        verify(counterService).increment(CounterType.POST_COMMENT, POST_ONE.getId(), 1);
         assertThat(POST_ONE.getPostComments().size()).isEqualTo(1);
         assertThat(POST_ONE.getPostComments().get(0)).isEqualTo(COMMENT_ONE);
     }
@@ -309,7 +468,6 @@ class PostServiceTest {
     @Test
     void shouldDeletePostComment_whenCommentIdPostIdAreGiven() {
         POST_ONE.getPostComments().add(COMMENT_ONE);
-        POST_ONE.setCommentCount(POST_ONE.getCommentCount()+1);
 
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(postRepository.findById(POST_ONE.getId())).thenReturn(Optional.of(POST_ONE));
@@ -322,7 +480,7 @@ class PostServiceTest {
         postService.deletePostComment(COMMENT_ONE.getId(), POST_ONE.getId());
 
         verify(postRepository).save(any(Post.class));
-        assertThat(POST_ONE.getCommentCount()).isEqualTo(0);
+        verify(counterService).increment(CounterType.POST_COMMENT, POST_ONE.getId(), -1);
         assertThat(POST_ONE.getPostComments().size()).isEqualTo(0);
     }
 
@@ -330,16 +488,16 @@ class PostServiceTest {
     void shouldCreatePostShare_whenPostIdAndContentIsGiven() {
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(postRepository.findById(POST_ONE.getId())).thenReturn(Optional.of(POST_ONE));
-        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE_SHARE, POST_ONE);
+        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE_SHARE);
         doNothing().when(notificationService)
                 .sendNotification(USER_JOHN, USER_JANE, POST_ONE, null, NotificationType.POST_SHARE.name());
 
         Post returnedPostShare = postService.createPostShare(POST_ONE_SHARE.getContent(), POST_ONE.getId());
 
-        verify(postRepository, times(2)).save(any(Post.class));
+        verify(postRepository, times(1)).save(any(Post.class));
+        verify(counterService).increment(CounterType.POST_SHARE, POST_ONE.getId(), 1);
         assertThat(returnedPostShare.getSharedPost()).isEqualTo(POST_ONE);
         assertThat(POST_ONE.getShareList().contains(returnedPostShare)).isTrue();
-        assertThat(POST_ONE.getShareCount()).isEqualTo(1);
     }
 
     @Test
@@ -360,20 +518,17 @@ class PostServiceTest {
     @Test
     void shouldDeletePostShare_whenPostShareIdIsGiven() {
         POST_ONE.getShareList().add(POST_ONE_SHARE);
-        POST_ONE.setShareCount(POST_ONE.getShareCount()+1);
         POST_ONE_SHARE.setSharedPost(POST_ONE);
 
         when(userService.getAuthenticatedUser()).thenReturn(USER_JANE);
         when(postRepository.findById(POST_ONE_SHARE.getId())).thenReturn(Optional.of(POST_ONE_SHARE));
-        when(postRepository.save(any(Post.class))).thenReturn(POST_ONE);
         doNothing().when(notificationService)
                 .removeNotification(USER_JANE, POST_ONE_SHARE, NotificationType.POST_SHARE.name());
 
         postService.deletePostShare(POST_ONE_SHARE.getId());
 
-        verify(postRepository).save(any(Post.class));
         verify(postRepository).deleteById(POST_ONE_SHARE.getId());
+        verify(counterService).increment(CounterType.POST_SHARE, POST_ONE.getId(), -1);
         assertThat(POST_ONE.getShareList().contains(POST_ONE_SHARE)).isFalse();
-        assertThat(POST_ONE.getShareCount()).isEqualTo(0);
     }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package com.kpjunaid.service;
 
 import com.kpjunaid.entity.Tag;
-import com.kpjunaid.exception.TagNotFoundException;
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.exception.TagExistsException;
 import com.kpjunaid.repository.TagRepository;
 import com.kpjunaid.shared.MockResource;
 import org.junit.jupiter.api.AfterEach;
@@ -10,17 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
 
 @DataJpaTest
 class TagServiceTest {
@@ -29,6 +32,19 @@ class TagServiceTest {
 
     @Mock
     TagRepository tagRepository;
+
+    @Mock
+    CounterService counterService;
+
+    @Mock
+    TrendingTagService trendingTagService;
+
+    @Mock
+    TagSuggestService tagSuggestService;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
     private final Tag TAG_ONE = MockResource.getTagOne();
     private final Tag TAG_TWO = MockResource.getTagTwo();
 
@@ -60,7 +76,7 @@ class TagServiceTest {
 
     @Test
     void shouldCreateNewTag_whenTagNameIsGiven() {
-        when(tagRepository.findTagByName(TAG_ONE.getName())).thenThrow(TagNotFoundException.class);
+        when(tagRepository.existsByName(TAG_ONE.getName())).thenReturn(false);
         when(tagRepository.save(any(Tag.class))).thenReturn(TAG_ONE);
 
         tagService.createNewTag(TAG_ONE.getName());
@@ -69,37 +85,59 @@ class TagServiceTest {
     }
 
     @Test
-    void shouldIncreaseTagUseCounter_whenTagNameIsGiven() {
-        when(tagRepository.findTagByName(TAG_ONE.getName())).thenReturn(Optional.of(TAG_ONE));
-        when(tagRepository.save(any(Tag.class))).thenReturn(TAG_ONE);
+    void shouldThrowTagExistsException_whenTagNameIsTaken() {
+        when(tagRepository.existsByName(TAG_ONE.getName())).thenReturn(true);
 
-        Tag updatedTag = tagService.increaseTagUseCounter(TAG_ONE.getName());
-
-        verify(tagRepository).save(any(Tag.class));
-        assertThat(updatedTag.getTagUseCounter()).isEqualTo(2);
+        assertThatThrownBy(() -> tagService.createNewTag(TAG_ONE.getName())).isInstanceOf(TagExistsException.class);
+        verify(tagRepository, never()).save(any(Tag.class));
     }
 
     @Test
-    void shouldDecreaseTagUseCounter_whenTagNameIsGiven() {
-        when(tagRepository.findTagByName(TAG_ONE.getName())).thenReturn(Optional.of(TAG_ONE));
-        when(tagRepository.save(any(Tag.class))).thenReturn(TAG_ONE);
+    void shouldReturnTrendingTags_whenTimelineTagsAreRequested() {
+        when(trendingTagService.getTrendingTags()).thenReturn(List.of(TAG_ONE, TAG_TWO));
 
-        Tag updatedTag = tagService.decreaseTagUseCounter(TAG_ONE.getName());
+        List<Tag> returnedTagList = tagService.getTimelineTags();
 
-        verify(tagRepository).save(any(Tag.class));
-        assertThat(updatedTag.getTagUseCounter()).isEqualTo(0);
+        assertThat(returnedTagList.size()).isEqualTo(2);
     }
 
     @Test
-    void shouldReturnListOfTagsOrderedByTagUseCounter() {
-        when(tagRepository.findAll(PageRequest.of(0, 10,
-                Sort.by(Sort.Direction.DESC, "tagUseCounter"))))
-                .thenReturn(
-                        new PageImpl<>(List.of(TAG_ONE, TAG_TWO), PageRequest.of(0, 10,
-                            Sort.by(Sort.Direction.DESC, "tagUseCounter")), 2));
+    void shouldResolveExistingAndCreateMissingTagsInBulk_whenTagNamesAreGiven() {
+        when(tagRepository.findTagsByNameIn(Set.of(TAG_ONE.getName(), TAG_TWO.getName())))
+                .thenReturn(List.of(TAG_ONE));
+        when(tagRepository.lockTagsByNameIn(List.of(TAG_TWO.getName()))).thenReturn(List.of(TAG_TWO));
+
+        Map<String, Tag> resolvedTags = tagService.resolveTags(
+                List.of(TAG_TWO.getName(), TAG_ONE.getName(), TAG_TWO.getName()));
+
+        assertThat(resolvedTags).containsExactly(
+                entry(TAG_TWO.getName(), TAG_TWO), entry(TAG_ONE.getName(), TAG_ONE));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(tagRepository, never()).findTagByName(anyString());
+        verify(tagRepository, never()).save(any(Tag.class));
+    }
 
-        List<Tag> returnedTagList = tagService.getTimelineTags();
+    @Test
+    void shouldReadBackConcurrentlyCreatedTag_whenBulkInsertHitsUniqueName() {
+        when(tagRepository.findTagsByNameIn(Set.of(TAG_ONE.getName()))).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DuplicateKeyException("Duplicate tag name"));
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("Duplicate tag name"));
+        when(tagRepository.lockTagsByNameIn(List.of(TAG_ONE.getName()))).thenReturn(List.of(TAG_ONE));
 
-        assertThat(returnedTagList.size()).isEqualTo(2);
+        Map<String, Tag> resolvedTags = tagService.resolveTags(List.of(TAG_ONE.getName()));
+
+        assertThat(resolvedTags).containsExactly(entry(TAG_ONE.getName(), TAG_ONE));
+    }
+
+    @Test
+    void shouldAdjustCountersAndTouchTagsInOneUpdate_whenTagsAreUsed() {
+        tagService.adjustTagUseCounters(List.of(TAG_ONE, TAG_TWO), 1);
+
+        verify(counterService).increment(CounterType.TAG_USE, TAG_ONE.getId(), 1);
+        verify(counterService).increment(CounterType.TAG_USE, TAG_TWO.getId(), 1);
+        verify(tagRepository, times(1))
+                .updateDateLastModified(eq(Set.of(TAG_ONE.getId(), TAG_TWO.getId())), any(Date.class));
     }
-}
\ No newline at end of file
+}
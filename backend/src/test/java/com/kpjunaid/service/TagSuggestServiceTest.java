@@ -0,0 +1,130 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.projection.TagNameProjection;
+import com.kpjunaid.repository.TagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TagSuggestServiceTest {
+    @InjectMocks
+    TagSuggestServiceImpl tagSuggestService;
+
+    @Mock
+    TagRepository tagRepository;
+
+    @BeforeEach
+    void setUp() {
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldSuggestMostUsedTagsFirst_whenPrefixIsGiven() {
+        tagSuggestService.indexTag("Spring", 5);
+        tagSuggestService.indexTag("SpringBoot", 9);
+        tagSuggestService.indexTag("Sprint", 1);
+        tagSuggestService.indexTag("Spa", 3);
+        tagSuggestService.indexTag("Angular", 20);
+
+        assertThat(tagSuggestService.suggestTagNames("spr")).containsExactly("SpringBoot", "Spring", "Sprint");
+        assertThat(tagSuggestService.suggestTagNames("SP")).containsExactly("SpringBoot", "Spring", "Spa", "Sprint");
+        assertThat(tagSuggestService.suggestTagNames("springb")).containsExactly("SpringBoot");
+        assertThat(tagSuggestService.suggestTagNames("springs")).isEmpty();
+        assertThat(tagSuggestService.suggestTagNames(" ")).isEmpty();
+    }
+
+    @Test
+    void shouldLimitSuggestionsToTopTags_whenManyTagsShareThePrefix() {
+        for (int i = 0; i < 3 * AppConstants.TAG_SUGGESTION_COUNT; i++) {
+            tagSuggestService.indexTag("tag" + i, i);
+        }
+
+        List<String> suggestions = tagSuggestService.suggestTagNames("tag");
+
+        assertThat(suggestions).hasSize(AppConstants.TAG_SUGGESTION_COUNT);
+        assertThat(suggestions.get(0)).isEqualTo("tag" + (3 * AppConstants.TAG_SUGGESTION_COUNT - 1));
+    }
+
+    @Test
+    void shouldReorderSuggestions_whenTagUseCountersChange() {
+        tagSuggestService.indexTag("java", 2);
+        tagSuggestService.indexTag("javascript", 1);
+
+        tagSuggestService.adjustTagUseCounter("javascript", 2);
+        assertThat(tagSuggestService.suggestTagNames("ja")).containsExactly("javascript", "java");
+
+        tagSuggestService.adjustTagUseCounter("javascript", -2);
+        assertThat(tagSuggestService.suggestTagNames("ja")).containsExactly("java", "javascript");
+    }
+
+    @Test
+    void shouldLoadAllTags_whenIndexIsRebuilt() {
+        when(tagRepository.findTagNamesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new TagName(1L, "Docker", 4), new TagName(2L, "Django", 7)));
+
+        tagSuggestService.rebuildIndex();
+
+        assertThat(tagSuggestService.suggestTagNames("d")).containsExactly("Django", "Docker");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldSuggestUnderOneMillisecondAtP99_whenOneMillionTagsAreIndexed() {
+        Random random = new Random(42);
+        List<TagNameProjection> tags = new ArrayList<>();
+        for (long id = 1; id <= 1_000_000; id++) {
+            tags.add(new TagName(id, randomName(random, 4 + random.nextInt(12)), random.nextInt(100_000)));
+        }
+        when(tagRepository.findTagNamesAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long lastId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            int fromIndex = (int) lastId;
+            return tags.subList(fromIndex, Math.min(tags.size(), fromIndex + pageable.getPageSize()));
+        });
+        tagSuggestService.rebuildIndex();
+
+        int queryCount = 200_000;
+        long[] latencies = new long[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            String prefix = randomName(random, 1 + random.nextInt(4));
+            long start = System.nanoTime();
+            tagSuggestService.suggestTagNames(prefix);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        assertThat(latencies[(int) (queryCount * 0.99)]).isLessThan(1_000_000L);
+    }
+
+    private static String randomName(Random random, int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+
+    private record TagName(Long getId, String getName, Integer getTagUseCounter) implements TagNameProjection {
+    }
+}
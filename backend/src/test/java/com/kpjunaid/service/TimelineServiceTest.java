@@ -0,0 +1,314 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.PageCursor;
+import com.kpjunaid.entity.MaterializedTimeline;
+import com.kpjunaid.entity.Post;
+import com.kpjunaid.entity.TimelineEntry;
+import com.kpjunaid.entity.User;
+import com.kpjunaid.repository.MaterializedTimelineRepository;
+import com.kpjunaid.repository.PostRepository;
+import com.kpjunaid.repository.TimelineEntryRepository;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class TimelineServiceTest {
+    @InjectMocks
+    TimelineServiceImpl timelineService;
+
+    @Mock
+    TimelineEntryRepository timelineEntryRepository;
+
+    @Mock
+    MaterializedTimelineRepository materializedTimelineRepository;
+
+    @Mock
+    PostRepository postRepository;
+
+    @Mock
+    FollowGraphService followGraphService;
+
+    @Mock
+    Environment environment;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final User USER_JOHN = MockResource.getMockUserJohn();
+    private final User USER_JANE = MockResource.getMockUserJane();
+    private final Post POST_ONE = MockResource.getPostOne();
+    private final Post POST_TWO = MockResource.getPostTwo();
+
+    @BeforeEach
+    void setUp() {
+        when(followGraphService.getFollowingIds(anyLong())).thenReturn(new long[0]);
+        when(followGraphService.getFollowerIds(anyLong())).thenReturn(new long[0]);
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldReturnTimelinePostsInMaterializedOrder_whenTimelineExists() {
+        TimelineEntry entryTwo = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(POST_TWO.getId()).authorId(USER_JOHN.getId()).build();
+        TimelineEntry entryOne = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(POST_ONE.getId()).authorId(USER_JOHN.getId()).build();
+
+        when(materializedTimelineRepository.findById(USER_JOHN.getId()))
+                .thenReturn(Optional.of(getMaterializedTimeline(null, null)));
+        when(timelineEntryRepository.findTimelineEntriesByOwnerId(
+                USER_JOHN.getId(),
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "dateCreated", "postId"))
+        )).thenReturn(List.of(entryTwo, entryOne));
+
+        List<Long> returnedPostIds = timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 0, 5);
+
+        assertThat(returnedPostIds).containsExactly(POST_TWO.getId(), POST_ONE.getId());
+        verify(postRepository, never()).findPostsByAuthorIdIn(anyList(), any());
+    }
+
+    @Test
+    void shouldMaterializeTimeline_whenOwnerHasNoTimelineEntries() {
+        when(materializedTimelineRepository.findById(USER_JOHN.getId())).thenReturn(Optional.empty());
+        when(followGraphService.getFollowingIds(USER_JOHN.getId())).thenReturn(new long[] { USER_JANE.getId() });
+        when(postRepository.findPostsByAuthorIdIn(
+                List.of(USER_JANE.getId(), USER_JOHN.getId()),
+                PageRequest.of(0, AppConstants.TIMELINE_MATERIALIZE_SIZE, Sort.by(Sort.Direction.DESC, "dateCreated", "id"))
+        )).thenReturn(List.of(POST_ONE));
+
+        timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 0, 5);
+
+        assertThat(captureInsertedEntries()).extracting(args -> args[1]).containsExactly(POST_ONE.getId());
+        verify(jdbcTemplate).update(contains("materialized_timelines"), eq(USER_JOHN.getId()), isNull(), isNull(), any());
+    }
+
+    @Test
+    void shouldNotMaterializeAgain_whenMaterializedTimelineHasNoEntries() {
+        when(materializedTimelineRepository.findById(USER_JOHN.getId()))
+                .thenReturn(Optional.of(getMaterializedTimeline(null, null)));
+        when(timelineEntryRepository.findTimelineEntriesByOwnerId(anyLong(), any())).thenReturn(List.of());
+
+        List<Long> returnedPostIds = timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 0, 5);
+
+        assertThat(returnedPostIds).isEmpty();
+        verify(postRepository, never()).findPostsByAuthorIdIn(anyList(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void shouldRecordHorizon_whenMaterializationReachesSizeCap() {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < AppConstants.TIMELINE_MATERIALIZE_SIZE; i++) {
+            Post post = MockResource.getPostOne();
+            post.setId((long) AppConstants.TIMELINE_MATERIALIZE_SIZE - i);
+            post.setDateCreated(new Date(1_000_000L - i * 1000L));
+            posts.add(post);
+        }
+        when(materializedTimelineRepository.findById(USER_JOHN.getId())).thenReturn(Optional.empty());
+        when(postRepository.findPostsByAuthorIdIn(anyList(), any())).thenReturn(posts);
+        Post oldestPost = posts.get(posts.size() - 1);
+
+        timelineService.getTimelineEntriesByCursor(USER_JOHN.getId(), null, 5);
+
+        verify(jdbcTemplate).update(contains("materialized_timelines"), eq(USER_JOHN.getId()),
+                eq(new Timestamp(oldestPost.getDateCreated().getTime())), eq(oldestPost.getId()), any());
+    }
+
+    @Test
+    void shouldContinueFromSourcePosts_whenCursorPassesMaterializedHorizon() {
+        POST_TWO.setDateCreated(new Date(1000L));
+        POST_TWO.setAuthor(USER_JOHN);
+        Date horizonDate = new Date(2000L);
+        TimelineEntry horizonEntry = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(3L).authorId(USER_JOHN.getId()).dateCreated(horizonDate).build();
+        PageCursor cursor = PageCursor.of(new Date(3000L), 4L);
+
+        when(materializedTimelineRepository.findById(USER_JOHN.getId()))
+                .thenReturn(Optional.of(getMaterializedTimeline(horizonDate, 3L)));
+        when(timelineEntryRepository.findTimelineEntriesByOwnerIdBefore(
+                USER_JOHN.getId(), cursor.getDate(), cursor.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(horizonEntry));
+        stubMergedEntries(horizonEntry, toMergedEntry(POST_TWO));
+
+        List<TimelineEntry> returnedEntries = timelineService.getTimelineEntriesByCursor(USER_JOHN.getId(), cursor, 2);
+
+        assertThat(returnedEntries).extracting(TimelineEntry::getPostId).containsExactly(3L, POST_TWO.getId());
+        MapSqlParameterSource params = captureMergeParams();
+        assertThat(params.getValue("horizonPostId")).isEqualTo(3L);
+        assertThat(params.getValue("cursorId")).isEqualTo(cursor.getId());
+        assertThat(params.getValue("authorIds")).isEqualTo(List.of(USER_JOHN.getId()));
+        assertThat(params.hasValue("pulledAuthorIds")).isFalse();
+    }
+
+    @Test
+    void shouldFanOutPostToMaterializedTimelinesOnly_whenPostIsGiven() {
+        when(followGraphService.getFollowerIds(USER_JOHN.getId())).thenReturn(new long[] { USER_JANE.getId(), 3L });
+        when(materializedTimelineRepository.findMaterializedOwnerIds(List.of(USER_JANE.getId(), 3L, USER_JOHN.getId())))
+                .thenReturn(List.of(USER_JANE.getId(), USER_JOHN.getId()));
+
+        timelineService.fanOutPost(POST_ONE);
+
+        assertThat(captureInsertedEntries())
+                .extracting(args -> args[0])
+                .containsExactly(USER_JANE.getId(), USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldPruneAuthorPosts_whenOwnerUnfollowsAuthor() {
+        timelineService.removeAuthorFromTimeline(USER_JANE.getId(), USER_JOHN.getId());
+
+        verify(timelineEntryRepository).deleteTimelineEntriesByOwnerIdAndAuthorId(USER_JANE.getId(), USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldNotFanOutToFollowers_whenPostWasRecordedAsPulled() {
+        POST_ONE.setAuthor(USER_JOHN);
+        POST_ONE.setIsFannedOut(false);
+
+        when(materializedTimelineRepository.findMaterializedOwnerIds(List.of(USER_JOHN.getId())))
+                .thenReturn(List.of(USER_JOHN.getId()));
+
+        timelineService.fanOutPost(POST_ONE);
+
+        verify(followGraphService, never()).getFollowerIds(USER_JOHN.getId());
+        verify(materializedTimelineRepository, times(1)).findMaterializedOwnerIds(anyList());
+        assertThat(captureInsertedEntries()).hasSize(1);
+    }
+
+    @Test
+    void shouldPullAuthorPosts_whenAuthorFollowerCountIsAboveHybridThreshold() {
+        when(environment.getProperty("feed.mode")).thenReturn(AppConstants.FEED_MODE_HYBRID);
+        when(environment.getProperty("feed.hybrid.follower-threshold", Integer.class,
+                AppConstants.FEED_DEFAULT_FOLLOWER_THRESHOLD)).thenReturn(1000);
+        when(followGraphService.getFollowerCount(USER_JOHN.getId())).thenReturn(50000);
+        when(followGraphService.getFollowerCount(USER_JANE.getId())).thenReturn(1000);
+
+        assertThat(timelineService.shouldFanOut(USER_JOHN.getId())).isFalse();
+        assertThat(timelineService.shouldFanOut(USER_JANE.getId())).isTrue();
+    }
+
+    @Test
+    void shouldMergePulledPostsInSingleQuery_whenFollowingPulledAuthors() {
+        TimelineEntry pushedEntryTwo = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(POST_TWO.getId()).authorId(USER_JOHN.getId())
+                .dateCreated(new Date(2000L)).build();
+
+        when(postRepository.findPulledAuthorIds()).thenReturn(List.of(USER_JANE.getId(), 7L));
+        when(followGraphService.getFollowedIdsAmong(eq(USER_JOHN.getId()), anyCollection()))
+                .thenReturn(Set.of(USER_JANE.getId()));
+        when(materializedTimelineRepository.findById(USER_JOHN.getId()))
+                .thenReturn(Optional.of(getMaterializedTimeline(null, null)));
+        when(timelineEntryRepository.findTimelineEntriesByOwnerId(
+                USER_JOHN.getId(),
+                PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "dateCreated", "postId"))
+        )).thenReturn(List.of(pushedEntryTwo));
+        stubMergedEntries(toMergedEntry(POST_ONE), toMergedEntry(POST_TWO));
+        timelineService.loadPulledAuthorIds();
+
+        List<Long> returnedPostIds = timelineService.getTimelinePostIdsPaginate(USER_JOHN.getId(), 2, 2);
+
+        assertThat(returnedPostIds).containsExactly(POST_ONE.getId(), POST_TWO.getId());
+        MapSqlParameterSource params = captureMergeParams();
+        assertThat(params.getValue("pulledAuthorIds")).isEqualTo(List.of(USER_JANE.getId()));
+        assertThat(params.getValue("offset")).isEqualTo(4);
+        assertThat(params.getValue("windowSize")).isEqualTo(6);
+        assertThat(params.hasValue("horizonDate")).isFalse();
+        verify(postRepository, never()).findPostsByAuthorIdIn(anyList(), any());
+    }
+
+    @Test
+    void shouldSeekEveryMergedSourcePastCursor_whenFollowingPulledAuthors() {
+        PageCursor cursor = PageCursor.of(new Date(5000L), 9L);
+        TimelineEntry pushedEntryOne = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(8L).authorId(USER_JOHN.getId()).dateCreated(new Date(4000L)).build();
+        TimelineEntry pushedEntryTwo = TimelineEntry.builder()
+                .ownerId(USER_JOHN.getId()).postId(6L).authorId(USER_JOHN.getId()).dateCreated(new Date(2000L)).build();
+        TimelineEntry pulledEntry = TimelineEntry.builder().postId(7L).dateCreated(new Date(3000L)).build();
+
+        when(postRepository.findPulledAuthorIds()).thenReturn(List.of(USER_JANE.getId()));
+        when(followGraphService.getFollowedIdsAmong(eq(USER_JOHN.getId()), anyCollection()))
+                .thenReturn(Set.of(USER_JANE.getId()));
+        when(materializedTimelineRepository.findById(USER_JOHN.getId()))
+                .thenReturn(Optional.of(getMaterializedTimeline(null, null)));
+        when(timelineEntryRepository.findTimelineEntriesByOwnerIdBefore(
+                USER_JOHN.getId(), cursor.getDate(), cursor.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(pushedEntryOne, pushedEntryTwo));
+        stubMergedEntries(pushedEntryOne, pulledEntry);
+        timelineService.loadPulledAuthorIds();
+
+        List<TimelineEntry> returnedEntries = timelineService.getTimelineEntriesByCursor(USER_JOHN.getId(), cursor, 2);
+
+        assertThat(returnedEntries).containsExactly(pushedEntryOne, pulledEntry);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(namedParameterJdbcTemplate).query(
+                sqlCaptor.capture(), any(MapSqlParameterSource.class), ArgumentMatchers.<RowMapper<TimelineEntry>>any());
+        assertThat(sqlCaptor.getValue()).contains("t.post_id < :cursorId", "p.id < :cursorId");
+        MapSqlParameterSource params = captureMergeParams();
+        assertThat(params.getValue("cursorDate")).isEqualTo(new Timestamp(cursor.getDate().getTime()));
+        assertThat(params.getValue("cursorId")).isEqualTo(cursor.getId());
+        assertThat(params.getValue("offset")).isEqualTo(0);
+        assertThat(params.getValue("windowSize")).isEqualTo(2);
+    }
+
+    private MaterializedTimeline getMaterializedTimeline(Date horizonDate, Long horizonPostId) {
+        return MaterializedTimeline.builder()
+                .ownerId(USER_JOHN.getId())
+                .horizonDate(horizonDate)
+                .horizonPostId(horizonPostId)
+                .dateMaterialized(new Date())
+                .build();
+    }
+
+    private MapSqlParameterSource captureMergeParams() {
+        ArgumentCaptor<MapSqlParameterSource> paramsCaptor = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedParameterJdbcTemplate).query(
+                anyString(), paramsCaptor.capture(), ArgumentMatchers.<RowMapper<TimelineEntry>>any());
+        return paramsCaptor.getValue();
+    }
+
+    private void stubMergedEntries(TimelineEntry... entries) {
+        when(namedParameterJdbcTemplate.query(
+                anyString(), any(MapSqlParameterSource.class), ArgumentMatchers.<RowMapper<TimelineEntry>>any()))
+                .thenReturn(List.of(entries));
+    }
+
+    private TimelineEntry toMergedEntry(Post post) {
+        return TimelineEntry.builder().postId(post.getId()).dateCreated(post.getDateCreated()).build();
+    }
+
+    private List<Object[]> captureInsertedEntries() {
+        ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("timeline_entries"), argsCaptor.capture());
+        return argsCaptor.getValue();
+    }
+}
@@ -0,0 +1,101 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.entity.Tag;
+import com.kpjunaid.repository.TagRepository;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrendingTagServiceTest {
+    private static final long HOUR_MS = 3600000L;
+
+    @InjectMocks
+    TrendingTagServiceImpl trendingTagService;
+
+    @Mock
+    TagRepository tagRepository;
+
+    @Mock
+    Environment environment;
+
+    private final Tag TAG_ONE = MockResource.getTagOne();
+    private final Tag TAG_TWO = MockResource.getTagTwo();
+
+    @BeforeEach
+    void setUp() {
+        when(environment.getProperty("tags.trending.half-life-minutes", Long.class)).thenReturn(60L);
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldRankRecentUsesAboveOlderUses_whenUsesDecay() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            trendingTagService.recordTagUse(TAG_ONE.getId(), now);
+        }
+        for (int i = 0; i < 3; i++) {
+            trendingTagService.recordTagUse(TAG_TWO.getId(), now + 4 * HOUR_MS);
+        }
+
+        assertThat(trendingTagService.getTrendingTagIds(2)).containsExactly(TAG_TWO.getId(), TAG_ONE.getId());
+    }
+
+    @Test
+    void shouldKeepHeavyHitters_whenMoreTagsThanSketchCapacityAreUsed() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            trendingTagService.recordTagUse(TAG_ONE.getId(), now);
+        }
+        for (long tagId = 100; tagId < 100 + 2L * AppConstants.TRENDING_TAG_SKETCH_CAPACITY; tagId++) {
+            trendingTagService.recordTagUse(tagId, now);
+        }
+
+        assertThat(trendingTagService.getTrendingTagIds(1)).containsExactly(TAG_ONE.getId());
+    }
+
+    @Test
+    void shouldKeepRankingStable_whenDecayLandmarkMoves() {
+        long now = System.currentTimeMillis();
+        trendingTagService.recordTagUse(TAG_ONE.getId(), now);
+        trendingTagService.recordTagUse(TAG_ONE.getId(), now);
+        trendingTagService.recordTagUse(TAG_TWO.getId(), now);
+        trendingTagService.recordTagUse(3L, now + 1000 * HOUR_MS);
+
+        assertThat(trendingTagService.getTrendingTagIds(3)).containsExactly(3L, TAG_ONE.getId(), TAG_TWO.getId());
+    }
+
+    @Test
+    void shouldServeSnapshotFilledWithAllTimeTags_whenFewTagsAreTrending() {
+        trendingTagService.recordTagUse(TAG_TWO.getId());
+        when(tagRepository.findAllById(List.of(TAG_TWO.getId()))).thenReturn(List.of(TAG_TWO));
+        when(tagRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(TAG_ONE, TAG_TWO)));
+
+        List<Tag> firstSnapshot = trendingTagService.getTrendingTags();
+        List<Tag> secondSnapshot = trendingTagService.getTrendingTags();
+
+        assertThat(firstSnapshot).containsExactly(TAG_TWO, TAG_ONE);
+        assertThat(secondSnapshot).isSameAs(firstSnapshot);
+        verify(tagRepository, times(1)).findAllById(any());
+    }
+}
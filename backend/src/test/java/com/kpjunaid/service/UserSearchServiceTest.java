@@ -0,0 +1,74 @@
+package com.kpjunaid.service;
+
+import com.kpjunaid.entity.User;
+import com.kpjunaid.repository.UserRepository;
+import com.kpjunaid.shared.MockResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSearchServiceTest {
+    @InjectMocks
+    UserSearchServiceImpl userSearchService;
+
+    @Mock
+    UserRepository userRepository;
+
+    private final User USER_JOHN = MockResource.getMockUserJohn();
+    private final User USER_JANE = MockResource.getMockUserJane();
+
+    @BeforeEach
+    void setUp() {
+        userSearchService.indexUser(USER_JOHN.getId(), USER_JOHN.getFirstName(), USER_JOHN.getLastName());
+        userSearchService.indexUser(USER_JANE.getId(), USER_JANE.getFirstName(), USER_JANE.getLastName());
+        userSearchService.indexUser(3L, "Doeberg", "Smith");
+    }
+
+    @AfterEach
+    void tearDown() {
+    }
+
+    @Test
+    void shouldReturnPrefixMatchesFirst_whenNameIsSearched() {
+        List<Long> userIds = userSearchService.searchUserIds("doe", 0, 5);
+
+        assertThat(userIds).containsExactly(3L, USER_JANE.getId(), USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldMatchAcrossFirstAndLastName_whenFullNameIsSearched() {
+        List<Long> userIds = userSearchService.searchUserIds("  JOHN   doe ", 0, 5);
+
+        assertThat(userIds).containsExactly(USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldReflectRenameAndRemoval_whenIndexIsUpdated() {
+        userSearchService.indexUser(USER_JOHN.getId(), "Johnny", "Walker");
+        userSearchService.removeUser(USER_JANE.getId());
+
+        assertThat(userSearchService.searchUserIds("doe", 0, 5)).containsExactly(3L);
+        assertThat(userSearchService.searchUserIds("walk", 0, 5)).containsExactly(USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldPageRankedMatches_whenPageIsGiven() {
+        assertThat(userSearchService.searchUserIds("doe", 1, 2)).containsExactly(USER_JOHN.getId());
+    }
+
+    @Test
+    void shouldReturnNoMatches_whenKeyIsShorterThanTrigram() {
+        assertThat(userSearchService.searchUserIds(" Jo ", 0, 5)).isEmpty();
+    }
+}
@@ -1,12 +1,16 @@
 package com.kpjunaid.service;
 
 import com.kpjunaid.common.AppConstants;
+import com.kpjunaid.common.AuthenticatedUserDetails;
 import com.kpjunaid.common.UserPrincipal;
 import com.kpjunaid.dto.*;
 import com.kpjunaid.entity.Comment;
 import com.kpjunaid.entity.Country;
 import com.kpjunaid.entity.Post;
 import com.kpjunaid.entity.User;
+import com.kpjunaid.enumeration.CounterType;
+import com.kpjunaid.exception.EmailExistsException;
+import com.kpjunaid.exception.InvalidOperationException;
 import com.kpjunaid.exception.UserNotFoundException;
 import com.kpjunaid.mapper.MapstructMapperUpdate;
 import com.kpjunaid.repository.UserRepository;
@@ -17,6 +21,7 @@ import com.kpjunaid.util.FileUploadUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -25,6 +30,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.core.env.Environment;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -36,8 +42,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @DataJpaTest
@@ -57,6 +65,18 @@ class UserServiceTest {
     @Mock
     JwtTokenService jwtTokenService;
 
+    @Mock
+    TimelineService timelineService;
+
+    @Mock
+    CounterService counterService;
+
+    @Mock
+    FollowGraphService followGraphService;
+
+    @Mock
+    UserSearchService userSearchService;
+
     @Mock
     PasswordEncoder passwordEncoder;
 
@@ -164,7 +184,7 @@ class UserServiceTest {
                 .lastName(USER_JOHN.getLastName())
                 .build();
 
-        when(userRepository.findByEmail(USER_JOHN.getEmail())).thenThrow(UserNotFoundException.class);
+        when(userRepository.existsByEmail(USER_JOHN.getEmail())).thenReturn(false);
         when(emailService.buildEmailVerifyMail(anyString())).thenReturn(verifyEmailText);
         doNothing().when(emailService).send(signupDto.getEmail(), AppConstants.VERIFY_EMAIL, verifyEmailText);
         when(userRepository.save(any(User.class))).thenReturn(USER_JOHN);
@@ -175,6 +195,23 @@ class UserServiceTest {
         assertThat(savedUser).isNotNull();
     }
 
+    @Test
+    void shouldThrowEmailExistsException_whenSignupEmailIsTaken() {
+        SignupDto signupDto = SignupDto.builder()
+                .email(USER_JOHN.getEmail())
+                .password(USER_JOHN.getPassword())
+                .passwordRepeat(USER_JOHN.getPassword())
+                .firstName(USER_JOHN.getFirstName())
+                .lastName(USER_JOHN.getLastName())
+                .build();
+
+        when(userRepository.existsByEmail(USER_JOHN.getEmail())).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.createNewUser(signupDto)).isInstanceOf(EmailExistsException.class);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void shouldUpdateUserInfo_whenUpdateUserInfoDtoIsGiven() {
         UpdateUserInfoDto updateUserInfoDto = UpdateUserInfoDto.builder()
@@ -211,7 +248,7 @@ class UserServiceTest {
         SecurityContextHolder.setContext(securityContext);
         when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
         when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
-        when(userRepository.findByEmail(updateEmailDto.getEmail())).thenThrow(UserNotFoundException.class);
+        when(userRepository.existsByEmail(updateEmailDto.getEmail())).thenReturn(false);
         when(passwordEncoder.matches(updateEmailDto.getPassword(), USER_JOHN.getPassword())).thenReturn(true);
         when(emailService.buildEmailVerifyMail(anyString())).thenReturn(verifyEmailText);
         doNothing().when(emailService).send(updateEmailDto.getEmail(), AppConstants.VERIFY_EMAIL, verifyEmailText);
@@ -245,6 +282,69 @@ class UserServiceTest {
         assertThat(updatedUser).isNotNull();
     }
 
+    @Test
+    void shouldLookUpAuthUserOnce_whenAuthUserIdIsInTokenDetails() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(USER_JOHN.getEmail());
+        when(authentication.getDetails())
+                .thenReturn(new AuthenticatedUserDetails(new MockHttpServletRequest(), USER_JOHN.getId()));
+        when(userRepository.findById(USER_JOHN.getId())).thenReturn(Optional.of(USER_JOHN));
+        User johnReference = MockResource.getMockUserJohn();
+        when(userRepository.getById(USER_JOHN.getId())).thenReturn(johnReference);
+
+        User firstAuthUser = userService.getAuthenticatedUser();
+        User secondAuthUser = userService.getAuthenticatedUser();
+
+        verify(userRepository, times(1)).findById(USER_JOHN.getId());
+        verify(userRepository, never()).findByEmail(anyString());
+        assertThat(firstAuthUser).isSameAs(USER_JOHN);
+        assertThat(secondAuthUser).isSameAs(johnReference);
+    }
+
+    @Test
+    void shouldReloadAuthUser_whenCachedEmailNoLongerMatchesPrincipal() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(USER_JOHN.getEmail(), "john.new@dom.com");
+        when(authentication.getDetails())
+                .thenReturn(new AuthenticatedUserDetails(new MockHttpServletRequest(), USER_JOHN.getId()));
+        User renamedJohn = MockResource.getMockUserJohn();
+        renamedJohn.setEmail("john.new@dom.com");
+        when(userRepository.findById(USER_JOHN.getId())).thenReturn(Optional.of(USER_JOHN), Optional.of(renamedJohn));
+
+        userService.getAuthenticatedUser();
+        User reloadedAuthUser = userService.getAuthenticatedUser();
+
+        verify(userRepository, times(2)).findById(USER_JOHN.getId());
+        verify(userRepository, never()).getById(anyLong());
+        assertThat(reloadedAuthUser).isSameAs(renamedJohn);
+    }
+
+    @Test
+    void shouldReloadAuthUser_whenPasswordIsUpdated() {
+        UpdatePasswordDto updatePasswordDto = UpdatePasswordDto.builder()
+                .password("@@P4ssword")
+                .passwordRepeat("@@P4ssword")
+                .oldPassword(USER_JOHN.getPassword())
+                .build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(USER_JOHN.getEmail());
+        when(authentication.getDetails())
+                .thenReturn(new AuthenticatedUserDetails(new MockHttpServletRequest(), USER_JOHN.getId()));
+        when(userRepository.findById(USER_JOHN.getId())).thenReturn(Optional.of(USER_JOHN));
+        when(passwordEncoder.matches(updatePasswordDto.getOldPassword(), USER_JOHN.getPassword())).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenReturn(USER_JOHN);
+
+        userService.getAuthenticatedUser();
+        userService.updatePassword(updatePasswordDto);
+        userService.getAuthenticatedUser();
+
+        verify(userRepository, times(3)).findById(USER_JOHN.getId());
+    }
+
     @Test
     void shouldVerifyEmail_whenVerificationTokenIsGiven() {
         String jwtToken = "jwt-token";
@@ -352,6 +452,15 @@ class UserServiceTest {
         verify(emailService).send(anyString(), anyString(), anyString());
     }
 
+    @Test
+    void shouldSendNothing_whenForgotPasswordEmailIsUnknown() {
+        when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.empty());
+
+        userService.forgotPassword(USER_JOHN.getEmail());
+
+        verifyNoInteractions(emailService);
+    }
+
     @Test
     void shouldChangePassword_whenValidTokenAndResetPasswordDtoIsGiven() {
         String jwtToken = "jwt-token";
@@ -378,36 +487,46 @@ class UserServiceTest {
         when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
         when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
         when(userRepository.findById(USER_JANE.getId())).thenReturn(Optional.of(USER_JANE));
-        when(userRepository.save(USER_JOHN)).thenReturn(USER_JOHN);
-        when(userRepository.save(USER_JANE)).thenReturn(USER_JANE);
+        when(followGraphService.addFollow(USER_JOHN.getId(), USER_JANE.getId())).thenReturn(true);
 
         userService.followUser(USER_JANE.getId());
 
-        verify(userRepository, times(2)).save(any(User.class));
-        assertThat(USER_JOHN.getFollowingUsers().size()).isEqualTo(1);
-        assertThat(USER_JANE.getFollowerUsers().size()).isEqualTo(1);
+        verify(followGraphService).addFollow(USER_JOHN.getId(), USER_JANE.getId());
+        verify(userRepository, never()).save(any(User.class));
+        verify(counterService).increment(CounterType.USER_FOLLOWING, USER_JOHN.getId(), 1);
+        verify(counterService).increment(CounterType.USER_FOLLOWER, USER_JANE.getId(), 1);
     }
 
     @Test
-    void shouldUnfollowUser_whenUserIdIsGiven() {
-        USER_JOHN.getFollowingUsers().add(USER_JANE);
-        USER_JOHN.setFollowingCount(USER_JOHN.getFollowingCount()+1);
-        USER_JANE.getFollowerUsers().add(USER_JOHN);
-        USER_JANE.setFollowerCount(USER_JANE.getFollowerCount()+1);
+    void shouldNotCountFollowTwice_whenUserIsAlreadyFollowed() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
+        when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
+        when(userRepository.findById(USER_JANE.getId())).thenReturn(Optional.of(USER_JANE));
+        when(followGraphService.addFollow(USER_JOHN.getId(), USER_JANE.getId())).thenReturn(false);
 
+        assertThatThrownBy(() -> userService.followUser(USER_JANE.getId()))
+                .isInstanceOf(InvalidOperationException.class);
+        verifyNoInteractions(counterService);
+    }
+
+    @Test
+    void shouldUnfollowUser_whenUserIdIsGiven() {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
         when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
         when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
         when(userRepository.findById(USER_JANE.getId())).thenReturn(Optional.of(USER_JANE));
-        when(userRepository.save(USER_JOHN)).thenReturn(USER_JOHN);
-        when(userRepository.save(USER_JANE)).thenReturn(USER_JANE);
+        when(followGraphService.removeFollow(USER_JOHN.getId(), USER_JANE.getId())).thenReturn(true);
 
         userService.unfollowUser(USER_JANE.getId());
 
-        verify(userRepository, times(2)).save(any(User.class));
-        assertThat(USER_JOHN.getFollowingUsers().size()).isEqualTo(0);
-        assertThat(USER_JANE.getFollowerUsers().size()).isEqualTo(0);
+        verify(followGraphService).removeFollow(USER_JOHN.getId(), USER_JANE.getId());
+        verify(userRepository, never()).save(any(User.class));
+        verify(timelineService).removeAuthorFromTimeline(USER_JOHN.getId(), USER_JANE.getId());
+        verify(counterService).increment(CounterType.USER_FOLLOWING, USER_JOHN.getId(), -1);
+        verify(counterService).increment(CounterType.USER_FOLLOWER, USER_JANE.getId(), -1);
     }
 
     @Test
@@ -421,16 +540,36 @@ class UserServiceTest {
         SecurityContextHolder.setContext(securityContext);
         when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
         when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
-        when(userRepository.findUsersByName(
-                key,
-                PageRequest.of(0, 5)
-        )).thenReturn(List.of(USER_JOHN, USER_JANE));
+        when(userSearchService.searchUserIds(key, 0, 5)).thenReturn(List.of(USER_JOHN.getId(), USER_JANE.getId()));
+        when(userRepository.findAllById(List.of(USER_JOHN.getId(), USER_JANE.getId())))
+                .thenReturn(List.of(USER_JANE, USER_JOHN));
 
         List<UserResponse> returnedResultList = userService.getUserSearchResult(key, 0, 5);
 
         assertThat(returnedResultList.size()).isEqualTo(2);
     }
 
+    @Test
+    void shouldResolveFollowedByAuthUserWithOneGraphLookup_whenSearchResultsAreGiven() {
+        String key = "Doe";
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        when(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).thenReturn(USER_JOHN.getEmail());
+        when(userRepository.findByEmail(USER_JOHN.getEmail())).thenReturn(Optional.of(USER_JOHN));
+        when(userSearchService.searchUserIds(key, 0, 5)).thenReturn(List.of(USER_JOHN.getId(), USER_JANE.getId()));
+        when(userRepository.findAllById(List.of(USER_JOHN.getId(), USER_JANE.getId())))
+                .thenReturn(List.of(USER_JOHN, USER_JANE));
+        when(followGraphService.getFollowedIdsAmong(USER_JOHN.getId(), List.of(USER_JOHN.getId(), USER_JANE.getId())))
+                .thenReturn(Set.of(USER_JANE.getId()));
+
+        List<UserResponse> returnedResultList = userService.getUserSearchResult(key, 0, 5);
+
+        assertThat(returnedResultList).extracting(UserResponse::getFollowedByAuthUser).containsExactly(false, true);
+        verify(userRepository, times(1)).findByEmail(USER_JOHN.getEmail());
+        verify(followGraphService, times(1)).getFollowedIdsAmong(anyLong(), anyList());
+    }
+
     @Test
     void shouldReturnListOfPostLikerUsers_whenPostIsGiven() {
         POST_ONE.getLikeList().add(USER_JOHN);
@@ -464,4 +603,40 @@ class UserServiceTest {
 
         assertThat(returnedUserList.size()).isEqualTo(2);
     }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldResolveFreeEmailFasterWithoutException_whenEmailIsNotTaken() {
+        String freeEmail = "free.email@dom.com";
+        when(userRepository.findByEmail(freeEmail)).thenReturn(Optional.empty());
+        when(userRepository.existsByEmail(freeEmail)).thenReturn(false);
+        int iterations = 200_000;
+        measureFreeEmailLookups(freeEmail, iterations, true);
+        measureFreeEmailLookups(freeEmail, iterations, false);
+
+        long exceptionNanos = measureFreeEmailLookups(freeEmail, iterations, true);
+        long existsNanos = measureFreeEmailLookups(freeEmail, iterations, false);
+
+        assertThat(existsNanos).isLessThan(exceptionNanos);
+    }
+
+    private long measureFreeEmailLookups(String email, int iterations, boolean useException) {
+        int freeCount = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (useException) {
+                try {
+                    userService.getUserByEmail(email);
+                } catch (UserNotFoundException e) {
+                    freeCount++;
+                }
+            } else if (!userService.existsByEmail(email)) {
+                freeCount++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        clearInvocations(userRepository);
+        assertThat(freeCount).isEqualTo(iterations);
+        return elapsedNanos;
+    }
 }
@@ -3,10 +3,20 @@ package com.kpjunaid.shared;
 import com.kpjunaid.entity.*;
 import com.kpjunaid.enumeration.NotificationType;
 import com.kpjunaid.enumeration.Role;
+import com.kpjunaid.projection.CommentSummaryProjection;
+import com.kpjunaid.projection.NotificationSummaryProjection;
+import com.kpjunaid.projection.PostContentProjection;
+import com.kpjunaid.projection.PostSummaryProjection;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class MockResource {
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
     public static User getMockUserJohn() {
         return  User.builder()
                 .id(1L)
@@ -165,4 +175,63 @@ public class MockResource {
                 .name("Bangladesh")
                 .build();
     }
+
+    public static PostSummaryProjection getPostSummary(Post post) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", post.getId());
+        columns.put("content", post.getContent());
+        columns.put("postPhoto", post.getPostPhoto());
+        columns.put("likeCount", post.getLikeCount());
+        columns.put("commentCount", post.getCommentCount());
+        columns.put("shareCount", post.getShareCount());
+        columns.put("isTypeShare", post.getIsTypeShare());
+        columns.put("dateCreated", post.getDateCreated());
+        columns.put("dateLastModified", post.getDateLastModified());
+        columns.put("sharedPostId", post.getSharedPost() == null ? null : post.getSharedPost().getId());
+        columns.put("authorId", post.getAuthor().getId());
+        columns.put("authorFirstName", post.getAuthor().getFirstName());
+        columns.put("authorLastName", post.getAuthor().getLastName());
+        columns.put("authorProfilePhoto", post.getAuthor().getProfilePhoto());
+        return PROJECTION_FACTORY.createProjection(PostSummaryProjection.class, columns);
+    }
+
+    public static PostContentProjection getPostContent(Long id, String content) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", id);
+        columns.put("content", content);
+        return PROJECTION_FACTORY.createProjection(PostContentProjection.class, columns);
+    }
+
+    public static CommentSummaryProjection getCommentSummary(Comment comment) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", comment.getId());
+        columns.put("content", comment.getContent());
+        columns.put("likeCount", comment.getLikeCount());
+        columns.put("dateCreated", comment.getDateCreated());
+        columns.put("dateLastModified", comment.getDateLastModified());
+        columns.put("authorId", comment.getAuthor().getId());
+        columns.put("authorFirstName", comment.getAuthor().getFirstName());
+        columns.put("authorLastName", comment.getAuthor().getLastName());
+        columns.put("authorProfilePhoto", comment.getAuthor().getProfilePhoto());
+        return PROJECTION_FACTORY.createProjection(CommentSummaryProjection.class, columns);
+    }
+
+    public static NotificationSummaryProjection getNotificationSummary(Notification notification) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", notification.getId());
+        columns.put("type", notification.getType());
+        columns.put("isSeen", notification.getIsSeen());
+        columns.put("isRead", notification.getIsRead());
+        columns.put("dateCreated", notification.getDateCreated());
+        columns.put("dateUpdated", notification.getDateUpdated());
+        columns.put("senderId", notification.getSender().getId());
+        columns.put("senderFirstName", notification.getSender().getFirstName());
+        columns.put("senderLastName", notification.getSender().getLastName());
+        columns.put("owningPostId", notification.getOwningPost().getId());
+        columns.put("owningPostContent", notification.getOwningPost().getContent());
+        columns.put("owningPostLikeCount", notification.getOwningPost().getLikeCount());
+        columns.put("owningPostCommentCount", notification.getOwningPost().getCommentCount());
+        columns.put("owningPostShareCount", notification.getOwningPost().getShareCount());
+        return PROJECTION_FACTORY.createProjection(NotificationSummaryProjection.class, columns);
+    }
 }
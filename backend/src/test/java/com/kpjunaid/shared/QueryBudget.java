@@ -0,0 +1,43 @@
+package com.kpjunaid.shared;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryBudget {
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    public int measure(ThrowingAction action) throws Exception {
+        statistics.clear();
+        QueryCountInspector.reset();
+        action.run();
+        return QueryCountInspector.getCount();
+    }
+
+    public int assertWithin(int maxStatements, ThrowingAction action) throws Exception {
+        int statementCount = measure(action);
+        assertThat(statementCount)
+                .as("statements: %d (budget %d), entity fetches: %d, collection fetches: %d, queries: %s",
+                        statementCount,
+                        maxStatements,
+                        statistics.getEntityFetchCount(),
+                        statistics.getCollectionFetchCount(),
+                        Arrays.toString(statistics.getQueries()))
+                .isLessThanOrEqualTo(maxStatements);
+        return statementCount;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingAction {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,23 @@
+package com.kpjunaid.shared;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryCountInspector implements StatementInspector {
+    private static final ThreadLocal<AtomicInteger> QUERY_COUNT = ThreadLocal.withInitial(AtomicInteger::new);
+
+    @Override
+    public String inspect(String sql) {
+        QUERY_COUNT.get().incrementAndGet();
+        return sql;
+    }
+
+    public static void reset() {
+        QUERY_COUNT.get().set(0);
+    }
+
+    public static int getCount() {
+        return QUERY_COUNT.get().get();
+    }
+}